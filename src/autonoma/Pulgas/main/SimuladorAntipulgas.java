@@ -2,6 +2,10 @@ package autonoma.Pulgas.main;
 
 import autonoma.Pulgas.modelos.GUI;
 import autonoma.Pulgas.modelos.Juego;
+import autonoma.Pulgas.modelos.MetricasJuego;
+import autonoma.Pulgas.modelos.PersistenciaScore;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 
 
 /**
@@ -9,15 +13,55 @@ import autonoma.Pulgas.modelos.Juego;
  * 
  * Este simulador permite entrenar a los soldados para combatir
  * la plaga de pulgas locas y mutantes que acosan a la localidad....
+ * Las métricas del juego se pueden ver por JMX (con JConsole, por ejemplo)
+ * bajo el nombre {@link MetricasJuego#NOMBRE}.
  */
 public class SimuladorAntipulgas {
     
     /**
      * .Método principal para arrancar la aplicación.
      * 
-     * @param args Argumentos de línea de comandos (no utilizados).
+     * @param args Argumentos opcionales: {@code dibujo=activo} para dibujar con un hilo
+     *             propio, {@code cuadrosPorSegundo=N} para su ritmo (0 = sin pausa) y
+     *             {@code grabar=archivo} para grabar la sesión y reproducirla después
+     *             (con {@code semilla=N} opcional), y {@code campo=ANCHOxALTO} para un
+     *             campo más grande que la ventana (se recorre con la rueda y el clic derecho).
      */
     public static void main(String[] args) {
+        boolean dibujoActivo = false;
+        int cuadrosPorSegundo = -1;
+        String archivoGrabacion = null;
+        long semillaGrabacion = System.nanoTime();
+        int anchoCampo = 800;
+        int altoCampo = 600;
+        for (String arg : args) {
+            if (arg.equals("dibujo=activo")) {
+                dibujoActivo = true;
+            } else if (arg.startsWith("cuadrosPorSegundo=")) {
+                cuadrosPorSegundo = Integer.parseInt(arg.substring("cuadrosPorSegundo=".length()));
+            } else if (arg.startsWith("grabar=")) {
+                archivoGrabacion = arg.substring("grabar=".length());
+            } else if (arg.startsWith("semilla=")) {
+                semillaGrabacion = Long.parseLong(arg.substring("semilla=".length()));
+            } else if (arg.startsWith("campo=")) {
+                String[] lados = arg.substring("campo=".length()).split("x", 2);
+                if (lados.length != 2) {
+                    throw new IllegalArgumentException("Tamaño de campo inválido (se espera ANCHOxALTO): " + arg);
+                }
+                anchoCampo = Integer.parseInt(lados[0]);
+                altoCampo = Integer.parseInt(lados[1]);
+            } else {
+                throw new IllegalArgumentException("Parámetro desconocido: " + arg);
+            }
+        }
+        MetricasJuego.registrar();
+        final boolean activo = dibujoActivo;
+        final int cuadros = cuadrosPorSegundo;
+        final String grabacion = archivoGrabacion;
+        final long semilla = semillaGrabacion;
+        final int ancho = anchoCampo;
+        final int alto = altoCampo;
+        
         // Usar SwingUtilities para asegurar que la GUI se crea en el hilo de eventos..
         javax.swing.SwingUtilities.invokeLater(new Runnable() {
             public void run() {
@@ -30,13 +74,26 @@ public class SimuladorAntipulgas {
                 }
                 
                 // Crear una instancia del juego..
-                Juego juego = new Juego();
+                Juego juego = new Juego(new PersistenciaScore("puntajes.dat"), ancho, alto);
                 
                 // Crear la interfaz gráfica
-                GUI gui = new GUI(juego);
+                GUI gui = new GUI(juego, activo);
+                if (gui.getLienzoActivo() != null && cuadros >= 0) {
+                    gui.getLienzoActivo().setCuadrosPorSegundo(cuadros);
+                }
                 
                 // Iniciar la interfaz
                 gui.iniciar();
+                
+                // Grabar la sesión desde el inicio (el juego se reinicia con la semilla)
+                if (grabacion != null) {
+                    try {
+                        gui.getSimulacion().grabar(new FileOutputStream(grabacion), semilla);
+                        System.out.println("Grabando la sesión en " + grabacion + " (semilla " + semilla + ")");
+                    } catch (FileNotFoundException e) {
+                        System.err.println("No se pudo crear la grabación: " + e.getMessage());
+                    }
+                }
             }
         });
     }
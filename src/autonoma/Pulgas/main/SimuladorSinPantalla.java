@@ -0,0 +1,96 @@
+package autonoma.Pulgas.main;
+
+import autonoma.Pulgas.modelos.Campo;
+import autonoma.Pulgas.modelos.CampoCompacto;
+import autonoma.Pulgas.modelos.CampoSimulable;
+import autonoma.Pulgas.modelos.EscenarioSimulacion;
+import autonoma.Pulgas.modelos.FuenteAleatoria;
+import autonoma.Pulgas.modelos.MetricasJuego;
+import autonoma.Pulgas.modelos.MotorSimulacion;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Clase principal para ejecutar la simulación sin pantalla.
+ *
+ * No crea ventanas ni carga AWT, por lo que sirve para pruebas de carga
+ * de tasas de generación y balance de armas en servidores sin pantalla.
+ * Las métricas del juego quedan visibles por JMX ({@link MetricasJuego}) y se
+ * muestran al terminar.
+ * Los parámetros se pasan como clave=valor, por ejemplo:
+ * {@code pulgas=1000000 segundos=30 tiempoReal=false misiles=0.5}
+ */
+public class SimuladorSinPantalla {
+
+    /**
+     * Método principal para arrancar la simulación sin pantalla.
+     *
+     * @param args Parámetros clave=valor (ver {@link #leerParametros}).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        Map<String, String> parametros = leerParametros(args);
+        MetricasJuego.registrar();
+
+        int pulgasIniciales = Integer.parseInt(parametros.getOrDefault("pulgas", "10000"));
+        int pasosPorSegundo = Integer.parseInt(parametros.getOrDefault("pasosPorSegundo", "50"));
+        boolean tiempoReal = Boolean.parseBoolean(parametros.getOrDefault("tiempoReal", "true"));
+        int segundos = Integer.parseInt(parametros.getOrDefault("segundos", "10"));
+        boolean objetos = Boolean.parseBoolean(parametros.getOrDefault("objetos", "false"));
+
+        // Por defecto el campo se dimensiona para quedar a un cuarto de su capacidad
+        int ladoPorDefecto = (int) Math.sqrt(Math.max(1, pulgasIniciales) * 40.0 * 40.0 * 4) + 50;
+        int ancho = Integer.parseInt(parametros.getOrDefault("ancho", String.valueOf(ladoPorDefecto)));
+        int alto = Integer.parseInt(parametros.getOrDefault("alto", String.valueOf(ladoPorDefecto)));
+
+        // Todo lo aleatorio sale de la misma semilla, así una corrida se puede repetir
+        FuenteAleatoria aleatorio = new FuenteAleatoria(Long.parseLong(parametros.getOrDefault("semilla", "1")));
+        CampoSimulable campo = objetos
+                ? new Campo(ancho, alto, aleatorio.derivar(0))
+                : new CampoCompacto(ancho, alto, pulgasIniciales, aleatorio.derivar(0));
+        for (int i = 0; i < pulgasIniciales; i++) {
+            campo.agregarPulgaNormal();
+        }
+
+        EscenarioSimulacion escenario = new EscenarioSimulacion(campo, pasosPorSegundo, aleatorio.derivar(1));
+        escenario.setPulgasNormalesPorSegundo(Double.parseDouble(parametros.getOrDefault("normales", "0.2")));
+        escenario.setPulgasMutantesPorSegundo(Double.parseDouble(parametros.getOrDefault("mutantes", "0.1")));
+        escenario.setDisparosPorSegundo(Double.parseDouble(parametros.getOrDefault("disparos", "0")));
+        escenario.setMisilesPorSegundo(Double.parseDouble(parametros.getOrDefault("misiles", "0")));
+        escenario.setSaltosPorSegundo(Double.parseDouble(parametros.getOrDefault("saltos", "0")));
+
+        System.out.println("Campo " + ancho + "x" + alto + " con " + campo.pulgasRestantes() + " pulgas");
+
+        MotorSimulacion motor = new MotorSimulacion(escenario, pasosPorSegundo, tiempoReal);
+        motor.iniciar();
+        for (int s = 1; s <= segundos; s++) {
+            Thread.sleep(1000);
+            System.out.printf("t=%ds pasos=%d pasos/s=%.1f pulgas=%d generadas=%d fallidas=%d eliminadas=%d%n",
+                    s, motor.getPasos(), motor.getPasosPorSegundoMedidos(), campo.pulgasRestantes(),
+                    escenario.getPulgasGeneradas(), escenario.getGeneracionesFallidas(),
+                    escenario.getPulgasEliminadas());
+        }
+        motor.detener();
+        System.out.println(MetricasJuego.getGlobal());
+    }
+
+    /**
+     * Convierte los argumentos clave=valor en un mapa. Claves reconocidas:
+     * pulgas, ancho, alto, pasosPorSegundo, tiempoReal, segundos, objetos,
+     * semilla, normales, mutantes, disparos, misiles, saltos.
+     *
+     * @param args Argumentos de línea de comandos.
+     * @return Mapa de parámetros.
+     */
+    private static Map<String, String> leerParametros(String[] args) {
+        Map<String, String> parametros = new HashMap<>();
+        for (String arg : args) {
+            int separador = arg.indexOf('=');
+            if (separador <= 0) {
+                throw new IllegalArgumentException("Parámetro inválido (se espera clave=valor): " + arg);
+            }
+            parametros.put(arg.substring(0, separador), arg.substring(separador + 1));
+        }
+        return parametros;
+    }
+}
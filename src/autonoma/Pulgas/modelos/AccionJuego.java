@@ -0,0 +1,73 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Acciones que cambian el juego: las del jugador y las pulgas del generador.
+ *
+ * Cada acción es un código de un byte (más un punto para el disparo), así puede
+ * grabarse en una sesión y volver a aplicarse igual al reproducirla. Las acciones
+ * aplican las mismas condiciones que antes aplicaba la interfaz (por ejemplo, no se
+ * agregan pulgas si el juego terminó), de modo que reproducir una acción que en su
+ * momento no tuvo efecto tampoco lo tiene.
+ */
+public final class AccionJuego {
+    public static final byte INICIAR = 1;
+    public static final byte REINICIAR = 2;
+    public static final byte FINALIZAR = 3;
+    public static final byte PULGA_NORMAL = 4;
+    public static final byte PULGA_MUTANTE = 5;
+    public static final byte DISPARO = 6;
+    public static final byte MISIL = 7;
+    public static final byte SALTO = 8;
+
+    private AccionJuego() {
+    }
+
+    /**
+     * Aplica una acción al juego. Debe llamarse desde el hilo de simulación.
+     *
+     * @param juego  Juego al que se aplica.
+     * @param accion Código de la acción.
+     * @param x      Coordenada X (solo para el disparo).
+     * @param y      Coordenada Y (solo para el disparo).
+     */
+    public static void aplicar(Juego juego, byte accion, int x, int y) {
+        switch (accion) {
+            case INICIAR:
+                juego.iniciar();
+                break;
+            case REINICIAR:
+                juego.reiniciar();
+                break;
+            case FINALIZAR:
+                if (juego.esJuegoActivo()) {
+                    juego.finalizar();
+                }
+                break;
+            case PULGA_NORMAL:
+                if (juego.esJuegoActivo()) {
+                    juego.agregarPulgaNormal();
+                }
+                break;
+            case PULGA_MUTANTE:
+                if (juego.esJuegoActivo()) {
+                    juego.agregarPulgaMutante();
+                }
+                break;
+            case DISPARO:
+                juego.dispararPistola(x, y);
+                break;
+            case MISIL:
+                if (juego.esJuegoActivo()) {
+                    juego.dispararMisil();
+                }
+                break;
+            case SALTO:
+                if (juego.esJuegoActivo()) {
+                    juego.hacerSaltarPulgas();
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Acción desconocida: " + accion);
+        }
+    }
+}
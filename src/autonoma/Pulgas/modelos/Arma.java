@@ -1,7 +1,5 @@
 package autonoma.Pulgas.modelos;
 
-import java.util.ArrayList;
-
 /**
  * Clase abstracta que representa un arma en el juego.
  * Define el comportamiento básico de todas las armas.
@@ -12,10 +10,10 @@ public abstract class Arma {
      * Método que define cómo el arma ataca a las pulgas.
      * Cada tipo de arma implementará su propia lógica de ataque.
      * 
-     * @param pulgas Lista de pulgas en el campo.
+     * @param campo Campo donde se encuentran las pulgas.
      * @param x Coordenada X del punto de ataque (si aplica).
      * @param y Coordenada Y del punto de ataque (si aplica).
      * @return Número de pulgas eliminadas o afectadas por el ataque.
      */
-    public abstract int atacar(ArrayList<Pulga> pulgas, int x, int y);
+    public abstract int atacar(ObjetivoArma campo, int x, int y);
 }
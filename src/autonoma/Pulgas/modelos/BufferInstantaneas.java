@@ -0,0 +1,54 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triple búfer de instantáneas entre el hilo de simulación (escritor) y el de dibujo (lector).
+ * El escritor llena su búfer y lo publica; el lector toma siempre el último publicado.
+ * Ninguno de los dos se bloquea: un cuadro lento no detiene la simulación
+ * y un paso pesado no impide dibujar la última instantánea completa.
+ */
+public class BufferInstantaneas {
+    // Bit que indica que el búfer intermedio tiene una instantánea que el lector no ha tomado
+    private static final int NUEVA = 4;
+    private static final int INDICE = 3;
+    
+    private final InstantaneaCampo[] buferes = {
+        new InstantaneaCampo(), new InstantaneaCampo(), new InstantaneaCampo()
+    };
+    // Índice del búfer intermedio, más el bit NUEVA
+    private final AtomicInteger intermedio = new AtomicInteger(1);
+    // Solo los usa el escritor
+    private int escritura = 0;
+    // Solo los usa el lector
+    private int lectura = 2;
+    
+    /**
+     * Obtiene el búfer que el hilo de simulación puede llenar.
+     * 
+     * @return Instantánea de escritura.
+     */
+    public InstantaneaCampo getEscritura() {
+        return buferes[escritura];
+    }
+    
+    /**
+     * Publica el búfer de escritura y toma el intermedio para el siguiente paso.
+     */
+    public void publicar() {
+        escritura = intermedio.getAndSet(escritura | NUEVA) & INDICE;
+    }
+    
+    /**
+     * Obtiene la última instantánea publicada. La instantánea devuelta no cambia
+     * hasta la siguiente llamada a este método desde el mismo hilo lector.
+     * 
+     * @return Última instantánea completa.
+     */
+    public InstantaneaCampo leerUltima() {
+        if ((intermedio.get() & NUEVA) != 0) {
+            lectura = intermedio.getAndSet(lectura) & INDICE;
+        }
+        return buferes[lectura];
+    }
+}
@@ -0,0 +1,177 @@
+package autonoma.Pulgas.modelos;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+/**
+ * Caché de imágenes de pulgas ya escaladas y compatibles con el dispositivo.
+ *
+ * Cada combinación de tipo y tamaño se escala una sola vez a una imagen creada por
+ * la configuración gráfica del destino, que Java2D puede acelerar; después cada
+ * pulga se dibuja copiando la imagen sin escalar. Si el destino cambia de
+ * configuración (por ejemplo, la ventana pasa a otro monitor) la caché se vacía
+ * y se reconstruye al dibujar.
+ *
+ * No es segura para hilos: debe usarse solo desde el hilo que dibuja.
+ */
+public class CacheSprites {
+    private static final CacheSprites COMPARTIDA = new CacheSprites();
+    private static final int TIPOS = 2;
+
+    private final HashMap<Integer, Image> imagenes = new HashMap<>();
+    private GraphicsConfiguration configuracion;
+    // Última imagen usada por tipo, para no consultar el mapa en cada pulga
+    private final Image[] ultimaImagen = new Image[TIPOS];
+    private final int[] ultimoAncho = new int[TIPOS];
+    private final int[] ultimoAlto = new int[TIPOS];
+    private long aciertos;
+    private long fallos;
+
+    /**
+     * Obtiene la caché que comparten el panel y las pulgas.
+     *
+     * @return Caché compartida.
+     */
+    public static CacheSprites getCompartida() {
+        return COMPARTIDA;
+    }
+
+    /**
+     * Dibuja una pulga con la imagen escalada de la caché, creándola si no existe.
+     *
+     * @param g     Contexto gráfico en el que se dibuja.
+     * @param tipo  Tipo de pulga ({@link Pulga#TIPO_NORMAL} o {@link Pulga#TIPO_MUTANTE}).
+     * @param x     Posición en X.
+     * @param y     Posición en Y.
+     * @param ancho Ancho de la pulga.
+     * @param alto  Alto de la pulga.
+     */
+    public void dibujar(Graphics g, byte tipo, int x, int y, int ancho, int alto) {
+        g.drawImage(obtener(g, tipo, ancho, alto), x, y, null);
+    }
+
+    /**
+     * Obtiene la imagen escalada para un tipo y tamaño de pulga.
+     *
+     * @param g     Contexto gráfico de destino, del que se toma la configuración.
+     * @param tipo  Tipo de pulga.
+     * @param ancho Ancho de la pulga.
+     * @param alto  Alto de la pulga.
+     * @return Imagen del tamaño pedido.
+     */
+    public Image obtener(Graphics g, byte tipo, int ancho, int alto) {
+        GraphicsConfiguration actual = g instanceof Graphics2D
+                ? ((Graphics2D) g).getDeviceConfiguration() : null;
+        if (actual != configuracion) {
+            // El destino cambió de dispositivo: las imágenes anteriores ya no son compatibles
+            vaciar();
+            configuracion = actual;
+        }
+
+        Image imagen = ultimaImagen[tipo];
+        if (imagen != null && ultimoAncho[tipo] == ancho && ultimoAlto[tipo] == alto) {
+            aciertos++;
+            return imagen;
+        }
+
+        Integer clave = (tipo << 16) | (ancho << 8) | alto;
+        imagen = imagenes.get(clave);
+        if (imagen == null) {
+            fallos++;
+            imagen = escalar(tipo == Pulga.TIPO_MUTANTE
+                    ? PulgaMutante.getImagenPulga() : PulgaNormal.getImagenPulga(), ancho, alto);
+            imagenes.put(clave, imagen);
+        } else {
+            aciertos++;
+        }
+        ultimaImagen[tipo] = imagen;
+        ultimoAncho[tipo] = ancho;
+        ultimoAlto[tipo] = alto;
+        return imagen;
+    }
+
+    /**
+     * Descarta todas las imágenes escaladas; se vuelven a crear al dibujar.
+     */
+    public void vaciar() {
+        imagenes.clear();
+        for (int i = 0; i < TIPOS; i++) {
+            ultimaImagen[i] = null;
+        }
+    }
+
+    /**
+     * Obtiene el número de pulgas dibujadas con una imagen que ya estaba en la caché.
+     *
+     * @return Número de aciertos.
+     */
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Obtiene el número de imágenes que hubo que escalar.
+     *
+     * @return Número de fallos.
+     */
+    public long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Escala la imagen original una sola vez, con interpolación de calidad.
+     * La imagen final usa la transparencia real de los píxeles: si la pulga es opaca,
+     * Java2D la copia sin mezclar canales alfa, que es mucho más rápido.
+     */
+    private Image escalar(Image original, int ancho, int alto) {
+        BufferedImage escalada = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = escalada.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(original, 0, 0, ancho, alto, null);
+        } finally {
+            g.dispose();
+        }
+
+        int transparencia = transparencia(escalada);
+        BufferedImage imagen = configuracion != null
+                ? configuracion.createCompatibleImage(ancho, alto, transparencia)
+                : new BufferedImage(ancho, alto, transparencia == Transparency.OPAQUE
+                        ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+        g = imagen.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(escalada, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return imagen;
+    }
+
+    /**
+     * Determina si la imagen es opaca, tiene píxeles totalmente transparentes o semitransparentes.
+     */
+    private static int transparencia(BufferedImage imagen) {
+        int transparencia = Transparency.OPAQUE;
+        for (int y = 0; y < imagen.getHeight(); y++) {
+            for (int x = 0; x < imagen.getWidth(); x++) {
+                int alfa = imagen.getRGB(x, y) >>> 24;
+                if (alfa != 0 && alfa != 255) {
+                    return Transparency.TRANSLUCENT;
+                }
+                if (alfa == 0) {
+                    transparencia = Transparency.BITMASK;
+                }
+            }
+        }
+        return transparencia;
+    }
+}
@@ -6,23 +6,53 @@ package autonoma.Pulgas.modelos;
  */
 import java.awt.Graphics;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
 
 /**
  * Clase que representa el campo de batalla donde se encuentran las pulgas..
+ * 
+ * Es seguro para hilos sin un cerrojo global: las pulgas viven en la rejilla
+ * espacial, cuyas regiones tienen cerrojos por franjas. Generar, disparar y
+ * dibujar en zonas distintas del campo avanzan en paralelo; solo las operaciones
+ * sobre el campo completo (misil, vaciar) toman todos los cerrojos.
  */
-public class Campo {
+public class Campo implements CampoSimulable {
     private int ancho;
     private int alto;
-    private ArrayList<Pulga> pulgas;
-    private Random random;
+    private RejillaEspacial rejilla;
+    // Cada hilo usa su propio generador, sin competir por una semilla compartida
+    private final FuenteAleatoria aleatorio;
+    private AtomicInteger cantidad;
+    // Orden de llegada de las pulgas, para desempatar qué pulga está encima
+    private AtomicLong secuencia;
+    // Posición del cursor; las pulgas lo esquivan solo si está dentro del campo
+    private volatile int mouseX;
+    private volatile int mouseY;
+    private volatile boolean mouseDentro;
+    // Lista reutilizada para las pulgas cercanas al cursor en cada cuadro
+    private final ArrayList<Pulga> pulgasCercanas = new ArrayList<>();
+    // Zonas que cambiaron desde la última vez que se tomaron los cambios, para redibujar solo esas
+    private final RegionSucia cambios = new RegionSucia();
+    // Resuelve los saltos de todas las pulgas en paralelo
+    private final SaltoParalelo salto;
+    // Lugares libres por celda; se crea cuando el campo se llena (protegido por todos los cerrojos)
+    private EspacioLibre espacioLibre;
     
     // Dimensiones para las pulgas
     private static final int ANCHO_PULGA_NORMAL = 40;
     private static final int ALTO_PULGA_NORMAL = 40;
     private static final int ANCHO_PULGA_MUTANTE = 50;
     private static final int ALTO_PULGA_MUTANTE = 50;
-    
+    // Posiciones al azar que se prueban antes de buscar en el índice de lugares libres
+    private static final int INTENTOS_AL_AZAR = 8;
+    // Intentos de la colocación masiva: alrededor de cada pulga y al azar en todo el campo
+    private static final int INTENTOS_VECINDAD = 30;
+    private static final int INTENTOS_SEMILLA = 200;
+    private static final MetricasJuego METRICAS = MetricasJuego.getGlobal();
+
     /**
      * Constructor para crear un nuevo campo de batalla.
      * 
@@ -30,10 +60,24 @@ public class Campo {
      * @param alto  Alto del campo.
      */
     public Campo(int ancho, int alto) {
+        this(ancho, alto, new FuenteAleatoria());
+    }
+    
+    /**
+     * Constructor para crear un nuevo campo de batalla con una fuente aleatoria dada.
+     * 
+     * @param ancho     Ancho del campo.
+     * @param alto      Alto del campo.
+     * @param aleatorio Fuente de las posiciones aleatorias (aparición y saltos).
+     */
+    public Campo(int ancho, int alto, FuenteAleatoria aleatorio) {
         this.ancho = ancho;
         this.alto = alto;
-        this.pulgas = new ArrayList<>();
-        this.random = new Random();
+        this.rejilla = new RejillaEspacial(ancho, alto);
+        this.salto = new SaltoParalelo(rejilla, ancho, alto);
+        this.aleatorio = aleatorio;
+        this.cantidad = new AtomicInteger();
+        this.secuencia = new AtomicLong();
     }
     
     /**
@@ -43,96 +87,455 @@ public class Campo {
      * @return true si la pulga fue agregada, false si hubo colisión.
      */
     public boolean agregarPulga(Pulga pulga) {
-        // Verificar colisiones con otras pulgas
-        for (Pulga p : pulgas) {
-            if (pulga.colisiona(p)) {
+        long cerrojos = rejilla.bloquear(rejilla.cerrojosDeArea(
+                pulga.getX(), pulga.getY(), pulga.getAncho(), pulga.getAlto()));
+        try {
+            // Verificar colisiones solo con las pulgas de las celdas vecinas
+            if (rejilla.hayColision(pulga, null)) {
                 return false; // Hay colisión, no se agrega
             }
+            pulga.orden = secuencia.getAndIncrement();
+            rejilla.insertar(pulga);
+            marcarCambio(pulga);
+            cantidad.incrementAndGet();
+            return true;
+        } finally {
+            rejilla.desbloquear(cerrojos);
         }
-        pulgas.add(pulga);
-        return true;
     }
     
     /**
      * Crea y agrega una pulga normal en una posición aleatoria.
+     * Prueba unas pocas posiciones al azar y, si todas están ocupadas, elige entre
+     * los lugares libres con {@link EspacioLibre}; solo falla si no cabe en ningún lugar.
      * 
-     * @return true si la pulga fue agregada, false si no fue posible.
+     * @return true si la pulga fue agregada, false si no hay lugar para ella.
      */
+    @Override
     public boolean agregarPulgaNormal() {
-        int maxIntentos = 50; // Limitar número de intentos para evitar bucle infinito
+        RandomGenerator random = aleatorio.actual();
         
-        for (int i = 0; i < maxIntentos; i++) {
+        for (int i = 0; i < INTENTOS_AL_AZAR; i++) {
             int x = random.nextInt(ancho - ANCHO_PULGA_NORMAL);
             int y = random.nextInt(alto - ALTO_PULGA_NORMAL);
             
             PulgaNormal nuevaPulga = new PulgaNormal(x, y);
             if (agregarPulga(nuevaPulga)) {
+                METRICAS.contarAparicion(i + 1, i + 1, true);
                 return true;
             }
         }
         
-        return false; // No se pudo agregar después de varios intentos
+        // Campo concurrido: elegir directamente entre los lugares libres
+        boolean agregada = agregarEnLugarLibre(Pulga.TIPO_NORMAL);
+        METRICAS.contarAparicion(INTENTOS_AL_AZAR + 1, INTENTOS_AL_AZAR, agregada);
+        return agregada;
     }
     
     /**
      * Crea y agrega una pulga mutante en una posición aleatoria.
+     * Igual que {@link #agregarPulgaNormal()}, solo falla si no cabe en ningún lugar.
      * 
-     * @return true si la pulga fue agregada, false si no fue posible.
+     * @return true si la pulga fue agregada, false si no hay lugar para ella.
      */
+    @Override
     public boolean agregarPulgaMutante() {
-        int maxIntentos = 50; // Limitar número de intentos para evitar bucle infinito
+        RandomGenerator random = aleatorio.actual();
         
-        for (int i = 0; i < maxIntentos; i++) {
+        for (int i = 0; i < INTENTOS_AL_AZAR; i++) {
             int x = random.nextInt(ancho - ANCHO_PULGA_MUTANTE);
             int y = random.nextInt(alto - ALTO_PULGA_MUTANTE);
             
             PulgaMutante nuevaPulga = new PulgaMutante(x, y);
             if (agregarPulga(nuevaPulga)) {
+                METRICAS.contarAparicion(i + 1, i + 1, true);
                 return true;
             }
         }
         
-        return false; // No se pudo agregar después de varios intentos
+        // Campo concurrido: elegir directamente entre los lugares libres
+        boolean agregada = agregarEnLugarLibre(Pulga.TIPO_MUTANTE);
+        METRICAS.contarAparicion(INTENTOS_AL_AZAR + 1, INTENTOS_AL_AZAR, agregada);
+        return agregada;
     }
-    
+
+    /**
+     * Agrega una pulga en un lugar libre elegido al azar entre todos los posibles.
+     * Toma todos los cerrojos; la primera vez crea el índice de lugares libres, que
+     * desde entonces la rejilla mantiene al insertar y quitar pulgas.
+     *
+     * @param tipo Tipo de pulga.
+     * @return true si la pulga fue agregada, false si no cabe en ningún lugar.
+     */
+    private boolean agregarEnLugarLibre(byte tipo) {
+        long cerrojos = rejilla.bloquearTodo();
+        try {
+            if (espacioLibre == null) {
+                espacioLibre = new EspacioLibre(rejilla, ancho, alto,
+                        new int[] {ANCHO_PULGA_NORMAL, ANCHO_PULGA_MUTANTE},
+                        new int[] {ALTO_PULGA_NORMAL, ALTO_PULGA_MUTANTE});
+                rejilla.setEspacioLibre(espacioLibre);
+            }
+            long lugar = espacioLibre.elegir(tipo, aleatorio.actual());
+            if (lugar < 0) {
+                return false;
+            }
+            int x = (int) (lugar % ancho);
+            int y = (int) (lugar / ancho);
+            Pulga pulga = tipo == Pulga.TIPO_MUTANTE ? new PulgaMutante(x, y) : new PulgaNormal(x, y);
+            pulga.orden = secuencia.getAndIncrement();
+            rejilla.insertar(pulga);
+            marcarCambio(pulga);
+            cantidad.incrementAndGet();
+            return true;
+        } finally {
+            rejilla.desbloquear(cerrojos);
+        }
+    }
+
+    /**
+     * Agrega muchas pulgas de un tipo en una sola llamada, repartidas sin superponerse.
+     *
+     * Usa muestreo de disco de Poisson (Bridson): cada pulga nueva se busca alrededor
+     * de una pulga ya colocada, a una distancia entre uno y uno y medio lados de pulga,
+     * y la rejilla espacial hace de rejilla de fondo para las colisiones. Cuando ninguna
+     * pulga activa tiene lugar alrededor, se prueban posiciones al azar en todo el
+     * campo; si tampoco hay lugar, se recorren los huecos que quedan hasta llenarlos.
+     * Así las pulgas quedan repartidas de forma pareja y, si se pide más de lo que cabe,
+     * el campo termina lleno: no queda lugar para ninguna otra pulga de ese tipo.
+     * Toma todos los cerrojos durante la llamada.
+     *
+     * @param tipo     Tipo de pulga ({@link Pulga#TIPO_NORMAL} o {@link Pulga#TIPO_MUTANTE}).
+     * @param cantidad Número de pulgas a agregar.
+     * @return Número de pulgas que se agregaron (menos que las pedidas si no cupieron).
+     */
+    public int agregarPulgas(byte tipo, int cantidad) {
+        if (tipo != Pulga.TIPO_NORMAL && tipo != Pulga.TIPO_MUTANTE) {
+            throw new IllegalArgumentException("Tipo de pulga desconocido: " + tipo);
+        }
+        int anchoPulga = tipo == Pulga.TIPO_MUTANTE ? ANCHO_PULGA_MUTANTE : ANCHO_PULGA_NORMAL;
+        int altoPulga = tipo == Pulga.TIPO_MUTANTE ? ALTO_PULGA_MUTANTE : ALTO_PULGA_NORMAL;
+        if (cantidad <= 0 || ancho <= anchoPulga || alto <= altoPulga) {
+            return 0;
+        }
+        int alcanceX = anchoPulga + anchoPulga / 2;
+        int alcanceY = altoPulga + altoPulga / 2;
+        RandomGenerator random = aleatorio.actual();
+        // Pulgas alrededor de las cuales todavía se busca lugar
+        ArrayList<Pulga> activas = new ArrayList<>();
+        int agregadas = 0;
+        int verificaciones = 0;
+
+        long cerrojos = rejilla.bloquearTodo();
+        try {
+            while (agregadas < cantidad) {
+                Pulga nueva = null;
+                if (activas.isEmpty()) {
+                    // Semilla en cualquier parte del campo
+                    for (int i = 0; i < INTENTOS_SEMILLA && nueva == null; i++) {
+                        nueva = colocarSiCabe(tipo, random.nextInt(ancho - anchoPulga),
+                                random.nextInt(alto - altoPulga));
+                        verificaciones++;
+                    }
+                    if (nueva == null) {
+                        // Quedan solo huecos sueltos: se recorren en orden
+                        agregadas += rellenarHuecos(tipo, anchoPulga, altoPulga, cantidad - agregadas);
+                        break;
+                    }
+                } else {
+                    int indice = random.nextInt(activas.size());
+                    Pulga centro = activas.get(indice);
+                    for (int i = 0; i < INTENTOS_VECINDAD && nueva == null; i++) {
+                        // Punto en el anillo cuadrado entre uno y uno y medio lados de pulga
+                        int dx;
+                        int dy;
+                        do {
+                            dx = random.nextInt(-alcanceX, alcanceX + 1);
+                            dy = random.nextInt(-alcanceY, alcanceY + 1);
+                        } while (Math.abs(dx) < anchoPulga && Math.abs(dy) < altoPulga);
+                        int x = centro.getX() + dx;
+                        int y = centro.getY() + dy;
+                        if (x >= 0 && y >= 0 && x < ancho - anchoPulga && y < alto - altoPulga) {
+                            nueva = colocarSiCabe(tipo, x, y);
+                            verificaciones++;
+                        }
+                    }
+                    if (nueva == null) {
+                        // Sin lugar alrededor: deja de estar activa
+                        activas.set(indice, activas.get(activas.size() - 1));
+                        activas.remove(activas.size() - 1);
+                        continue;
+                    }
+                }
+                activas.add(nueva);
+                agregadas++;
+            }
+            if (agregadas > 0) {
+                this.cantidad.addAndGet(agregadas);
+                cambios.marcarCompleta();
+            }
+        } finally {
+            rejilla.desbloquear(cerrojos);
+        }
+        METRICAS.contarColisiones(verificaciones);
+        return agregadas;
+    }
+
+    /**
+     * Recorre el campo fila por fila de píxeles colocando pulgas en cada lugar libre;
+     * al chocar salta al borde derecho de las pulgas que estorban. Al terminar no
+     * queda ningún lugar donde quepa otra pulga. El llamador debe tener todos los cerrojos.
+     *
+     * @return Número de pulgas colocadas.
+     */
+    private int rellenarHuecos(byte tipo, int anchoPulga, int altoPulga, int maximo) {
+        int colocadas = 0;
+        for (int y = 0; y < alto - altoPulga && colocadas < maximo; y++) {
+            int x = 0;
+            while (x < ancho - anchoPulga && colocadas < maximo) {
+                int borde = rejilla.bordeDerechoColision(x, y, anchoPulga, altoPulga);
+                if (borde < 0) {
+                    colocarSiCabe(tipo, x, y);
+                    colocadas++;
+                    x += anchoPulga;
+                } else {
+                    x = borde;
+                }
+            }
+        }
+        return colocadas;
+    }
+
+    /**
+     * Crea e inserta una pulga si no colisiona. El llamador debe tener todos los cerrojos.
+     *
+     * @return La pulga insertada, o null si no cabía.
+     */
+    private Pulga colocarSiCabe(byte tipo, int x, int y) {
+        Pulga pulga = tipo == Pulga.TIPO_MUTANTE ? new PulgaMutante(x, y) : new PulgaNormal(x, y);
+        if (rejilla.hayColision(pulga, null)) {
+            return null;
+        }
+        pulga.orden = secuencia.getAndIncrement();
+        rejilla.insertar(pulga);
+        return pulga;
+    }
+
     /**
-     * Obtiene la lista de pulgas en el campo.
+     * Obtiene una copia de la lista de pulgas en el campo.
+     * Cada región se copia de forma consistente, pero el campo puede cambiar
+     * mientras se recorren las demás.
      * 
      * @return Lista de pulgas.
      */
     public ArrayList<Pulga> getPulgas() {
-        return pulgas;
+        ArrayList<Pulga> copia = new ArrayList<>(cantidad.get());
+        rejilla.recorrer(copia::add);
+        return copia;
+    }
+    
+    /**
+     * Copia las posiciones de todas las pulgas en una instantánea.
+     * 
+     * @param instantanea Instantánea de destino, ya iniciada para el paso actual.
+     */
+    public void copiarEn(InstantaneaCampo instantanea) {
+        rejilla.recorrer(instantanea);
+    }
+    
+    /**
+     * Copia en una instantánea solo las pulgas que tocan el rectángulo dado
+     * (por ejemplo, la parte visible del campo).
+     * 
+     * @param instantanea Instantánea de destino, ya iniciada para el paso actual.
+     * @param x           Coordenada X del rectángulo.
+     * @param y           Coordenada Y del rectángulo.
+     * @param ancho       Ancho del rectángulo.
+     * @param alto        Alto del rectángulo.
+     */
+    public void copiarEn(InstantaneaCampo instantanea, int x, int y, int ancho, int alto) {
+        rejilla.recorrerArea(x, y, ancho, alto, instantanea);
+    }
+    
+    /**
+     * Copia en una instantánea lo que muestra una vista: las pulgas visibles o, si hay
+     * más pulgas por píxel de pantalla que el umbral, el mapa de densidad de la zona.
+     * En ambos casos el costo depende de la vista y no de cuántas pulgas hay en el campo.
+     * 
+     * @param instantanea    Instantánea de destino, ya iniciada con la vista.
+     * @param vista          Parte del campo que se muestra.
+     * @param umbralDensidad Pulgas por píxel a partir de las que se copia el mapa.
+     * @return true si se copió el mapa de densidad.
+     */
+    public boolean copiarVisibleEn(InstantaneaCampo instantanea, VistaCampo vista, double umbralDensidad) {
+        DensidadCampo densidad = rejilla.getDensidad();
+        if (densidad.pulgasPorPixel(vista) > umbralDensidad) {
+            instantanea.copiarDensidad(densidad);
+            return true;
+        }
+        copiarEn(instantanea, vista.getX(), vista.getY(), vista.getAncho(), vista.getAlto());
+        return false;
+    }
+    
+    /**
+     * Obtiene el conteo de pulgas por zona del campo, que se mantiene al agregar,
+     * quitar y mover pulgas.
+     * 
+     * @return Conteos de densidad.
+     */
+    public DensidadCampo getDensidad() {
+        return rejilla.getDensidad();
     }
     
     /**
      * Hace que todas las pulgas salten a nuevas posiciones aleatorias.
+     * Las pulgas que no encuentran un lugar libre conservan su posición.
+     * Toma todos los cerrojos y reparte la colocación entre varios hilos
+     * (ver {@link SaltoParalelo}); el resultado no depende del número de hilos.
      */
+    @Override
     public void hacerSaltarPulgas() {
-        // Hacer que cada pulga salte a una nueva posición
-        for (Pulga pulga : pulgas) {
-            boolean posicionValida = false;
-            int maxIntentos = 50;
-            
-            for (int i = 0; i < maxIntentos && !posicionValida; i++) {
-                // Guardar posición original
-                int xOriginal = pulga.getX();
-                int yOriginal = pulga.getY();
-                
-                // Saltar a nueva posición
-                pulga.saltar(ancho, alto);
+        // Cada salto usa una fuente propia, derivada del generador del hilo que lo pide
+        FuenteAleatoria fuenteSalto = aleatorio.derivar(aleatorio.actual().nextLong());
+        long cerrojos = rejilla.bloquearTodo();
+        long inicio = System.nanoTime();
+        try {
+            if (salto.resolver(fuenteSalto, cantidad.get()) > 0) {
+                cambios.marcarCompleta();
+            }
+        } finally {
+            METRICAS.saltos.registrar(System.nanoTime() - inicio);
+            rejilla.desbloquear(cerrojos);
+        }
+    }
+    
+    /**
+     * Cambia el grupo de hilos que resuelve los saltos (por defecto, el común de fork-join).
+     * 
+     * @param ejecutor Grupo de hilos fork-join.
+     */
+    public void setEjecutorSaltos(ForkJoinPool ejecutor) {
+        salto.setEjecutor(ejecutor);
+    }
+    
+    /**
+     * Mueve una pulga a una nueva posición si no colisiona con otras.
+     * 
+     * @param pulga Pulga a mover.
+     * @param x     Nueva posición en X.
+     * @param y     Nueva posición en Y.
+     * @return true si la pulga se movió, false si hubo colisión o ya no está en el campo.
+     */
+    public boolean moverPulga(Pulga pulga, int x, int y) {
+        long cerrojos = bloquearPulga(pulga, rejilla.cerrojosDeArea(x, y, pulga.getAncho(), pulga.getAlto()));
+        try {
+            METRICAS.contarColisiones(1);
+            if (pulga.orden < 0 || rejilla.hayColision(x, y, pulga.getAncho(), pulga.getAlto(), pulga)) {
+                return false;
+            }
+            rejilla.eliminar(pulga);
+            marcarCambio(pulga);
+            pulga.setPosicion(x, y);
+            rejilla.insertar(pulga);
+            marcarCambio(pulga);
+            return true;
+        } finally {
+            rejilla.desbloquear(cerrojos);
+        }
+    }
+    
+    /**
+     * Toma los cerrojos de la celda de una pulga junto con los cerrojos extra dados.
+     * Si la pulga se mueve antes de tomarlos, vuelve a intentarlo con su nueva celda.
+     * 
+     * @param pulga  Pulga cuya celda se bloquea.
+     * @param extras Cerrojos adicionales a tomar.
+     * @return Máscara de cerrojos tomados.
+     */
+    private long bloquearPulga(Pulga pulga, long extras) {
+        while (true) {
+            int x = pulga.getX();
+            int y = pulga.getY();
+            long cerrojos = rejilla.bloquear(rejilla.cerrojosDeArea(x, y, 0, 0) | extras);
+            if (pulga.getX() == x && pulga.getY() == y) {
+                return cerrojos;
+            }
+            rejilla.desbloquear(cerrojos);
+        }
+    }
+    
+    /**
+     * Actualiza la posición del cursor que las pulgas intentan esquivar.
+     * 
+     * @param x Posición X del cursor.
+     * @param y Posición Y del cursor.
+     */
+    public void actualizarPosicionMouse(int x, int y) {
+        mouseX = x;
+        mouseY = y;
+        mouseDentro = true;
+    }
+    
+    /**
+     * Indica que el cursor salió del campo, por lo que ninguna pulga lo esquiva.
+     */
+    public void quitarMouse() {
+        mouseDentro = false;
+    }
+    
+    /**
+     * Ejecuta un cuadro de evasión: solo las pulgas a menos de la distancia de
+     * reacción del cursor se alejan de él, sin chocar con otras pulgas.
+     * 
+     * @return Número de pulgas que se movieron.
+     */
+    public int actualizarPulgas() {
+        if (!mouseDentro) {
+            return 0;
+        }
+        int cursorX = mouseX;
+        int cursorY = mouseY;
+        
+        // Bloquear la zona del cursor, con margen para el tamaño de la pulga y su paso de evasión
+        int margen = Pulga.DISTANCIA_REACCION + RejillaEspacial.TAMANO_MAXIMO_PULGA + Pulga.VELOCIDAD_EVASION;
+        long cerrojos = rejilla.bloquear(rejilla.cerrojosDeArea(
+                cursorX - margen, cursorY - margen, 2 * margen, 2 * margen));
+        int movidas = 0;
+        int verificaciones = 0;
+        try {
+            synchronized (pulgasCercanas) {
+                // Consultar primero y mover después, porque mover cambia las celdas de la rejilla
+                pulgasCercanas.clear();
+                rejilla.buscarEnRadio(cursorX, cursorY, Pulga.DISTANCIA_REACCION, pulgasCercanas);
                 
-                // Verificar colisiones con otras pulgas
-                posicionValida = true;
-                for (Pulga otra : pulgas) {
-                    if (pulga != otra && pulga.colisiona(otra)) {
-                        posicionValida = false;
-                        // Restaurar posición original
-                        pulga = new PulgaNormal(xOriginal, yOriginal);
-                        break;
+                for (int i = 0; i < pulgasCercanas.size(); i++) {
+                    Pulga pulga = pulgasCercanas.get(i);
+                    int xOriginal = pulga.getX();
+                    int yOriginal = pulga.getY();
+                    
+                    rejilla.eliminar(pulga);
+                    if (pulga.esquivarCursor(cursorX, cursorY, ancho, alto)) {
+                        verificaciones++;
+                        if (rejilla.hayColision(pulga, pulga)) {
+                            // La evasión chocaría con otra pulga: se queda donde estaba
+                            pulga.setPosicion(xOriginal, yOriginal);
+                        } else if (pulga.getX() != xOriginal || pulga.getY() != yOriginal) {
+                            cambios.agregar(xOriginal, yOriginal, pulga.getAncho(), pulga.getAlto());
+                            marcarCambio(pulga);
+                            movidas++;
+                        }
                     }
+                    rejilla.insertar(pulga);
                 }
+                pulgasCercanas.clear();
             }
+        } finally {
+            rejilla.desbloquear(cerrojos);
         }
+        if (verificaciones > 0) {
+            METRICAS.contarColisiones(verificaciones);
+        }
+        return movidas;
     }
     
     /**
@@ -141,9 +544,25 @@ public class Campo {
      * @param g Contexto gráfico en el que se dibuja.
      */
     public void dibujar(Graphics g) {
-        for (Pulga pulga : pulgas) {
-            pulga.dibujar(g);
-        }
+        rejilla.recorrer(pulga -> pulga.dibujar(g));
+    }
+    
+    /**
+     * Dibuja solo las pulgas visibles en la vista, a su escala. Solo se recorren las
+     * celdas de la rejilla que cubren la vista, sin importar el tamaño del campo.
+     * 
+     * @param g     Contexto gráfico en el que se dibuja.
+     * @param vista Parte del campo que se muestra.
+     */
+    public void dibujar(Graphics g, VistaCampo vista) {
+        CacheSprites sprites = CacheSprites.getCompartida();
+        rejilla.recorrerArea(vista.getX(), vista.getY(), vista.getAncho(), vista.getAlto(), pulga -> {
+            int x = vista.aPantallaX(pulga.getX());
+            int y = vista.aPantallaY(pulga.getY());
+            sprites.dibujar(g, pulga.getTipo(), x, y,
+                    Math.max(1, vista.aPantallaX(pulga.getX() + pulga.getAncho()) - x),
+                    Math.max(1, vista.aPantallaY(pulga.getY() + pulga.getAlto()) - y));
+        });
     }
     
     /**
@@ -152,7 +571,129 @@ public class Campo {
      * @param pulga Pulga a eliminar.
      */
     public void eliminarPulga(Pulga pulga) {
-        pulgas.remove(pulga);
+        long cerrojos = bloquearPulga(pulga, 0);
+        try {
+            if (pulga.orden >= 0 && rejilla.eliminar(pulga)) {
+                marcarCambio(pulga);
+                pulga.orden = -1;
+                cantidad.decrementAndGet();
+            }
+        } finally {
+            rejilla.desbloquear(cerrojos);
+        }
+    }
+    
+    /**
+     * Reemplaza una pulga por otra en la misma posición.
+     * Se usa cuando una pulga mutante se convierte en normal.
+     * 
+     * @param actual Pulga que se reemplaza.
+     * @param nueva  Pulga que ocupa su lugar.
+     */
+    public void reemplazarPulga(Pulga actual, Pulga nueva) {
+        long cerrojos = bloquearPulga(actual, rejilla.cerrojosDeArea(
+                nueva.getX(), nueva.getY(), nueva.getAncho(), nueva.getAlto()));
+        try {
+            if (actual.orden >= 0 && rejilla.eliminar(actual)) {
+                nueva.orden = actual.orden;
+                actual.orden = -1;
+                rejilla.insertar(nueva);
+                marcarCambio(actual);
+                marcarCambio(nueva);
+            }
+        } finally {
+            rejilla.desbloquear(cerrojos);
+        }
+    }
+    
+    /**
+     * Impacta la pulga que se dibuja encima en el punto (x,y) según su tipo.
+     * Solo bloquea las regiones vecinas al punto.
+     * 
+     * @param x Coordenada X del punto.
+     * @param y Coordenada Y del punto.
+     * @return Resultado del impacto.
+     */
+    @Override
+    public int impactarPulgaEn(int x, int y) {
+        long cerrojos = rejilla.bloquear(rejilla.cerrojosDeArea(x, y, 0, 0));
+        try {
+            Pulga pulga = rejilla.buscarEnPunto(x, y);
+            if (pulga == null) {
+                return SIN_IMPACTO; // No se encontró pulga para atacar
+            }
+            Pulga resultado = pulga.impactar();
+            rejilla.eliminar(pulga);
+            marcarCambio(pulga);
+            if (resultado == null) {
+                // La pulga murió
+                pulga.orden = -1;
+                cantidad.decrementAndGet();
+                return PULGA_MUERTA;
+            }
+            // La pulga mutante se convirtió en normal
+            resultado.orden = pulga.orden;
+            pulga.orden = -1;
+            rejilla.insertar(resultado);
+            return PULGA_TRANSFORMADA;
+        } finally {
+            rejilla.desbloquear(cerrojos);
+        }
+    }
+    
+    /**
+     * Impacta en un solo recorrido las pulgas que elige el selector.
+     * Toma todos los cerrojos para que el conjunto de pulgas no cambie durante el recorrido.
+     * 
+     * @param selector Selector que decide qué pulgas son alcanzadas.
+     * @return Número de pulgas que murieron.
+     */
+    @Override
+    public int impactarPulgas(SelectorPulgas selector) {
+        long cerrojos = rejilla.bloquearTodo();
+        try {
+            selector.comenzar(cantidad.get());
+            int visitadas = 0;
+            int pulgasEliminadas = 0;
+            
+            for (int c = 0; c < rejilla.getNumeroCeldas(); c++) {
+                ArrayList<Pulga> celda = rejilla.getCelda(c);
+                if (celda == null) {
+                    continue;
+                }
+                int i = 0;
+                while (i < celda.size()) {
+                    Pulga pulga = celda.get(i);
+                    if (!selector.seleccionar(visitadas++)) {
+                        i++;
+                        continue;
+                    }
+                    Pulga resultado = pulga.impactar();
+                    marcarCambio(pulga);
+                    if (resultado == null) {
+                        // La pulga murió: la última de la celda ocupa su lugar y aún no se ha visitado
+                        int ultima = celda.size() - 1;
+                        celda.set(i, celda.get(ultima));
+                        celda.remove(ultima);
+                        rejilla.descontar(c, 1);
+                        pulga.orden = -1;
+                        pulgasEliminadas++;
+                    } else {
+                        // La pulga mutante se convirtió en normal en la misma celda; al ser
+                        // más chica deja libre un borde que el índice debe volver a ver
+                        resultado.orden = pulga.orden;
+                        pulga.orden = -1;
+                        celda.set(i++, resultado);
+                        rejilla.reemplazada(c);
+                    }
+                }
+            }
+            
+            cantidad.addAndGet(-pulgasEliminadas);
+            return pulgasEliminadas;
+        } finally {
+            rejilla.desbloquear(cerrojos);
+        }
     }
     
     /**
@@ -160,14 +701,74 @@ public class Campo {
      * 
      * @return Número de pulgas.
      */
+    @Override
     public int pulgasRestantes() {
-        return pulgas.size();
+        return cantidad.get();
+    }
+    
+    /**
+     * Pasa a otra región las zonas del campo que cambiaron desde la última llamada.
+     * 
+     * @param destino Región que recibe los cambios.
+     */
+    public void tomarCambios(RegionSucia destino) {
+        cambios.transferirA(destino);
+    }
+    
+    /**
+     * Registra que el área ocupada por la pulga debe volver a dibujarse.
+     */
+    private void marcarCambio(Pulga pulga) {
+        cambios.agregar(pulga.getX(), pulga.getY(), pulga.getAncho(), pulga.getAlto());
+    }
+    
+    /**
+     * Obtiene el ancho del campo.
+     * 
+     * @return Ancho en píxeles.
+     */
+    @Override
+    public int getAnchoCampo() {
+        return ancho;
+    }
+    
+    /**
+     * Obtiene el alto del campo.
+     * 
+     * @return Alto en píxeles.
+     */
+    @Override
+    public int getAltoCampo() {
+        return alto;
+    }
+    
+    /**
+     * Calcula una huella del estado del campo: posición y tipo de cada pulga.
+     * No depende del orden en que se recorren las pulgas, así que dos campos con
+     * las mismas pulgas en los mismos lugares tienen la misma huella.
+     * 
+     * @return Huella del campo.
+     */
+    public long calcularHuella() {
+        long[] suma = new long[1];
+        rejilla.recorrer(pulga -> suma[0] += FuenteAleatoria.mezclar(((long) pulga.getX() << 32)
+                ^ ((long) pulga.getY() << 8) ^ pulga.getTipo()));
+        return suma[0] + cantidad.get();
     }
     
     /**
      * Vacía el campo eliminando todas las pulgas.
      */
+    @Override
     public void limpiarCampo() {
-        pulgas.clear();
+        long cerrojos = rejilla.bloquearTodo();
+        try {
+            rejilla.recorrer(pulga -> pulga.orden = -1);
+            rejilla.limpiar();
+            cantidad.set(0);
+            cambios.marcarCompleta();
+        } finally {
+            rejilla.desbloquear(cerrojos);
+        }
     }
 }
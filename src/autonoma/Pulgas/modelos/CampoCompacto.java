@@ -0,0 +1,421 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Modo de almacenamiento alternativo del campo de batalla.
+ * Guarda las pulgas en columnas primitivas paralelas (x, y, ancho, alto y tipo)
+ * y las identifica por su índice, sin crear un objeto por pulga.
+ * Ocupa unos 15 bytes por pulga, por lo que millones de pulgas caben en un heap pequeño.
+ * No es seguro para hilos: está pensado para la simulación sin pantalla, en un solo hilo.
+ */
+public class CampoCompacto implements CampoSimulable {
+    // Tipos de pulga
+    public static final byte TIPO_NORMAL = Pulga.TIPO_NORMAL;
+    public static final byte TIPO_MUTANTE = Pulga.TIPO_MUTANTE;
+
+    // Dimensiones para las pulgas
+    private static final int ANCHO_PULGA_NORMAL = 40;
+    private static final int ALTO_PULGA_NORMAL = 40;
+    private static final int ANCHO_PULGA_MUTANTE = 50;
+    private static final int ALTO_PULGA_MUTANTE = 50;
+
+    // Tamaño de cada celda del índice espacial (mayor que la pulga más grande)
+    private static final int TAMANO_CELDA = 64;
+    private static final int TAMANO_MAXIMO_PULGA = 50;
+    private static final int SIN_PULGA = -1;
+
+    private int ancho;
+    private int alto;
+    private RandomGenerator random;
+
+    // Columnas de datos de las pulgas
+    private int cantidad;
+    private int[] xs;
+    private int[] ys;
+    private byte[] anchos;
+    private byte[] altos;
+    private byte[] tipos;
+
+    // Índice espacial: lista enlazada de pulgas por celda (según su esquina superior izquierda)
+    private int columnas;
+    private int filas;
+    private int[] primeraEnCelda;
+    private int[] siguiente;
+
+    /**
+     * Constructor para crear un nuevo campo compacto.
+     *
+     * @param ancho     Ancho del campo.
+     * @param alto      Alto del campo.
+     * @param capacidad Número de pulgas para el que se reserva memoria inicialmente.
+     */
+    public CampoCompacto(int ancho, int alto, int capacidad) {
+        this(ancho, alto, capacidad, new FuenteAleatoria());
+    }
+
+    /**
+     * Constructor para crear un nuevo campo compacto con una fuente aleatoria dada.
+     * Como el campo es de un solo hilo, usa un flujo fijo de la fuente.
+     *
+     * @param ancho     Ancho del campo.
+     * @param alto      Alto del campo.
+     * @param capacidad Número de pulgas para el que se reserva memoria inicialmente.
+     * @param aleatorio Fuente de las posiciones aleatorias.
+     */
+    public CampoCompacto(int ancho, int alto, int capacidad, FuenteAleatoria aleatorio) {
+        this.ancho = ancho;
+        this.alto = alto;
+        this.random = aleatorio.flujo(0);
+
+        capacidad = Math.max(16, capacidad);
+        this.xs = new int[capacidad];
+        this.ys = new int[capacidad];
+        this.anchos = new byte[capacidad];
+        this.altos = new byte[capacidad];
+        this.tipos = new byte[capacidad];
+        this.siguiente = new int[capacidad];
+
+        this.columnas = Math.max(1, (ancho + TAMANO_CELDA - 1) / TAMANO_CELDA);
+        this.filas = Math.max(1, (alto + TAMANO_CELDA - 1) / TAMANO_CELDA);
+        this.primeraEnCelda = new int[columnas * filas];
+        Arrays.fill(primeraEnCelda, SIN_PULGA);
+    }
+
+    /**
+     * Agrega una pulga del tipo dado verificando que no colisione con otras.
+     *
+     * @param tipo Tipo de pulga ({@link #TIPO_NORMAL} o {@link #TIPO_MUTANTE}).
+     * @param x    Posición en el eje X.
+     * @param y    Posición en el eje Y.
+     * @return true si la pulga fue agregada, false si hubo colisión.
+     */
+    public boolean agregarPulga(byte tipo, int x, int y) {
+        int anchoPulga = anchoDeTipo(tipo);
+        int altoPulga = altoDeTipo(tipo);
+        if (hayColision(x, y, anchoPulga, altoPulga, SIN_PULGA)) {
+            return false; // Hay colisión, no se agrega
+        }
+
+        if (cantidad == xs.length) {
+            crecer();
+        }
+        int indice = cantidad++;
+        xs[indice] = x;
+        ys[indice] = y;
+        anchos[indice] = (byte) anchoPulga;
+        altos[indice] = (byte) altoPulga;
+        tipos[indice] = tipo;
+        enlazar(indice);
+        return true;
+    }
+
+    /**
+     * Crea y agrega una pulga normal en una posición aleatoria.
+     *
+     * @return true si la pulga fue agregada, false si no fue posible.
+     */
+    @Override
+    public boolean agregarPulgaNormal() {
+        return agregarPulgaAleatoria(TIPO_NORMAL);
+    }
+
+    /**
+     * Crea y agrega una pulga mutante en una posición aleatoria.
+     *
+     * @return true si la pulga fue agregada, false si no fue posible.
+     */
+    @Override
+    public boolean agregarPulgaMutante() {
+        return agregarPulgaAleatoria(TIPO_MUTANTE);
+    }
+
+    private boolean agregarPulgaAleatoria(byte tipo) {
+        int maxIntentos = 50; // Limitar número de intentos para evitar bucle infinito
+
+        for (int i = 0; i < maxIntentos; i++) {
+            int x = random.nextInt(ancho - anchoDeTipo(tipo));
+            int y = random.nextInt(alto - altoDeTipo(tipo));
+            if (agregarPulga(tipo, x, y)) {
+                return true;
+            }
+        }
+
+        return false; // No se pudo agregar después de varios intentos
+    }
+
+    /**
+     * Hace que todas las pulgas salten a nuevas posiciones aleatorias.
+     * Las pulgas que no encuentran un lugar libre conservan su posición.
+     */
+    @Override
+    public void hacerSaltarPulgas() {
+        int maxIntentos = 50;
+
+        for (int i = 0; i < cantidad; i++) {
+            int xOriginal = xs[i];
+            int yOriginal = ys[i];
+            int anchoPulga = anchos[i];
+            int altoPulga = altos[i];
+            boolean posicionValida = false;
+
+            desenlazar(i);
+            for (int intento = 0; intento < maxIntentos && !posicionValida; intento++) {
+                xs[i] = random.nextInt(ancho - anchoPulga);
+                ys[i] = random.nextInt(alto - altoPulga);
+                posicionValida = !hayColision(xs[i], ys[i], anchoPulga, altoPulga, i);
+            }
+
+            if (!posicionValida) {
+                // Restaurar posición original
+                xs[i] = xOriginal;
+                ys[i] = yOriginal;
+            }
+            enlazar(i);
+        }
+    }
+
+    /**
+     * Busca la pulga que se dibuja encima (mayor índice) en el punto (x,y).
+     *
+     * @param x Coordenada X del punto.
+     * @param y Coordenada Y del punto.
+     * @return Índice de la pulga encontrada o -1 si no hay ninguna.
+     */
+    public int buscarPulgaEn(int x, int y) {
+        int colInicio = columna(x - TAMANO_MAXIMO_PULGA);
+        int colFin = columna(x);
+        int filaInicio = fila(y - TAMANO_MAXIMO_PULGA);
+        int filaFin = fila(y);
+        int encontrada = SIN_PULGA;
+
+        for (int f = filaInicio; f <= filaFin; f++) {
+            for (int c = colInicio; c <= colFin; c++) {
+                for (int i = primeraEnCelda[f * columnas + c]; i != SIN_PULGA; i = siguiente[i]) {
+                    if (i > encontrada && x >= xs[i] && x <= xs[i] + anchos[i]
+                            && y >= ys[i] && y <= ys[i] + altos[i]) {
+                        encontrada = i;
+                    }
+                }
+            }
+        }
+        return encontrada;
+    }
+
+    /**
+     * Impacta la pulga con el índice dado. La mutante cambia de tipo en su
+     * lugar, sin crear objetos; la normal se elimina moviendo la última pulga a su índice.
+     *
+     * @param indice Índice de la pulga a impactar.
+     * @return true si la pulga murió, false si se convirtió en normal.
+     */
+    public boolean impactarPulga(int indice) {
+        if (tipos[indice] == TIPO_MUTANTE) {
+            // Conserva la esquina superior izquierda, por lo que sigue en la misma celda
+            tipos[indice] = TIPO_NORMAL;
+            anchos[indice] = ANCHO_PULGA_NORMAL;
+            altos[indice] = ALTO_PULGA_NORMAL;
+            return false;
+        }
+        eliminarPulga(indice);
+        return true;
+    }
+
+    /**
+     * Impacta la pulga que se dibuja encima en el punto (x,y).
+     *
+     * @param x Coordenada X del punto.
+     * @param y Coordenada Y del punto.
+     * @return Resultado del impacto.
+     */
+    @Override
+    public int impactarPulgaEn(int x, int y) {
+        int indice = buscarPulgaEn(x, y);
+        if (indice == SIN_PULGA) {
+            return SIN_IMPACTO;
+        }
+        return impactarPulga(indice) ? PULGA_MUERTA : PULGA_TRANSFORMADA;
+    }
+
+    /**
+     * Impacta en un solo recorrido las pulgas que elige el selector y
+     * compacta las columnas una sola vez al final.
+     *
+     * @param selector Selector que decide qué pulgas son alcanzadas.
+     * @return Número de pulgas que murieron.
+     */
+    @Override
+    public int impactarPulgas(SelectorPulgas selector) {
+        int total = cantidad;
+        int escritura = 0;
+        selector.comenzar(total);
+
+        for (int i = 0; i < total; i++) {
+            if (selector.seleccionar(i)) {
+                if (tipos[i] != TIPO_MUTANTE) {
+                    continue; // La pulga normal muere: no se copia
+                }
+                tipos[i] = TIPO_NORMAL;
+                anchos[i] = ANCHO_PULGA_NORMAL;
+                altos[i] = ALTO_PULGA_NORMAL;
+            }
+            if (escritura != i) {
+                xs[escritura] = xs[i];
+                ys[escritura] = ys[i];
+                anchos[escritura] = anchos[i];
+                altos[escritura] = altos[i];
+                tipos[escritura] = tipos[i];
+            }
+            escritura++;
+        }
+
+        // Los índices cambiaron: reconstruir el índice espacial en un solo recorrido
+        cantidad = escritura;
+        Arrays.fill(primeraEnCelda, SIN_PULGA);
+        for (int i = 0; i < cantidad; i++) {
+            enlazar(i);
+        }
+        return total - escritura;
+    }
+
+    /**
+     * Elimina la pulga con el índice dado. La última pulga pasa a ocupar ese índice.
+     *
+     * @param indice Índice de la pulga a eliminar.
+     */
+    public void eliminarPulga(int indice) {
+        desenlazar(indice);
+        int ultimo = --cantidad;
+        if (indice != ultimo) {
+            desenlazar(ultimo);
+            xs[indice] = xs[ultimo];
+            ys[indice] = ys[ultimo];
+            anchos[indice] = anchos[ultimo];
+            altos[indice] = altos[ultimo];
+            tipos[indice] = tipos[ultimo];
+            enlazar(indice);
+        }
+    }
+
+    /**
+     * Obtiene el número de pulgas restantes en el campo.
+     *
+     * @return Número de pulgas.
+     */
+    @Override
+    public int pulgasRestantes() {
+        return cantidad;
+    }
+
+    /**
+     * Vacía el campo eliminando todas las pulgas.
+     */
+    @Override
+    public void limpiarCampo() {
+        cantidad = 0;
+        Arrays.fill(primeraEnCelda, SIN_PULGA);
+    }
+
+    // Getters por índice
+    public int getX(int indice) {
+        return xs[indice];
+    }
+
+    public int getY(int indice) {
+        return ys[indice];
+    }
+
+    public int getAncho(int indice) {
+        return anchos[indice];
+    }
+
+    public int getAlto(int indice) {
+        return altos[indice];
+    }
+
+    public byte getTipo(int indice) {
+        return tipos[indice];
+    }
+
+    @Override
+    public int getAnchoCampo() {
+        return ancho;
+    }
+
+    @Override
+    public int getAltoCampo() {
+        return alto;
+    }
+
+    private boolean hayColision(int x, int y, int anchoPulga, int altoPulga, int ignorar) {
+        int colInicio = columna(x - TAMANO_MAXIMO_PULGA);
+        int colFin = columna(x + anchoPulga);
+        int filaInicio = fila(y - TAMANO_MAXIMO_PULGA);
+        int filaFin = fila(y + altoPulga);
+
+        for (int f = filaInicio; f <= filaFin; f++) {
+            for (int c = colInicio; c <= colFin; c++) {
+                for (int i = primeraEnCelda[f * columnas + c]; i != SIN_PULGA; i = siguiente[i]) {
+                    if (i != ignorar && x < xs[i] + anchos[i] && x + anchoPulga > xs[i]
+                            && y < ys[i] + altos[i] && y + altoPulga > ys[i]) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void enlazar(int indice) {
+        int celda = indiceCelda(xs[indice], ys[indice]);
+        siguiente[indice] = primeraEnCelda[celda];
+        primeraEnCelda[celda] = indice;
+    }
+
+    private void desenlazar(int indice) {
+        int celda = indiceCelda(xs[indice], ys[indice]);
+        int actual = primeraEnCelda[celda];
+        if (actual == indice) {
+            primeraEnCelda[celda] = siguiente[indice];
+            return;
+        }
+        while (actual != SIN_PULGA) {
+            if (siguiente[actual] == indice) {
+                siguiente[actual] = siguiente[indice];
+                return;
+            }
+            actual = siguiente[actual];
+        }
+    }
+
+    private void crecer() {
+        int capacidad = xs.length + (xs.length >> 1);
+        xs = Arrays.copyOf(xs, capacidad);
+        ys = Arrays.copyOf(ys, capacidad);
+        anchos = Arrays.copyOf(anchos, capacidad);
+        altos = Arrays.copyOf(altos, capacidad);
+        tipos = Arrays.copyOf(tipos, capacidad);
+        siguiente = Arrays.copyOf(siguiente, capacidad);
+    }
+
+    private static int anchoDeTipo(byte tipo) {
+        return tipo == TIPO_MUTANTE ? ANCHO_PULGA_MUTANTE : ANCHO_PULGA_NORMAL;
+    }
+
+    private static int altoDeTipo(byte tipo) {
+        return tipo == TIPO_MUTANTE ? ALTO_PULGA_MUTANTE : ALTO_PULGA_NORMAL;
+    }
+
+    private int columna(int x) {
+        return Math.max(0, Math.min(columnas - 1, Math.floorDiv(x, TAMANO_CELDA)));
+    }
+
+    private int fila(int y) {
+        return Math.max(0, Math.min(filas - 1, Math.floorDiv(y, TAMANO_CELDA)));
+    }
+
+    private int indiceCelda(int x, int y) {
+        return fila(y) * columnas + columna(x);
+    }
+}
@@ -0,0 +1,46 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Interfaz de un campo que puede avanzar en la simulación sin pantalla:
+ * además de ser atacado por las armas, permite generar pulgas y hacerlas saltar.
+ */
+public interface CampoSimulable extends ObjetivoArma {
+    
+    /**
+     * Crea y agrega una pulga normal en una posición aleatoria.
+     * 
+     * @return true si la pulga fue agregada, false si no fue posible.
+     */
+    boolean agregarPulgaNormal();
+    
+    /**
+     * Crea y agrega una pulga mutante en una posición aleatoria.
+     * 
+     * @return true si la pulga fue agregada, false si no fue posible.
+     */
+    boolean agregarPulgaMutante();
+    
+    /**
+     * Hace que todas las pulgas salten a nuevas posiciones aleatorias.
+     */
+    void hacerSaltarPulgas();
+    
+    /**
+     * Vacía el campo eliminando todas las pulgas.
+     */
+    void limpiarCampo();
+    
+    /**
+     * Obtiene el ancho del campo.
+     * 
+     * @return Ancho en píxeles.
+     */
+    int getAnchoCampo();
+    
+    /**
+     * Obtiene el alto del campo.
+     * 
+     * @return Alto en píxeles.
+     */
+    int getAltoCampo();
+}
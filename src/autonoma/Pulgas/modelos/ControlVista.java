@@ -0,0 +1,157 @@
+package autonoma.Pulgas.modelos;
+
+import java.awt.Component;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import javax.swing.SwingUtilities;
+
+/**
+ * Maneja el cursor sobre un área de juego y la parte del campo que muestra.
+ *
+ * La rueda del ratón acerca o aleja la vista alrededor del cursor, y arrastrar con el
+ * botón derecho (o el central) la desplaza. Las posiciones del cursor se pasan a
+ * coordenadas del campo antes de enviarlas a la simulación, y cada cambio de vista se
+ * le avisa para que las instantáneas solo copien lo visible.
+ */
+public class ControlVista extends MouseAdapter {
+    // Cambio de escala por cada paso de la rueda
+    private static final double FACTOR_RUEDA = 1.25;
+
+    private final SimulacionJuego simulacion;
+    // La cambian el hilo de Swing y, al cambiar de tamaño, el de dibujo activo
+    private volatile VistaCampo vista;
+    private boolean desplazando;
+    private int arrastreX;
+    private int arrastreY;
+
+    /**
+     * Constructor para crear un nuevo control de vista y registrarlo en el componente.
+     *
+     * @param componente Área de juego que recibe los eventos del ratón.
+     * @param simulacion Simulación del juego a mostrar.
+     * @param ancho      Ancho inicial del área de dibujo.
+     * @param alto       Alto inicial del área de dibujo.
+     */
+    public ControlVista(Component componente, SimulacionJuego simulacion, int ancho, int alto) {
+        this.simulacion = simulacion;
+        Campo campo = simulacion.getJuego().getCampo();
+        this.vista = new VistaCampo(campo.getAnchoCampo(), campo.getAltoCampo(), ancho, alto);
+        simulacion.setVista(vista);
+        componente.addMouseListener(this);
+        componente.addMouseMotionListener(this);
+        componente.addMouseWheelListener(this);
+    }
+
+    /**
+     * Obtiene la vista actual, para pasar posiciones de pantalla a coordenadas del campo.
+     *
+     * @return Vista actual.
+     */
+    public VistaCampo getVista() {
+        return vista;
+    }
+
+    /**
+     * Ajusta la vista al nuevo tamaño del área de dibujo.
+     *
+     * @param ancho Ancho del área de dibujo.
+     * @param alto  Alto del área de dibujo.
+     */
+    public void setPantalla(int ancho, int alto) {
+        cambiar(vista.conPantalla(ancho, alto));
+    }
+
+    /**
+     * Centra la vista en un punto del campo.
+     *
+     * @param x Coordenada X del campo.
+     * @param y Coordenada Y del campo.
+     */
+    public void centrarEn(int x, int y) {
+        cambiar(vista.centradaEn(x, y));
+    }
+
+    /**
+     * Cambia la escala de la vista manteniendo fijo el punto bajo la posición de pantalla dada.
+     *
+     * @param escala    Nueva escala.
+     * @param pantallaX Posición X en pantalla del punto fijo.
+     * @param pantallaY Posición Y en pantalla del punto fijo.
+     */
+    public void setEscala(double escala, int pantallaX, int pantallaY) {
+        cambiar(vista.conEscala(escala, pantallaX, pantallaY));
+    }
+
+    private synchronized void cambiar(VistaCampo nueva) {
+        if (nueva != vista) {
+            vista = nueva;
+            simulacion.setVista(nueva);
+        }
+    }
+
+    /**
+     * Envía a la simulación la posición del cursor en coordenadas del campo.
+     *
+     * @param e Evento de movimiento del ratón.
+     */
+    @Override
+    public void mouseMoved(MouseEvent e) {
+        VistaCampo actual = vista;
+        simulacion.actualizarPosicionMouse(actual.aCampoX(e.getX()), actual.aCampoY(e.getY()));
+    }
+
+    /**
+     * Desplaza la vista si se arrastra con el botón derecho o central; si no, mueve el cursor.
+     *
+     * @param e Evento de arrastre del ratón.
+     */
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        if (desplazando) {
+            // El campo sigue al cursor: se mueve al revés que el arrastre
+            cambiar(vista.desplazada(arrastreX - e.getX(), arrastreY - e.getY()));
+            arrastreX = e.getX();
+            arrastreY = e.getY();
+        }
+        mouseMoved(e);
+    }
+
+    @Override
+    public void mousePressed(MouseEvent e) {
+        if (!SwingUtilities.isLeftMouseButton(e)) {
+            desplazando = true;
+            arrastreX = e.getX();
+            arrastreY = e.getY();
+        }
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        if (!SwingUtilities.isLeftMouseButton(e)) {
+            desplazando = false;
+        }
+    }
+
+    /**
+     * Las pulgas dejan de esquivar cuando el cursor sale del área de juego.
+     *
+     * @param e Evento de salida del ratón.
+     */
+    @Override
+    public void mouseExited(MouseEvent e) {
+        simulacion.quitarMouse();
+    }
+
+    /**
+     * Acerca (rueda hacia adelante) o aleja la vista alrededor del cursor.
+     *
+     * @param e Evento de la rueda del ratón.
+     */
+    @Override
+    public void mouseWheelMoved(MouseWheelEvent e) {
+        double escala = vista.getEscala() * Math.pow(FACTOR_RUEDA, -e.getPreciseWheelRotation());
+        setEscala(escala, e.getX(), e.getY());
+        mouseMoved(e);
+    }
+}
@@ -0,0 +1,158 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Conteo de pulgas por zona del campo, en varios niveles de detalle.
+ *
+ * El nivel 0 cuenta las pulgas de cada celda de la {@link RejillaEspacial}; cada nivel
+ * siguiente agrupa 4x4 celdas del anterior. La rejilla lo actualiza al insertar y quitar
+ * pulgas, así nunca hay que recorrer las pulgas para saber cuántas hay en una zona:
+ * el mapa de densidad de una vista muy alejada se copia leyendo unos pocos miles de
+ * conteos del nivel adecuado, sin importar cuántas pulgas haya.
+ *
+ * Los conteos son atómicos porque una celda de nivel 2 o más abarca varias regiones
+ * de cerrojos. Se leen sin cerrojos: durante una operación sobre el campo completo
+ * (un salto, por ejemplo) la lectura puede ver un estado intermedio, lo que basta
+ * para dibujar el mapa.
+ */
+public class DensidadCampo {
+    // Niveles de detalle: celdas de 64, 256, 1024 y 4096 píxeles
+    public static final int NIVELES = 4;
+    // Celdas de un nivel que forman cada lado de una celda del siguiente
+    private static final int FACTOR = 4;
+    // Lado mínimo en pantalla de una celda del mapa; limita cuántas celdas se copian
+    private static final int PIXELES_POR_CELDA = 4;
+    // Celdas que se suman como máximo para estimar las pulgas de una vista
+    private static final int CELDAS_ESTIMACION = 256;
+
+    private final int[] columnas = new int[NIVELES];
+    private final int[] filas = new int[NIVELES];
+    private final AtomicIntegerArray[] conteos = new AtomicIntegerArray[NIVELES];
+
+    /**
+     * Constructor para crear los conteos de una rejilla, todos en cero.
+     *
+     * @param columnasRejilla Columnas de celdas de la rejilla.
+     * @param filasRejilla    Filas de celdas de la rejilla.
+     */
+    DensidadCampo(int columnasRejilla, int filasRejilla) {
+        int c = columnasRejilla;
+        int f = filasRejilla;
+        for (int nivel = 0; nivel < NIVELES; nivel++) {
+            columnas[nivel] = c;
+            filas[nivel] = f;
+            conteos[nivel] = new AtomicIntegerArray(c * f);
+            c = (c + FACTOR - 1) / FACTOR;
+            f = (f + FACTOR - 1) / FACTOR;
+        }
+    }
+
+    /**
+     * Suma al conteo de una celda de la rejilla y de las zonas que la contienen.
+     *
+     * @param columna Columna de la celda.
+     * @param fila    Fila de la celda.
+     * @param delta   Pulgas agregadas (negativo si se quitaron).
+     */
+    void sumar(int columna, int fila, int delta) {
+        for (int nivel = 0; nivel < NIVELES; nivel++) {
+            conteos[nivel].getAndAdd(fila * columnas[nivel] + columna, delta);
+            columna /= FACTOR;
+            fila /= FACTOR;
+        }
+    }
+
+    /**
+     * Pone todos los conteos en cero. El llamador debe tener todos los cerrojos de la rejilla.
+     */
+    void limpiar() {
+        for (int nivel = 0; nivel < NIVELES; nivel++) {
+            for (int i = 0; i < conteos[nivel].length(); i++) {
+                conteos[nivel].set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * Elige el nivel más detallado cuyas celdas miden en pantalla al menos unos pocos
+     * píxeles, así un mapa a esa escala tiene como mucho unos miles de celdas.
+     *
+     * @param escala Escala de la vista (píxeles de pantalla por píxel del campo).
+     * @return Nivel para el mapa de densidad.
+     */
+    public int nivelPara(double escala) {
+        int nivel = 0;
+        while (nivel < NIVELES - 1 && getTamanoCelda(nivel) * escala < PIXELES_POR_CELDA) {
+            nivel++;
+        }
+        return nivel;
+    }
+
+    /**
+     * Estima las pulgas por píxel de pantalla que muestra una vista. Suma los conteos
+     * de un nivel con pocas celdas en la vista, contando de cada celda la fracción que
+     * queda dentro, así el costo no depende ni del campo ni de las pulgas.
+     *
+     * @param vista Vista del campo.
+     * @return Pulgas visibles por píxel de pantalla (aproximado).
+     */
+    public double pulgasPorPixel(VistaCampo vista) {
+        int x = vista.getX();
+        int y = vista.getY();
+        int ancho = vista.getAncho();
+        int alto = vista.getAlto();
+        int nivel = 0;
+        while (nivel < NIVELES - 1 && celdasEnArea(nivel, x, y, ancho, alto) > CELDAS_ESTIMACION) {
+            nivel++;
+        }
+
+        int tamano = getTamanoCelda(nivel);
+        int colFin = Math.min(columnas[nivel] - 1, (x + ancho - 1) / tamano);
+        int filaFin = Math.min(filas[nivel] - 1, (y + alto - 1) / tamano);
+        double pulgas = 0;
+        for (int f = y / tamano; f <= filaFin; f++) {
+            int dentroY = Math.min(y + alto, (f + 1) * tamano) - Math.max(y, f * tamano);
+            for (int c = x / tamano; c <= colFin; c++) {
+                int dentroX = Math.min(x + ancho, (c + 1) * tamano) - Math.max(x, c * tamano);
+                pulgas += conteos[nivel].get(f * columnas[nivel] + c) * ((double) dentroX * dentroY / tamano / tamano);
+            }
+        }
+        return pulgas / ((double) vista.getAnchoPantalla() * vista.getAltoPantalla());
+    }
+
+    private int celdasEnArea(int nivel, int x, int y, int ancho, int alto) {
+        int tamano = getTamanoCelda(nivel);
+        return ((x + ancho - 1) / tamano - x / tamano + 1) * ((y + alto - 1) / tamano - y / tamano + 1);
+    }
+
+    /**
+     * Obtiene el lado de las celdas de un nivel, en píxeles del campo.
+     *
+     * @param nivel Nivel de detalle.
+     * @return Lado de la celda.
+     */
+    public int getTamanoCelda(int nivel) {
+        return RejillaEspacial.TAMANO_CELDA << (2 * nivel);
+    }
+
+    public int getColumnas(int nivel) {
+        return columnas[nivel];
+    }
+
+    public int getFilas(int nivel) {
+        return filas[nivel];
+    }
+
+    /**
+     * Obtiene el número de pulgas de una celda de un nivel.
+     *
+     * @param nivel   Nivel de detalle.
+     * @param columna Columna de la celda en ese nivel.
+     * @param fila    Fila de la celda en ese nivel.
+     * @return Pulgas en la celda.
+     */
+    public int getConteo(int nivel, int columna, int fila) {
+        return conteos[nivel].get(fila * columnas[nivel] + columna);
+    }
+}
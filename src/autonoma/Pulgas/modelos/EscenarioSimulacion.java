@@ -0,0 +1,162 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Escenario de simulación sin pantalla: genera pulgas y usa las armas
+ * a tasas configurables, para medir tasas de generación y balance de armas.
+ * Las tasas se expresan por segundo simulado y admiten valores fraccionarios.
+ */
+public class EscenarioSimulacion implements SistemaSimulacion {
+    private final CampoSimulable campo;
+    private final double segundosPorPaso;
+    private final Pulguipium pistola;
+    private final Pulgoson misil;
+    private final RandomGenerator random;
+    
+    // Tasas por segundo simulado
+    private volatile double pulgasNormalesPorSegundo;
+    private volatile double pulgasMutantesPorSegundo;
+    private volatile double disparosPorSegundo;
+    private volatile double misilesPorSegundo;
+    private volatile double saltosPorSegundo;
+    
+    // Acumuladores de eventos pendientes
+    private double normalesPendientes;
+    private double mutantesPendientes;
+    private double disparosPendientes;
+    private double misilesPendientes;
+    private double saltosPendientes;
+    
+    // Estadísticas
+    private volatile long pulgasGeneradas;
+    private volatile long generacionesFallidas;
+    private volatile long pulgasEliminadas;
+    private volatile long disparos;
+    private volatile long misiles;
+    private volatile long saltos;
+    
+    /**
+     * Constructor para crear un nuevo escenario.
+     * 
+     * @param campo           Campo sobre el que se simula.
+     * @param pasosPorSegundo Pasos de simulación por segundo simulado.
+     * @param semilla         Semilla para los disparos aleatorios.
+     */
+    public EscenarioSimulacion(CampoSimulable campo, int pasosPorSegundo, long semilla) {
+        this(campo, pasosPorSegundo, new FuenteAleatoria(semilla));
+    }
+    
+    /**
+     * Constructor para crear un nuevo escenario con una fuente aleatoria dada.
+     * Los disparos y el misil usan fuentes derivadas de ella.
+     * 
+     * @param campo           Campo sobre el que se simula.
+     * @param pasosPorSegundo Pasos de simulación por segundo simulado.
+     * @param aleatorio       Fuente de los disparos y del misil.
+     */
+    public EscenarioSimulacion(CampoSimulable campo, int pasosPorSegundo, FuenteAleatoria aleatorio) {
+        this.campo = campo;
+        this.segundosPorPaso = 1.0 / pasosPorSegundo;
+        this.pistola = new Pulguipium();
+        this.misil = new Pulgoson(aleatorio.derivar(1));
+        // El escenario avanza en un solo hilo (el del motor): flujo fijo
+        this.random = aleatorio.derivar(0).flujo(0);
+    }
+    
+    /**
+     * Avanza el escenario un paso: genera pulgas y ejecuta los ataques pendientes.
+     * 
+     * @param paso Número del paso actual.
+     */
+    @Override
+    public void actualizar(long paso) {
+        normalesPendientes += pulgasNormalesPorSegundo * segundosPorPaso;
+        for (; normalesPendientes >= 1; normalesPendientes--) {
+            registrarGeneracion(campo.agregarPulgaNormal());
+        }
+        
+        mutantesPendientes += pulgasMutantesPorSegundo * segundosPorPaso;
+        for (; mutantesPendientes >= 1; mutantesPendientes--) {
+            registrarGeneracion(campo.agregarPulgaMutante());
+        }
+        
+        disparosPendientes += disparosPorSegundo * segundosPorPaso;
+        for (; disparosPendientes >= 1; disparosPendientes--) {
+            int x = random.nextInt(campo.getAnchoCampo());
+            int y = random.nextInt(campo.getAltoCampo());
+            pulgasEliminadas += pistola.atacar(campo, x, y);
+            disparos++;
+        }
+        
+        misilesPendientes += misilesPorSegundo * segundosPorPaso;
+        for (; misilesPendientes >= 1; misilesPendientes--) {
+            pulgasEliminadas += misil.atacar(campo, 0, 0);
+            misiles++;
+        }
+        
+        saltosPendientes += saltosPorSegundo * segundosPorPaso;
+        for (; saltosPendientes >= 1; saltosPendientes--) {
+            campo.hacerSaltarPulgas();
+            saltos++;
+        }
+    }
+    
+    private void registrarGeneracion(boolean agregada) {
+        if (agregada) {
+            pulgasGeneradas++;
+        } else {
+            generacionesFallidas++;
+        }
+    }
+    
+    // Setters de tasas (por segundo simulado)
+    public void setPulgasNormalesPorSegundo(double tasa) {
+        this.pulgasNormalesPorSegundo = tasa;
+    }
+    
+    public void setPulgasMutantesPorSegundo(double tasa) {
+        this.pulgasMutantesPorSegundo = tasa;
+    }
+    
+    public void setDisparosPorSegundo(double tasa) {
+        this.disparosPorSegundo = tasa;
+    }
+    
+    public void setMisilesPorSegundo(double tasa) {
+        this.misilesPorSegundo = tasa;
+    }
+    
+    public void setSaltosPorSegundo(double tasa) {
+        this.saltosPorSegundo = tasa;
+    }
+    
+    // Getters de estadísticas
+    public long getPulgasGeneradas() {
+        return pulgasGeneradas;
+    }
+    
+    public long getGeneracionesFallidas() {
+        return generacionesFallidas;
+    }
+    
+    public long getPulgasEliminadas() {
+        return pulgasEliminadas;
+    }
+    
+    public long getDisparos() {
+        return disparos;
+    }
+    
+    public long getMisiles() {
+        return misiles;
+    }
+    
+    public long getSaltos() {
+        return saltos;
+    }
+    
+    public CampoSimulable getCampo() {
+        return campo;
+    }
+}
@@ -0,0 +1,233 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * Índice de los lugares libres del campo, para elegir al azar dónde cabe una pulga
+ * sin probar posiciones a ciegas (ver {@link Campo#agregarPulgaNormal()}).
+ *
+ * Para cada celda de la {@link RejillaEspacial} y cada tipo de pulga guarda cuántas
+ * posiciones de su esquina superior izquierda dentro de la celda no se superponen con
+ * ninguna pulga; por fila de celdas guarda la suma. Una celda se calcula con una
+ * máscara de 64 bits por fila de píxeles, a partir de las pulgas de las celdas vecinas.
+ * La rejilla marca como sucias las celdas vecinas de cada pulga que inserta o quita, y
+ * solo esas se recalculan antes de elegir. Elegir cuesta recorrer las filas y las
+ * columnas de celdas una vez, sin importar cuán lleno esté el campo, y si no queda
+ * ningún lugar lo sabe con certeza.
+ *
+ * Las marcas son atómicas porque las ponen hilos con cerrojos de regiones distintas;
+ * lo demás no es seguro para hilos: el llamador de {@link #elegir} debe tener todos
+ * los cerrojos de la rejilla.
+ */
+final class EspacioLibre {
+    private static final int LADO = RejillaEspacial.TAMANO_CELDA;
+
+    private final RejillaEspacial rejilla;
+    private final int ancho;
+    private final int alto;
+    private final int columnas;
+    private final int filas;
+    // Tamaño de cada tipo de pulga, por su código (ver Pulga.getTipo)
+    private final int[] anchos;
+    private final int[] altos;
+    // Posiciones libres por tipo y celda, y su suma por fila de celdas
+    private final int[][] libres;
+    private final long[][] libresPorFila;
+    // Un bit por celda que hay que recalcular
+    private final AtomicLongArray sucias;
+    // Máscaras de la celda que se calcula: un bit por posición ocupada o fuera del campo
+    private final long[] mascaras = new long[LADO];
+
+    /**
+     * Constructor para crear el índice de una rejilla, con todas las celdas por calcular.
+     *
+     * @param rejilla Rejilla de las pulgas del campo.
+     * @param ancho   Ancho del campo.
+     * @param alto    Alto del campo.
+     * @param anchos  Ancho de cada tipo de pulga.
+     * @param altos   Alto de cada tipo de pulga.
+     */
+    EspacioLibre(RejillaEspacial rejilla, int ancho, int alto, int[] anchos, int[] altos) {
+        this.rejilla = rejilla;
+        this.ancho = ancho;
+        this.alto = alto;
+        this.columnas = rejilla.getColumnas();
+        this.filas = rejilla.getFilas();
+        this.anchos = anchos.clone();
+        this.altos = altos.clone();
+        this.libres = new int[anchos.length][columnas * filas];
+        this.libresPorFila = new long[anchos.length][filas];
+        this.sucias = new AtomicLongArray((columnas * filas + 63) / 64);
+        marcarTodo();
+    }
+
+    /**
+     * Marca para recalcular las celdas cuyos lugares libres pueden cambiar al insertar o
+     * quitar una pulga de la celda dada. Como las pulgas son más chicas que una celda,
+     * basta con la celda y sus ocho vecinas.
+     *
+     * @param columna Columna de la celda de la pulga.
+     * @param fila    Fila de la celda de la pulga.
+     */
+    void marcar(int columna, int fila) {
+        int filaFin = Math.min(filas - 1, fila + 1);
+        int colFin = Math.min(columnas - 1, columna + 1);
+        for (int f = Math.max(0, fila - 1); f <= filaFin; f++) {
+            for (int c = Math.max(0, columna - 1); c <= colFin; c++) {
+                int indice = f * columnas + c;
+                long bit = 1L << indice;
+                long palabra = sucias.get(indice >>> 6);
+                while ((palabra & bit) == 0 && !sucias.compareAndSet(indice >>> 6, palabra, palabra | bit)) {
+                    palabra = sucias.get(indice >>> 6);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marca todas las celdas para recalcular (por ejemplo, al vaciar el campo).
+     */
+    void marcarTodo() {
+        for (int i = 0; i < sucias.length(); i++) {
+            sucias.set(i, -1L);
+        }
+    }
+
+    /**
+     * Elige al azar, con la misma probabilidad para cada una, una posición donde cabe
+     * una pulga del tipo dado. El llamador debe tener todos los cerrojos de la rejilla.
+     *
+     * @param tipo   Tipo de pulga.
+     * @param random Generador de números aleatorios.
+     * @return Índice de píxel de la esquina superior izquierda ({@code y * ancho + x}),
+     *         o -1 si no cabe en ningún lugar.
+     */
+    long elegir(int tipo, RandomGenerator random) {
+        actualizar();
+        long total = 0;
+        for (int f = 0; f < filas; f++) {
+            total += libresPorFila[tipo][f];
+        }
+        if (total == 0) {
+            return -1;
+        }
+
+        // Fila de celdas, celda y, dentro de ella, la posición libre número "resto"
+        long resto = random.nextLong(total);
+        int fila = 0;
+        while (resto >= libresPorFila[tipo][fila]) {
+            resto -= libresPorFila[tipo][fila];
+            fila++;
+        }
+        int indice = fila * columnas;
+        while (resto >= libres[tipo][indice]) {
+            resto -= libres[tipo][indice];
+            indice++;
+        }
+        int filasValidas = calcularMascaras(tipo, indice);
+        for (int r = 0; r < filasValidas; r++) {
+            long libresFila = ~mascaras[r];
+            int cuenta = Long.bitCount(libresFila);
+            if (resto < cuenta) {
+                for (int i = 0; i < resto; i++) {
+                    libresFila &= libresFila - 1; // Quitar el bit libre más bajo
+                }
+                int x = (indice % columnas) * LADO + Long.numberOfTrailingZeros(libresFila);
+                int y = fila * LADO + r;
+                return (long) y * ancho + x;
+            }
+            resto -= cuenta;
+        }
+        throw new IllegalStateException("Conteo de lugares libres inconsistente en la celda " + indice);
+    }
+
+    /**
+     * Recalcula las celdas marcadas y limpia sus marcas.
+     */
+    private void actualizar() {
+        for (int palabra = 0; palabra < sucias.length(); palabra++) {
+            long bits = sucias.get(palabra);
+            if (bits == 0) {
+                continue;
+            }
+            sucias.set(palabra, 0);
+            while (bits != 0) {
+                int indice = (palabra << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (indice >= columnas * filas) {
+                    break;
+                }
+                for (int tipo = 0; tipo < anchos.length; tipo++) {
+                    int antes = libres[tipo][indice];
+                    int ahora = contarLibres(tipo, indice);
+                    libres[tipo][indice] = ahora;
+                    libresPorFila[tipo][indice / columnas] += ahora - antes;
+                }
+            }
+        }
+    }
+
+    private int contarLibres(int tipo, int indice) {
+        int filasValidas = calcularMascaras(tipo, indice);
+        int cuenta = 0;
+        for (int r = 0; r < filasValidas; r++) {
+            cuenta += LADO - Long.bitCount(mascaras[r]);
+        }
+        return cuenta;
+    }
+
+    /**
+     * Llena las máscaras de una celda para un tipo de pulga: un bit en 1 por cada
+     * posición de la esquina superior izquierda donde la pulga saldría del campo o se
+     * superpondría con otra.
+     *
+     * @return Filas de la celda con posiciones dentro del campo (las demás no se llenan).
+     */
+    private int calcularMascaras(int tipo, int indice) {
+        int columna = indice % columnas;
+        int fila = indice / columnas;
+        int x0 = columna * LADO;
+        int y0 = fila * LADO;
+        int anchoPulga = anchos[tipo];
+        int altoPulga = altos[tipo];
+        // Igual que al aparecer al azar: x < ancho - anchoPulga, y < alto - altoPulga
+        int columnasValidas = Math.max(0, Math.min(LADO, ancho - anchoPulga - x0));
+        int filasValidas = Math.max(0, Math.min(LADO, alto - altoPulga - y0));
+        if (columnasValidas == 0) {
+            return 0;
+        }
+        long fuera = columnasValidas == LADO ? 0 : -1L << columnasValidas;
+        for (int r = 0; r < filasValidas; r++) {
+            mascaras[r] = fuera;
+        }
+
+        int filaFin = Math.min(filas - 1, fila + 1);
+        int colFin = Math.min(columnas - 1, columna + 1);
+        for (int f = Math.max(0, fila - 1); f <= filaFin; f++) {
+            for (int c = Math.max(0, columna - 1); c <= colFin; c++) {
+                ArrayList<Pulga> celda = rejilla.getCelda(f * columnas + c);
+                if (celda == null) {
+                    continue;
+                }
+                for (int i = 0; i < celda.size(); i++) {
+                    Pulga otra = celda.get(i);
+                    // Esquinas que se superpondrían con la otra pulga, relativas a la celda
+                    int desdeX = Math.max(0, otra.x - anchoPulga + 1 - x0);
+                    int hastaX = Math.min(LADO - 1, otra.x + otra.ancho - 1 - x0);
+                    int desdeY = Math.max(0, otra.y - altoPulga + 1 - y0);
+                    int hastaY = Math.min(filasValidas - 1, otra.y + otra.alto - 1 - y0);
+                    if (desdeX > hastaX || desdeY > hastaY) {
+                        continue;
+                    }
+                    long bits = (-1L >>> (LADO - 1 - (hastaX - desdeX))) << desdeX;
+                    for (int r = desdeY; r <= hastaY; r++) {
+                        mascaras[r] |= bits;
+                    }
+                }
+            }
+        }
+        return filasValidas;
+    }
+}
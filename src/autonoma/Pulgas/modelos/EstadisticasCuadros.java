@@ -0,0 +1,134 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.Arrays;
+
+/**
+ * Estadísticas de tiempo de los últimos cuadros dibujados: intervalo entre cuadros
+ * (latencia que percibe el jugador) y tiempo de dibujo de cada cuadro.
+ * Guarda una ventana circular de muestras; el hilo de dibujo registra y cualquier
+ * hilo puede consultar.
+ */
+public class EstadisticasCuadros {
+    // Muestras guardadas (unos 4 segundos a 60 cuadros por segundo)
+    private static final int MUESTRAS = 256;
+    private static final double NANOS_POR_MILISEGUNDO = 1_000_000.0;
+
+    private final long[] intervalos = new long[MUESTRAS];
+    private final long[] dibujos = new long[MUESTRAS];
+    private int siguiente;
+    private int guardadas;
+    private long cuadros;
+    private long cuadrosAtrasados;
+
+    /**
+     * Registra un cuadro.
+     *
+     * @param intervaloNanos Tiempo desde el cuadro anterior.
+     * @param dibujoNanos    Tiempo que tomó dibujar y mostrar el cuadro.
+     * @param atrasado       true si el cuadro no alcanzó su plazo.
+     */
+    public synchronized void registrar(long intervaloNanos, long dibujoNanos, boolean atrasado) {
+        intervalos[siguiente] = intervaloNanos;
+        dibujos[siguiente] = dibujoNanos;
+        siguiente = (siguiente + 1) % MUESTRAS;
+        guardadas = Math.min(MUESTRAS, guardadas + 1);
+        cuadros++;
+        if (atrasado) {
+            cuadrosAtrasados++;
+        }
+    }
+
+    /**
+     * Obtiene el total de cuadros dibujados.
+     *
+     * @return Número de cuadros.
+     */
+    public synchronized long getCuadros() {
+        return cuadros;
+    }
+
+    /**
+     * Obtiene los cuadros que no alcanzaron su plazo.
+     *
+     * @return Número de cuadros atrasados.
+     */
+    public synchronized long getCuadrosAtrasados() {
+        return cuadrosAtrasados;
+    }
+
+    /**
+     * Obtiene los cuadros por segundo según el intervalo promedio de la ventana.
+     *
+     * @return Cuadros por segundo, o 0 si aún no hay muestras.
+     */
+    public synchronized double getCuadrosPorSegundo() {
+        double promedio = promedio(intervalos);
+        return promedio > 0 ? 1_000_000_000.0 / promedio : 0;
+    }
+
+    /**
+     * Obtiene el intervalo promedio entre cuadros de la ventana.
+     *
+     * @return Intervalo en milisegundos.
+     */
+    public synchronized double getIntervaloPromedioMs() {
+        return promedio(intervalos) / NANOS_POR_MILISEGUNDO;
+    }
+
+    /**
+     * Obtiene un percentil del intervalo entre cuadros de la ventana.
+     *
+     * @param percentil Percentil entre 0 y 100.
+     * @return Intervalo en milisegundos.
+     */
+    public synchronized double getIntervaloPercentilMs(double percentil) {
+        return percentil(intervalos, percentil) / NANOS_POR_MILISEGUNDO;
+    }
+
+    /**
+     * Obtiene el tiempo promedio de dibujo de la ventana.
+     *
+     * @return Tiempo en milisegundos.
+     */
+    public synchronized double getDibujoPromedioMs() {
+        return promedio(dibujos) / NANOS_POR_MILISEGUNDO;
+    }
+
+    /**
+     * Obtiene un percentil del tiempo de dibujo de la ventana.
+     *
+     * @param percentil Percentil entre 0 y 100.
+     * @return Tiempo en milisegundos.
+     */
+    public synchronized double getDibujoPercentilMs(double percentil) {
+        return percentil(dibujos, percentil) / NANOS_POR_MILISEGUNDO;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%.1f cuadros/s, intervalo %.2f ms (p99 %.2f), dibujo %.2f ms (p99 %.2f), atrasados %d de %d",
+                getCuadrosPorSegundo(), getIntervaloPromedioMs(), getIntervaloPercentilMs(99),
+                getDibujoPromedioMs(), getDibujoPercentilMs(99), cuadrosAtrasados, cuadros);
+    }
+
+    private double promedio(long[] muestras) {
+        if (guardadas == 0) {
+            return 0;
+        }
+        long suma = 0;
+        for (int i = 0; i < guardadas; i++) {
+            suma += muestras[i];
+        }
+        return (double) suma / guardadas;
+    }
+
+    private long percentil(long[] muestras, double percentil) {
+        if (guardadas == 0) {
+            return 0;
+        }
+        long[] ordenadas = Arrays.copyOf(muestras, guardadas);
+        Arrays.sort(ordenadas);
+        int indice = (int) Math.ceil(percentil / 100.0 * guardadas) - 1;
+        return ordenadas[Math.max(0, Math.min(guardadas - 1, indice))];
+    }
+}
@@ -0,0 +1,185 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Fuente de números aleatorios que da a cada hilo su propio generador.
+ *
+ * Un {@link java.util.Random} compartido obliga a todos los hilos a actualizar la misma
+ * semilla con una operación atómica; aquí cada hilo recibe un generador propio, sin
+ * sincronización, la primera vez que lo pide. Todos los generadores salen de una sola
+ * semilla raíz: el de cada hilo es el flujo número N de su fuente, donde N es el orden en
+ * que los hilos lo pidieron desde la última siembra, y {@link #flujo(long)} da el flujo de
+ * un índice fijo para el trabajo repartido entre varios hilos (así el resultado no depende
+ * de qué hilo llegó primero). {@link #derivar(long)} crea fuentes hijas independientes
+ * (por ejemplo, una para el campo y otra para el misil) que siguen a la raíz cuando se
+ * vuelve a sembrar.
+ *
+ * El algoritmo es {@link SplittableRandom} salvo que se indique otro.
+ */
+public class FuenteAleatoria {
+    private static final long DORADO = 0x9E3779B97F4A7C15L;
+    // Semillas de las fuentes creadas sin semilla, distintas entre sí
+    private static final AtomicLong SIN_SEMILLA = new AtomicLong(System.nanoTime());
+
+    private final FuenteAleatoria raiz;
+    private final FuenteAleatoria padre;
+    private final long indice;
+    private final LongFunction<? extends RandomGenerator> algoritmo;
+    private final ThreadLocal<GeneradorHilo> porHilo = new ThreadLocal<>();
+    // Semilla actual; solo la usa la raíz, cambia de objeto en cada siembra
+    private volatile Siembra siembra;
+    // Flujos ya dados a hilos en la siembra actual
+    private Siembra siembraFlujos;
+    private long siguienteFlujo;
+
+    /**
+     * Constructor para crear una fuente con una semilla distinta en cada ejecución.
+     */
+    public FuenteAleatoria() {
+        this(mezclar(SIN_SEMILLA.addAndGet(DORADO)));
+    }
+
+    /**
+     * Constructor para crear una fuente reproducible.
+     *
+     * @param semilla Semilla raíz.
+     */
+    public FuenteAleatoria(long semilla) {
+        this(semilla, SplittableRandom::new);
+    }
+
+    /**
+     * Constructor para crear una fuente reproducible con otro algoritmo.
+     *
+     * @param semilla   Semilla raíz.
+     * @param algoritmo Crea el generador de un flujo a partir de su semilla.
+     */
+    public FuenteAleatoria(long semilla, LongFunction<? extends RandomGenerator> algoritmo) {
+        this.raiz = this;
+        this.padre = null;
+        this.indice = 0;
+        this.algoritmo = algoritmo;
+        this.siembra = new Siembra(semilla);
+    }
+
+    private FuenteAleatoria(FuenteAleatoria padre, long indice) {
+        this.raiz = padre.raiz;
+        this.padre = padre;
+        this.indice = indice;
+        this.algoritmo = padre.algoritmo;
+    }
+
+    /**
+     * Obtiene el generador del hilo que llama. Solo debe usarlo ese hilo.
+     * Después de {@link #sembrar(long)} cada hilo recibe un generador nuevo.
+     *
+     * @return Generador propio del hilo.
+     */
+    public RandomGenerator actual() {
+        GeneradorHilo propio = porHilo.get();
+        Siembra vigente = raiz.siembra;
+        if (propio == null || propio.siembra != vigente) {
+            propio = new GeneradorHilo(vigente, algoritmo.apply(semillaFlujo(vigente, siguienteFlujo(vigente))));
+            porHilo.set(propio);
+        }
+        return propio.generador;
+    }
+
+    /**
+     * Crea el generador de un flujo fijo, el mismo para la misma semilla e índice
+     * sin importar el hilo. Sirve para repartir trabajo entre hilos de forma reproducible.
+     *
+     * @param indice Número de flujo.
+     * @return Generador nuevo del flujo.
+     */
+    public RandomGenerator flujo(long indice) {
+        // Los índices negativos no se cruzan con los que se dan a los hilos
+        return algoritmo.apply(semillaFlujo(raiz.siembra, ~indice));
+    }
+
+    /**
+     * Crea una fuente hija independiente, que se vuelve a sembrar junto con esta.
+     *
+     * @param indice Número de la fuente hija; dos hijas con el mismo índice dan los mismos números.
+     * @return Fuente hija.
+     */
+    public FuenteAleatoria derivar(long indice) {
+        return new FuenteAleatoria(this, indice);
+    }
+
+    /**
+     * Vuelve a sembrar la raíz, y con ella todas sus fuentes hijas.
+     *
+     * @param semilla Nueva semilla raíz.
+     */
+    public void sembrar(long semilla) {
+        raiz.siembra = new Siembra(semilla);
+    }
+
+    /**
+     * Obtiene la semilla de esta fuente (la raíz, o la derivada de ella en una hija).
+     *
+     * @return Semilla.
+     */
+    public long getSemilla() {
+        return semilla(raiz.siembra);
+    }
+
+    private long semilla(Siembra vigente) {
+        return padre == null ? vigente.semilla : mezclar(padre.semilla(vigente) + DORADO * (indice + 1));
+    }
+
+    private long semillaFlujo(Siembra vigente, long flujo) {
+        return mezclar(semilla(vigente) ^ mezclar(flujo * DORADO + 1));
+    }
+
+    /**
+     * Número de flujo para el siguiente hilo; vuelve a cero con cada siembra.
+     */
+    private synchronized long siguienteFlujo(Siembra vigente) {
+        if (siembraFlujos != vigente) {
+            siembraFlujos = vigente;
+            siguienteFlujo = 0;
+        }
+        return siguienteFlujo++;
+    }
+
+    /**
+     * Mezcla los bits de un valor (función final de SplitMix64). La huella de
+     * {@link Campo} usa esta misma función, no una copia.
+     *
+     * @param valor Valor a mezclar.
+     * @return Valor mezclado.
+     */
+    static long mezclar(long valor) {
+        valor = (valor ^ (valor >>> 30)) * 0xBF58476D1CE4E5B9L;
+        valor = (valor ^ (valor >>> 27)) * 0x94D049BB133111EBL;
+        return valor ^ (valor >>> 31);
+    }
+
+    /**
+     * Semilla de una siembra. Cada siembra es un objeto nuevo, así los hilos saben si
+     * su generador es de una siembra anterior aunque la semilla se repita.
+     */
+    private static final class Siembra {
+        final long semilla;
+
+        Siembra(long semilla) {
+            this.semilla = semilla;
+        }
+    }
+
+    private static final class GeneradorHilo {
+        final Siembra siembra;
+        final RandomGenerator generador;
+
+        GeneradorHilo(Siembra siembra, RandomGenerator generador) {
+            this.siembra = siembra;
+            this.generador = generador;
+        }
+    }
+}
@@ -10,8 +10,13 @@ import java.awt.event.*;
  */
 public class GUI {
     private Juego juego;
+    private SimulacionJuego simulacion;
     private JFrame ventana;
     private PanelJuego panelJuego;
+    // Solo en modo de dibujo activo; entonces panelJuego es null
+    private LienzoActivo lienzoActivo;
+    private Component areaJuego;
+    private boolean dibujoActivo;
     private JLabel lblPuntaje;
     private JLabel lblMaxPuntaje;
     private JButton btnReiniciar;
@@ -27,9 +32,35 @@ public class GUI {
      * @param juego Juego a mostrar.
      */
     public GUI(Juego juego) {
+        this(juego, false);
+    }
+    
+    /**
+     * Constructor para crear una nueva interfaz gráfica, eligiendo el modo de dibujo.
+     * 
+     * @param juego        Juego a mostrar.
+     * @param dibujoActivo true para dibujar con un hilo propio y {@link LienzoActivo},
+     *                     false para repintar con Swing mediante {@link PanelJuego}.
+     */
+    public GUI(Juego juego, boolean dibujoActivo) {
         this.juego = juego;
+        this.simulacion = new SimulacionJuego(juego);
+        this.dibujoActivo = dibujoActivo;
         inicializarComponentes();
         inicializarEventos();
+        // Los cambios de puntaje llegan como eventos, agrupados en una sola actualización por ciclo de Swing
+        juego.agregarOyente(new OyenteJuegoAgrupado(new OyenteJuego() {
+            @Override
+            public void puntajeCambiado(int puntaje, int maxPuntaje) {
+                lblPuntaje.setText("Pulgas Eliminadas: " + puntaje);
+                lblMaxPuntaje.setText("Máximo: " + maxPuntaje);
+            }
+
+            @Override
+            public void juegoTerminado(int puntaje, int maxPuntaje) {
+                mostrarFinJuego(puntaje, maxPuntaje);
+            }
+        }));
     }
     
     /**
@@ -41,9 +72,15 @@ public class GUI {
         ventana.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         ventana.setLayout(new BorderLayout());
         
-        // Panel de juego
-        panelJuego = new PanelJuego(juego, juego.getCampo());
-        ventana.add(panelJuego, BorderLayout.CENTER);
+        // Área de juego: repintada por Swing o dibujada por un hilo propio
+        if (dibujoActivo) {
+            lienzoActivo = new LienzoActivo(simulacion);
+            areaJuego = lienzoActivo;
+        } else {
+            panelJuego = new PanelJuego(simulacion);
+            areaJuego = panelJuego;
+        }
+        ventana.add(areaJuego, BorderLayout.CENTER);
         
         // Panel de información y controles
         JPanel panelControles = new JPanel();
@@ -71,7 +108,7 @@ public class GUI {
         JPanel panelInferior = new JPanel(new FlowLayout(FlowLayout.CENTER));
         panelInferior.setBackground(new Color(200, 220, 240));
         
-        lblInstrucciones = new JLabel("<html><b>Controles:</b> [p] Pulga normal | [m] Pulga mutante | [s] Saltar | [ESPACIO] Pulgoson | [q] Salir</html>");
+        lblInstrucciones = new JLabel("<html><b>Controles:</b> [p] Pulga normal | [m] Pulga mutante | [s] Saltar | [ESPACIO] Pulgoson | [q] Salir<br>[rueda] Acercar o alejar | [arrastrar con clic derecho] Mover la vista</html>");
         lblInstrucciones.setFont(new Font("Arial", Font.PLAIN, 12));
         
         panelInferior.add(lblInstrucciones);
@@ -104,11 +141,15 @@ public class GUI {
      */
     private void inicializarEventos() {
         // Evento de clic en el panel (disparo de pistola Pulguipium)
-        panelJuego.addMouseListener(new MouseAdapter() {
+        areaJuego.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                if (juego.esJuegoActivo() && SwingUtilities.isLeftMouseButton(e)) {
-                    juego.dispararPistola(e.getX(), e.getY());
+                if (SwingUtilities.isLeftMouseButton(e)) {
+                    // El disparo va al punto del campo bajo el cursor, según la vista actual
+                    VistaCampo vista = getControlVista().getVista();
+                    int x = vista.aCampoX(e.getX());
+                    int y = vista.aCampoY(e.getY());
+                    simulacion.enviarAccion(AccionJuego.DISPARO, x, y);
                 }
             }
         });
@@ -117,7 +158,7 @@ public class GUI {
         btnReiniciar.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                juego.reiniciar();
+                simulacion.enviarAccion(AccionJuego.REINICIAR);
             }
         });
         
@@ -128,29 +169,19 @@ public class GUI {
                 if (e.getID() == KeyEvent.KEY_PRESSED) {
                     switch (e.getKeyChar()) {
                         case 'p': // Agregar pulga normal
-                            if (juego.esJuegoActivo()) {
-                                juego.agregarPulgaNormal();
-                            }
+                            simulacion.enviarAccion(AccionJuego.PULGA_NORMAL);
                             break;
                         case 'm': // Agregar pulga mutante
-                            if (juego.esJuegoActivo()) {
-                                juego.agregarPulgaMutante();
-                            }
+                            simulacion.enviarAccion(AccionJuego.PULGA_MUTANTE);
                             break;
                         case 's': // Hacer saltar a las pulgas
-                            if (juego.esJuegoActivo()) {
-                                juego.hacerSaltarPulgas();
-                            }
+                            simulacion.enviarAccion(AccionJuego.SALTO);
                             break;
                         case 'q': // Terminar la simulación
-                            if (juego.esJuegoActivo()) {
-                                juego.finalizar();
-                            }
+                            simulacion.enviarAccion(AccionJuego.FINALIZAR);
                             break;
                         case ' ': // Barra espaciadora - Lanzar misil Pulgoson
-                            if (juego.esJuegoActivo()) {
-                                juego.dispararMisil();
-                            }
+                            simulacion.enviarAccion(AccionJuego.MISIL);
                             break;
                     }
                 }
@@ -162,10 +193,14 @@ public class GUI {
         ventana.addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
+                timer.stop();
+                if (lienzoActivo != null) {
+                    lienzoActivo.detener();
+                }
+                simulacion.detener();
                 if (juego.esJuegoActivo()) {
                     juego.finalizar();
                 }
-                timer.stop();
             }
         });
     }
@@ -174,26 +209,35 @@ public class GUI {
      * Actualiza la interfaz gráfica con los cambios en el juego.
      */
     private void actualizarInterfaz() {
-        // Actualizar etiquetas de puntaje
-        lblPuntaje.setText("Pulgas Eliminadas: " + juego.getPuntaje());
-        lblMaxPuntaje.setText("Máximo: " + juego.getMaxPuntaje());
-        
-        // Repintar el panel de juego
-        panelJuego.repaint();
-        
-        // Mostrar mensaje si el juego ha finalizado
-        if (!juego.esJuegoActivo() && juego.getPuntaje() > 0) {
-            int opcion = JOptionPane.showConfirmDialog(ventana, 
-                "¡Simulación terminada!\nPulgas eliminadas: " + juego.getPuntaje() + 
-                "\nMaximo puntaje: " + juego.getMaxPuntaje() + 
-                "\n\n¿Deseas reiniciar la simulacion?",
-                "Fin de la simulacion", JOptionPane.YES_NO_OPTION);
-            
-            if (opcion == JOptionPane.YES_OPTION) {
-                juego.reiniciar();
-            } else {
-                System.exit(0); // Salir de la aplicación
-            }
+        // Repintar solo las zonas del panel de juego que cambiaron
+        // (en modo activo el hilo de dibujo muestra cada cuadro por su cuenta;
+        // las etiquetas se actualizan con los eventos del juego)
+        if (panelJuego != null) {
+            panelJuego.actualizar();
+        }
+    }
+    
+    /**
+     * Muestra el mensaje de fin de la simulación y reinicia o sale según la respuesta.
+     * 
+     * @param puntaje    Puntaje con el que terminó el juego.
+     * @param maxPuntaje Puntaje máximo.
+     */
+    private void mostrarFinJuego(int puntaje, int maxPuntaje) {
+        if (puntaje <= 0) {
+            return;
+        }
+        int opcion = JOptionPane.showConfirmDialog(ventana, 
+            "¡Simulación terminada!\nPulgas eliminadas: " + puntaje + 
+            "\nMaximo puntaje: " + maxPuntaje + 
+            "\n\n¿Deseas reiniciar la simulacion?",
+            "Fin de la simulacion", JOptionPane.YES_NO_OPTION);
+        
+        if (opcion == JOptionPane.YES_OPTION) {
+            simulacion.enviarAccion(AccionJuego.REINICIAR);
+        } else {
+            simulacion.detener(); // Termina la grabación, si hay una
+            System.exit(0); // Salir de la aplicación
         }
     }
     
@@ -201,10 +245,41 @@ public class GUI {
      * Inicia la interfaz gráfica.
      */
     public void iniciar() {
-        // Iniciar el juego
-        juego.iniciar();
+        // Iniciar el juego en el hilo de simulación
+        simulacion.enviarAccion(AccionJuego.INICIAR);
+        simulacion.iniciar();
+        if (lienzoActivo != null) {
+            lienzoActivo.iniciar();
+        }
         
         // Iniciar el timer
         timer.start();
     }
+    
+    /**
+     * Obtiene el área de dibujo activo, para ajustar su ritmo o consultar sus estadísticas.
+     * 
+     * @return Lienzo activo, o null si la interfaz usa el repintado de Swing.
+     */
+    public LienzoActivo getLienzoActivo() {
+        return lienzoActivo;
+    }
+    
+    /**
+     * Obtiene el control de la vista del área de juego, en cualquiera de los dos modos de dibujo.
+     * 
+     * @return Control de la vista.
+     */
+    public ControlVista getControlVista() {
+        return panelJuego != null ? panelJuego.getControlVista() : lienzoActivo.getControlVista();
+    }
+    
+    /**
+     * Obtiene la simulación del juego, por ejemplo para grabar la sesión.
+     * 
+     * @return Simulación que usa la interfaz.
+     */
+    public SimulacionJuego getSimulacion() {
+        return simulacion;
+    }
 }
\ No newline at end of file
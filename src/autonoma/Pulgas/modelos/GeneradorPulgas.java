@@ -1,70 +1,204 @@
 package autonoma.Pulgas.modelos;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
 /**
  * Clase que genera pulgas automáticamente a intervalos regulares.
- * Ejecuta en un hilo separado.
+ *
+ * No tiene un hilo propio: programa cada generación en un planificador compartido
+ * por todos los juegos, así que no despierta si no hay nada que hacer y miles de
+ * partidas usan solo unos pocos hilos. Los plazos se calculan con el reloj
+ * monotónico ({@link System#nanoTime()}), que no salta si cambia la hora del sistema.
+ * Puede detenerse e iniciarse las veces que se quiera, y los intervalos pueden
+ * cambiarse mientras está activo.
  */
-public class GeneradorPulgas extends Thread {
-    private Juego juego;
-    private boolean activo;
+public class GeneradorPulgas {
     private static final long TIEMPO_PULGA_NORMAL = 5000; // 5 segundos
     private static final long TIEMPO_PULGA_MUTANTE = 10000; // 10 segundos
-    
+
+    // Planificador compartido; sus hilos son demonio para no impedir que la aplicación termine
+    private static final ScheduledExecutorService PLANIFICADOR = crearPlanificador();
+
+    private Juego juego;
+    // Recibe la acción de cada pulga generada; por defecto la aplica en el hilo del planificador
+    private volatile IntConsumer entrega;
+    private boolean activo;
+    private long intervaloNormalNanos;
+    private long intervaloMutanteNanos;
+    // Próximo instante (en nanoTime) en que toca cada tipo de pulga
+    private long proximaNormal;
+    private long proximaMutante;
+    private ScheduledFuture<?> tareaNormal;
+    private ScheduledFuture<?> tareaMutante;
+    // Aumenta en cada inicio o detención para descartar tareas de una sesión anterior
+    private int sesion;
+
     /**
      * Constructor para crear un nuevo generador de pulgas.
-     * 
+     *
      * @param juego Juego al que se añadirán las pulgas.
      */
     public GeneradorPulgas(Juego juego) {
         this.juego = juego;
+        this.entrega = accion -> AccionJuego.aplicar(juego, (byte) accion, 0, 0);
         this.activo = false;
+        this.intervaloNormalNanos = TimeUnit.MILLISECONDS.toNanos(TIEMPO_PULGA_NORMAL);
+        this.intervaloMutanteNanos = TimeUnit.MILLISECONDS.toNanos(TIEMPO_PULGA_MUTANTE);
     }
-    
+
     /**
-     * Inicia el generador de pulgas.
+     * Inicia el generador de pulgas. Si ya estaba activo, vuelve a empezar a contar los intervalos.
      */
-    public void iniciar() {
+    public synchronized void iniciar() {
+        cancelarTareas();
+        sesion++;
         activo = true;
-        start();
+        long ahora = System.nanoTime();
+        proximaNormal = ahora + intervaloNormalNanos;
+        proximaMutante = ahora + intervaloMutanteNanos;
+        programarNormal(sesion);
+        programarMutante(sesion);
     }
-    
+
     /**
      * Detiene el generador de pulgas.
      */
-    public void detener() {
+    public synchronized void detener() {
+        cancelarTareas();
+        sesion++;
         activo = false;
-        interrupt();
     }
-    
+
+    /**
+     * Cambia el intervalo entre pulgas normales. Si el generador está activo,
+     * la próxima pulga se reprograma a partir de la última generada.
+     *
+     * @param milisegundos Nuevo intervalo en milisegundos (mayor que cero).
+     */
+    public synchronized void setIntervaloPulgaNormal(long milisegundos) {
+        long nuevo = validarIntervalo(milisegundos);
+        if (activo) {
+            proximaNormal += nuevo - intervaloNormalNanos;
+            tareaNormal.cancel(false);
+            programarNormal(sesion);
+        }
+        intervaloNormalNanos = nuevo;
+    }
+
+    /**
+     * Cambia el intervalo entre pulgas mutantes. Si el generador está activo,
+     * la próxima pulga se reprograma a partir de la última generada.
+     *
+     * @param milisegundos Nuevo intervalo en milisegundos (mayor que cero).
+     */
+    public synchronized void setIntervaloPulgaMutante(long milisegundos) {
+        long nuevo = validarIntervalo(milisegundos);
+        if (activo) {
+            proximaMutante += nuevo - intervaloMutanteNanos;
+            tareaMutante.cancel(false);
+            programarMutante(sesion);
+        }
+        intervaloMutanteNanos = nuevo;
+    }
+
+    public synchronized long getIntervaloPulgaNormal() {
+        return TimeUnit.NANOSECONDS.toMillis(intervaloNormalNanos);
+    }
+
+    public synchronized long getIntervaloPulgaMutante() {
+        return TimeUnit.NANOSECONDS.toMillis(intervaloMutanteNanos);
+    }
+
+    public synchronized boolean estaActivo() {
+        return activo;
+    }
+
     /**
-     * Ejecución del hilo que genera pulgas periódicamente.
+     * Cambia a quién se entregan las pulgas generadas, como acciones
+     * ({@link AccionJuego#PULGA_NORMAL} o {@link AccionJuego#PULGA_MUTANTE}).
+     * La simulación las recibe en su cola, así se aplican en su hilo y pueden grabarse.
+     *
+     * @param entrega Destino de las acciones de generación.
      */
-    @Override
-    public void run() {
-        long ultimaPulgaNormal = System.currentTimeMillis();
-        long ultimaPulgaMutante = System.currentTimeMillis();
-        
-        try {
-            while (activo) {
-                long tiempoActual = System.currentTimeMillis();
-                
-                // Verificar si es tiempo de generar una pulga normal
-                if (tiempoActual - ultimaPulgaNormal >= TIEMPO_PULGA_NORMAL) {
-                    juego.agregarPulgaNormal();
-                    ultimaPulgaNormal = tiempoActual;
-                }
-                
-                // Verificar si es tiempo de generar una pulga mutante
-                if (tiempoActual - ultimaPulgaMutante >= TIEMPO_PULGA_MUTANTE) {
-                    juego.agregarPulgaMutante();
-                    ultimaPulgaMutante = tiempoActual;
-                }
-                
-                // Esperar un poco para no consumir muchos recursos
-                Thread.sleep(100);
+    public void setEntrega(IntConsumer entrega) {
+        this.entrega = entrega;
+    }
+
+    private void programarNormal(int sesionTarea) {
+        tareaNormal = PLANIFICADOR.schedule(() -> generarNormal(sesionTarea),
+                Math.max(0, proximaNormal - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private void programarMutante(int sesionTarea) {
+        tareaMutante = PLANIFICADOR.schedule(() -> generarMutante(sesionTarea),
+                Math.max(0, proximaMutante - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Genera una pulga normal y programa la siguiente. Los plazos se encadenan desde
+     * el anterior (no desde el momento de ejecución) para que no se acumule retraso.
+     */
+    private void generarNormal(int sesionTarea) {
+        synchronized (this) {
+            if (!activo || sesionTarea != sesion) {
+                return; // Tarea de una sesión ya detenida
             }
-        } catch (InterruptedException e) {
-            // El hilo fue interrumpido, terminar silenciosamente
+            MetricasJuego.getGlobal().retrasoGenerador.registrar(System.nanoTime() - proximaNormal);
+            proximaNormal += intervaloNormalNanos;
+            programarNormal(sesionTarea);
         }
+        // Se entrega fuera del cerrojo para no bloquear detener() mientras se busca lugar
+        entrega.accept(AccionJuego.PULGA_NORMAL);
+    }
+
+    /**
+     * Genera una pulga mutante y programa la siguiente.
+     */
+    private void generarMutante(int sesionTarea) {
+        synchronized (this) {
+            if (!activo || sesionTarea != sesion) {
+                return; // Tarea de una sesión ya detenida
+            }
+            MetricasJuego.getGlobal().retrasoGenerador.registrar(System.nanoTime() - proximaMutante);
+            proximaMutante += intervaloMutanteNanos;
+            programarMutante(sesionTarea);
+        }
+        entrega.accept(AccionJuego.PULGA_MUTANTE);
+    }
+
+    private void cancelarTareas() {
+        if (tareaNormal != null) {
+            tareaNormal.cancel(false);
+            tareaNormal = null;
+        }
+        if (tareaMutante != null) {
+            tareaMutante.cancel(false);
+            tareaMutante = null;
+        }
+    }
+
+    private static long validarIntervalo(long milisegundos) {
+        if (milisegundos <= 0) {
+            throw new IllegalArgumentException("El intervalo debe ser mayor que cero: " + milisegundos);
+        }
+        return TimeUnit.MILLISECONDS.toNanos(milisegundos);
+    }
+
+    private static ScheduledExecutorService crearPlanificador() {
+        AtomicInteger contador = new AtomicInteger();
+        int hilos = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        ScheduledThreadPoolExecutor planificador = new ScheduledThreadPoolExecutor(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "generador-pulgas-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Las tareas canceladas se quitan de la cola en lugar de esperar a su plazo
+        planificador.setRemoveOnCancelPolicy(true);
+        return planificador;
     }
-}
\ No newline at end of file
+}
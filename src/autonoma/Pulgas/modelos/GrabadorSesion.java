@@ -0,0 +1,189 @@
+package autonoma.Pulgas.modelos;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Graba una sesión de juego en un flujo binario compacto, para reproducirla con
+ * {@link ReproductorSesion}.
+ *
+ * La cabecera guarda la semilla de la partida y el tamaño del campo; después viene
+ * un evento por cada acción aplicada y por cada cambio del cursor, en el orden en que
+ * el hilo de simulación los aplicó. Cada evento empieza con los pasos transcurridos
+ * desde el anterior (entero de longitud variable) y su tipo; las posiciones del cursor
+ * se guardan como diferencia con la anterior y los disparos como diferencia con el
+ * cursor, así la mayoría de los eventos ocupan dos a cuatro bytes. Cada cierto número
+ * de pasos se agrega un control con la huella del campo y el puntaje, que el
+ * reproductor compara para detectar en qué paso se separan las dos ejecuciones.
+ *
+ * Solo debe usarse desde el hilo de simulación.
+ */
+public class GrabadorSesion implements Closeable {
+    static final int MAGICO = 0x50534553; // "PSES"
+    static final int VERSION = 1;
+
+    // Tipos de evento que no son acciones del juego (las acciones usan los códigos de AccionJuego)
+    static final byte FIN = 0;
+    static final byte MOUSE = 20;
+    static final byte SIN_MOUSE = 21;
+    static final byte CONTROL = 22;
+
+    // Pasos entre controles (un segundo a 60 pasos por segundo)
+    static final int PASOS_POR_CONTROL = 60;
+
+    private final DataOutputStream salida;
+    private long pasoActual;
+    private long pasoAnterior;
+    private int mouseX;
+    private int mouseY;
+    private long eventos;
+
+    /**
+     * Constructor para crear un nuevo grabador. Escribe la cabecera.
+     *
+     * @param salida  Flujo donde se graba la sesión; el grabador lo cierra al terminar.
+     * @param semilla Semilla de la partida.
+     * @param ancho   Ancho del campo.
+     * @param alto    Alto del campo.
+     * @throws IOException Si no se pudo escribir.
+     */
+    public GrabadorSesion(OutputStream salida, long semilla, int ancho, int alto) throws IOException {
+        this.salida = new DataOutputStream(new BufferedOutputStream(salida));
+        this.salida.writeInt(MAGICO);
+        this.salida.writeByte(VERSION);
+        this.salida.writeLong(semilla);
+        escribirVariable(ancho);
+        escribirVariable(alto);
+    }
+
+    /**
+     * Indica el paso de simulación en curso, contado desde el inicio de la grabación.
+     *
+     * @param paso Paso actual.
+     */
+    public void setPaso(long paso) {
+        this.pasoActual = paso;
+    }
+
+    /**
+     * Graba una acción aplicada al juego.
+     *
+     * @param accion Código de {@link AccionJuego}.
+     * @param x      Coordenada X (solo para el disparo).
+     * @param y      Coordenada Y (solo para el disparo).
+     * @throws IOException Si no se pudo escribir.
+     */
+    public void grabarAccion(byte accion, int x, int y) throws IOException {
+        comenzarEvento(accion);
+        if (accion == AccionJuego.DISPARO) {
+            // Casi siempre se dispara donde está el cursor
+            escribirVariable(zigzag(x - mouseX));
+            escribirVariable(zigzag(y - mouseY));
+        }
+    }
+
+    /**
+     * Graba un cambio de posición del cursor.
+     *
+     * @param x Nueva posición X.
+     * @param y Nueva posición Y.
+     * @throws IOException Si no se pudo escribir.
+     */
+    public void grabarMouse(int x, int y) throws IOException {
+        comenzarEvento(MOUSE);
+        escribirVariable(zigzag(x - mouseX));
+        escribirVariable(zigzag(y - mouseY));
+        mouseX = x;
+        mouseY = y;
+    }
+
+    /**
+     * Graba que el cursor salió del campo.
+     *
+     * @throws IOException Si no se pudo escribir.
+     */
+    public void grabarSinMouse() throws IOException {
+        comenzarEvento(SIN_MOUSE);
+    }
+
+    /**
+     * Graba un control del estado al final del paso actual.
+     *
+     * @param huella  Huella del campo ({@link Campo#calcularHuella()}).
+     * @param puntaje Puntaje del juego.
+     * @throws IOException Si no se pudo escribir.
+     */
+    public void grabarControl(long huella, int puntaje) throws IOException {
+        comenzarEvento(CONTROL);
+        salida.writeLong(huella);
+        escribirVariable(puntaje);
+    }
+
+    /**
+     * Graba el estado final, al terminar el paso actual, y cierra el flujo.
+     *
+     * @param huella  Huella del campo.
+     * @param puntaje Puntaje del juego.
+     * @throws IOException Si no se pudo escribir.
+     */
+    public void terminar(long huella, int puntaje) throws IOException {
+        try {
+            comenzarEvento(FIN);
+            salida.writeLong(huella);
+            escribirVariable(puntaje);
+        } finally {
+            salida.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        salida.close();
+    }
+
+    /**
+     * Obtiene el número de eventos grabados.
+     *
+     * @return Número de eventos.
+     */
+    public long getEventos() {
+        return eventos;
+    }
+
+    /**
+     * Obtiene los bytes grabados hasta ahora.
+     *
+     * @return Tamaño de la grabación en bytes.
+     */
+    public int getBytes() {
+        return salida.size();
+    }
+
+    private void comenzarEvento(byte tipo) throws IOException {
+        escribirVariable(pasoActual - pasoAnterior);
+        salida.writeByte(tipo);
+        pasoAnterior = pasoActual;
+        eventos++;
+    }
+
+    /**
+     * Escribe un entero no negativo en grupos de 7 bits, el bit alto indica si sigue otro.
+     */
+    private void escribirVariable(long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            salida.writeByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        salida.writeByte((int) valor);
+    }
+
+    /**
+     * Convierte un entero con signo en uno sin signo pequeño si el valor es cercano a cero.
+     */
+    private static long zigzag(int valor) {
+        return ((valor << 1) ^ (valor >> 31)) & 0xFFFFFFFFL;
+    }
+}
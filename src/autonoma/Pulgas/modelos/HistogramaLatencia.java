@@ -0,0 +1,95 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de duraciones para las métricas del juego (ver {@link MetricasJuego}).
+ *
+ * Cada cubeta cubre una potencia de dos de nanosegundos: registrar es sumar uno a un
+ * contador repartido ({@link LongAdder}), sin cerrojos ni objetos nuevos, así que varios
+ * hilos pueden registrar a la vez sin competir. Los percentiles se estiman con el borde
+ * superior de la cubeta, con un error menor al doble del valor real.
+ */
+public class HistogramaLatencia {
+    // Cubeta i: duraciones entre 2^(i-1) y 2^i - 1 nanosegundos; la 0 es para 0 ns
+    private static final int CUBETAS = 64;
+    private static final double NANOS_POR_MILISEGUNDO = 1_000_000.0;
+
+    private final LongAdder[] cubetas = new LongAdder[CUBETAS];
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor para crear un nuevo histograma vacío.
+     */
+    public HistogramaLatencia() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cubetas[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra una duración. No hace nada si las métricas están desactivadas.
+     *
+     * @param nanos Duración en nanosegundos (las negativas cuentan como 0).
+     */
+    public void registrar(long nanos) {
+        if (!MetricasJuego.ACTIVAS) {
+            return;
+        }
+        long valor = Math.max(0, nanos);
+        cubetas[CUBETAS - Long.numberOfLeadingZeros(valor)].increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    /**
+     * Resume las duraciones registradas. Si se registra a la vez, el resumen puede
+     * mezclar muestras de antes y de después, lo que basta para una métrica.
+     *
+     * @return Cantidad, promedio, percentiles 50 y 99 y máximo.
+     */
+    public ResumenLatencia resumir() {
+        long[] cuentas = new long[CUBETAS];
+        long cantidad = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            cuentas[i] = cubetas[i].sum();
+            cantidad += cuentas[i];
+        }
+        long maximoNanos = maximo.get();
+        double promedio = cantidad == 0 ? 0 : suma.sum() / NANOS_POR_MILISEGUNDO / cantidad;
+        return new ResumenLatencia(cantidad, promedio,
+                percentil(cuentas, cantidad, 50, maximoNanos) / NANOS_POR_MILISEGUNDO,
+                percentil(cuentas, cantidad, 99, maximoNanos) / NANOS_POR_MILISEGUNDO,
+                maximoNanos / NANOS_POR_MILISEGUNDO);
+    }
+
+    /**
+     * Vacía el histograma.
+     */
+    public void reiniciar() {
+        for (LongAdder cubeta : cubetas) {
+            cubeta.reset();
+        }
+        suma.reset();
+        maximo.reset();
+    }
+
+    private static long percentil(long[] cuentas, long cantidad, double percentil, long maximoNanos) {
+        if (cantidad == 0) {
+            return 0;
+        }
+        long objetivo = (long) Math.ceil(percentil / 100.0 * cantidad);
+        long acumuladas = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumuladas += cuentas[i];
+            if (acumuladas >= objetivo) {
+                // Borde superior de la cubeta, sin pasar del máximo visto
+                long borde = i == 0 ? 0 : (i == CUBETAS - 1 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(borde, maximoNanos);
+            }
+        }
+        return maximoNanos;
+    }
+}
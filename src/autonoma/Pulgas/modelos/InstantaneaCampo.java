@@ -0,0 +1,306 @@
+package autonoma.Pulgas.modelos;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Copia de las posiciones de las pulgas y del estado del juego en un paso de simulación.
+ * El hilo de simulación la llena y el de dibujo solo la lee, nunca al mismo tiempo
+ * (ver {@link BufferInstantaneas}).
+ * 
+ * Si se llena para una {@link VistaCampo}, solo contiene las pulgas visibles y se
+ * dibuja en coordenadas de pantalla de esa vista; sin vista, contiene todo el campo
+ * y se dibuja en coordenadas del campo.
+ * 
+ * Con la vista muy alejada puede llevar, en lugar de las pulgas, un mapa de densidad
+ * copiado de {@link DensidadCampo}: el número de pulgas de cada zona visible, que se
+ * dibuja como una imagen de colores. Su tamaño depende de la pantalla y no de cuántas
+ * pulgas hay.
+ */
+public class InstantaneaCampo implements VisitantePulgas {
+    // Fracción del área ocupada por pulgas con la que una zona toma el color más intenso
+    private static final double OCUPACION_MAXIMA = 0.5;
+    private static final int AREA_PULGA = 40 * 40;
+    // Colores del mapa, del celeste del fondo del panel (zona vacía) al rojo oscuro
+    private static final int[] PALETA = crearPaleta();
+    
+    private int cantidad;
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private byte[] anchos = new byte[64];
+    private byte[] altos = new byte[64];
+    private byte[] tipos = new byte[64];
+    private long paso;
+    private boolean juegoActivo;
+    private VistaCampo vista;
+    // Mapa de densidad (solo si mapa es true): conteos por zona, fila por fila
+    private boolean mapa;
+    private int tamanoCelda;
+    private int primeraColumna;
+    private int primeraFila;
+    private int columnasMapa;
+    private int filasMapa;
+    private int[] conteos = new int[64];
+    // Imagen del mapa, reutilizada; solo la usa el hilo de dibujo
+    private BufferedImage imagenMapa;
+    private int[] pixelesMapa;
+    
+    /**
+     * Vacía la instantánea y guarda el estado del juego; las pulgas se agregan
+     * después con {@link #visitar}. Reutiliza los arreglos de la copia anterior.
+     * 
+     * @param paso        Paso de simulación al que corresponde la copia.
+     * @param juegoActivo true si el juego está activo.
+     */
+    public void comenzar(long paso, boolean juegoActivo) {
+        comenzar(paso, juegoActivo, null);
+    }
+    
+    /**
+     * Vacía la instantánea para copiar solo la parte del campo que muestra una vista.
+     * 
+     * @param paso        Paso de simulación al que corresponde la copia.
+     * @param juegoActivo true si el juego está activo.
+     * @param vista       Vista con la que se dibujará, o null para el campo completo.
+     */
+    public void comenzar(long paso, boolean juegoActivo, VistaCampo vista) {
+        this.cantidad = 0;
+        this.paso = paso;
+        this.juegoActivo = juegoActivo;
+        this.vista = vista;
+        this.mapa = false;
+    }
+    
+    /**
+     * Copia el mapa de densidad de la parte visible en lugar de las pulgas, con el
+     * nivel de detalle adecuado a la escala de la vista. Debe llamarse después de
+     * {@link #comenzar(long, boolean, VistaCampo)} con una vista.
+     * 
+     * @param densidad Conteos de pulgas por zona del campo.
+     */
+    public void copiarDensidad(DensidadCampo densidad) {
+        int nivel = densidad.nivelPara(vista.getEscala());
+        tamanoCelda = densidad.getTamanoCelda(nivel);
+        primeraColumna = vista.getX() / tamanoCelda;
+        primeraFila = vista.getY() / tamanoCelda;
+        int ultimaColumna = Math.min(densidad.getColumnas(nivel) - 1, (vista.getX() + vista.getAncho() - 1) / tamanoCelda);
+        int ultimaFila = Math.min(densidad.getFilas(nivel) - 1, (vista.getY() + vista.getAlto() - 1) / tamanoCelda);
+        columnasMapa = ultimaColumna - primeraColumna + 1;
+        filasMapa = ultimaFila - primeraFila + 1;
+        if (conteos.length < columnasMapa * filasMapa) {
+            conteos = new int[columnasMapa * filasMapa];
+        }
+        int k = 0;
+        for (int f = primeraFila; f <= ultimaFila; f++) {
+            for (int c = primeraColumna; c <= ultimaColumna; c++) {
+                conteos[k++] = densidad.getConteo(nivel, c, f);
+            }
+        }
+        cantidad = 0;
+        mapa = true;
+    }
+    
+    /**
+     * Agrega una pulga a la instantánea, agrandando los arreglos solo si no alcanzan.
+     * 
+     * @param pulga Pulga a copiar.
+     */
+    @Override
+    public void visitar(Pulga pulga) {
+        if (cantidad == xs.length) {
+            int capacidad = xs.length + (xs.length >> 1);
+            xs = Arrays.copyOf(xs, capacidad);
+            ys = Arrays.copyOf(ys, capacidad);
+            anchos = Arrays.copyOf(anchos, capacidad);
+            altos = Arrays.copyOf(altos, capacidad);
+            tipos = Arrays.copyOf(tipos, capacidad);
+        }
+        xs[cantidad] = pulga.getX();
+        ys[cantidad] = pulga.getY();
+        anchos[cantidad] = (byte) pulga.getAncho();
+        altos[cantidad] = (byte) pulga.getAlto();
+        tipos[cantidad] = pulga.getTipo();
+        cantidad++;
+    }
+    
+    /**
+     * Dibuja las pulgas de la instantánea en el componente gráfico.
+     * 
+     * @param g Contexto gráfico en el que se dibuja.
+     */
+    public void dibujar(Graphics g) {
+        dibujar(g, CacheSprites.getCompartida());
+    }
+    
+    /**
+     * Dibuja las pulgas de la instantánea con las imágenes escaladas de una caché.
+     * 
+     * @param g       Contexto gráfico en el que se dibuja.
+     * @param sprites Caché de imágenes, usada solo desde el hilo que dibuja.
+     */
+    public void dibujar(Graphics g, CacheSprites sprites) {
+        if (mapa) {
+            dibujarMapa(g);
+            return;
+        }
+        if (vista != null) {
+            dibujar(g, sprites, 0, 0, vista.getAnchoPantalla(), vista.getAltoPantalla());
+            return;
+        }
+        for (int i = 0; i < cantidad; i++) {
+            sprites.dibujar(g, tipos[i], xs[i], ys[i], anchos[i], altos[i]);
+        }
+    }
+    
+    /**
+     * Dibuja solo las pulgas que tocan el rectángulo dado. No se limita el área de
+     * dibujo (clip): cada una de esas pulgas se dibuja completa, aunque sobresalga del
+     * rectángulo. Como las pulgas no se superponen, ni en el campo ni en pantalla, lo
+     * que sobresale coincide con lo que ya había fuera del rectángulo, si el llamador
+     * lo tiene al día. El rectángulo está en coordenadas de pantalla de la vista de la
+     * instantánea (o del campo, sin vista). Un mapa de densidad se dibuja siempre completo.
+     * 
+     * @param g       Contexto gráfico en el que se dibuja.
+     * @param sprites Caché de imágenes, usada solo desde el hilo que dibuja.
+     * @param x       Coordenada X del rectángulo.
+     * @param y       Coordenada Y del rectángulo.
+     * @param ancho   Ancho del rectángulo.
+     * @param alto    Alto del rectángulo.
+     */
+    public void dibujar(Graphics g, CacheSprites sprites, int x, int y, int ancho, int alto) {
+        if (mapa) {
+            dibujarMapa(g);
+            return;
+        }
+        if (vista == null) {
+            for (int i = 0; i < cantidad; i++) {
+                if (xs[i] < x + ancho && xs[i] + anchos[i] > x && ys[i] < y + alto && ys[i] + altos[i] > y) {
+                    sprites.dibujar(g, tipos[i], xs[i], ys[i], anchos[i], altos[i]);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < cantidad; i++) {
+            // Los dos bordes se redondean hacia abajo: dos pulgas que no se superponen en
+            // el campo tampoco lo hacen en pantalla, así el orden de dibujo no importa
+            int izquierda = vista.aPantallaX(xs[i]);
+            int derecha = Math.max(izquierda + 1, vista.aPantallaX(xs[i] + anchos[i]));
+            int arriba = vista.aPantallaY(ys[i]);
+            int abajo = Math.max(arriba + 1, vista.aPantallaY(ys[i] + altos[i]));
+            if (izquierda < x + ancho && derecha > x && arriba < y + alto && abajo > y) {
+                sprites.dibujar(g, tipos[i], izquierda, arriba, derecha - izquierda, abajo - arriba);
+            }
+        }
+    }
+    
+    /**
+     * Dibuja el mapa de densidad: pasa cada conteo a un color en una imagen de una
+     * celda por píxel y la dibuja estirada sobre la parte visible del campo.
+     */
+    private void dibujarMapa(Graphics g) {
+        if (imagenMapa == null || imagenMapa.getWidth() < columnasMapa || imagenMapa.getHeight() < filasMapa) {
+            int ancho = Math.max(columnasMapa, imagenMapa == null ? 0 : imagenMapa.getWidth());
+            int alto = Math.max(filasMapa, imagenMapa == null ? 0 : imagenMapa.getHeight());
+            imagenMapa = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+            pixelesMapa = new int[ancho * alto];
+        }
+        // Índice de la paleta por pulga: la paleta se recorre hasta la ocupación máxima
+        double indicePorPulga = (PALETA.length - 1) * (double) AREA_PULGA
+                / ((double) tamanoCelda * tamanoCelda * OCUPACION_MAXIMA);
+        int total = columnasMapa * filasMapa;
+        for (int i = 0; i < total; i++) {
+            int conteo = conteos[i];
+            // Una zona con alguna pulga nunca se confunde con una vacía
+            int indice = conteo == 0 ? 0 : Math.min(PALETA.length - 1, Math.max(1, (int) (conteo * indicePorPulga)));
+            pixelesMapa[i] = PALETA[indice];
+        }
+        imagenMapa.getRaster().setDataElements(0, 0, columnasMapa, filasMapa, pixelesMapa);
+        
+        int izquierda = vista.aPantallaX(primeraColumna * tamanoCelda);
+        int arriba = vista.aPantallaY(primeraFila * tamanoCelda);
+        int derecha = vista.aPantallaX((primeraColumna + columnasMapa) * tamanoCelda);
+        int abajo = vista.aPantallaY((primeraFila + filasMapa) * tamanoCelda);
+        g.drawImage(imagenMapa, izquierda, arriba, derecha, abajo, 0, 0, columnasMapa, filasMapa, null);
+    }
+    
+    /**
+     * Crea la paleta del mapa: celeste, amarillo, rojo y rojo oscuro, interpolados.
+     */
+    private static int[] crearPaleta() {
+        int[][] colores = {{220, 240, 255}, {255, 225, 120}, {225, 70, 30}, {100, 0, 0}};
+        int[] paleta = new int[256];
+        for (int i = 0; i < paleta.length; i++) {
+            double posicion = i * (colores.length - 1) / (double) (paleta.length - 1);
+            int tramo = Math.min(colores.length - 2, (int) posicion);
+            double t = posicion - tramo;
+            int color = 0;
+            for (int canal = 0; canal < 3; canal++) {
+                int valor = (int) Math.round(colores[tramo][canal] * (1 - t) + colores[tramo + 1][canal] * t);
+                color = (color << 8) | valor;
+            }
+            paleta[i] = color;
+        }
+        return paleta;
+    }
+    
+    // Getters
+    public int getCantidad() {
+        return cantidad;
+    }
+    
+    public int getX(int indice) {
+        return xs[indice];
+    }
+    
+    public int getY(int indice) {
+        return ys[indice];
+    }
+    
+    public int getAncho(int indice) {
+        return anchos[indice];
+    }
+    
+    public int getAlto(int indice) {
+        return altos[indice];
+    }
+    
+    public byte getTipo(int indice) {
+        return tipos[indice];
+    }
+    
+    public long getPaso() {
+        return paso;
+    }
+    
+    public boolean esJuegoActivo() {
+        return juegoActivo;
+    }
+    
+    /**
+     * Indica si la instantánea lleva el mapa de densidad en lugar de las pulgas.
+     * 
+     * @return true si es un mapa de densidad.
+     */
+    public boolean esMapaDensidad() {
+        return mapa;
+    }
+    
+    /**
+     * Obtiene el número de zonas del mapa de densidad.
+     * 
+     * @return Zonas copiadas, o 0 si la instantánea lleva pulgas.
+     */
+    public int getZonasMapa() {
+        return mapa ? columnasMapa * filasMapa : 0;
+    }
+    
+    /**
+     * Obtiene la vista para la que se copió la instantánea.
+     * 
+     * @return Vista, o null si contiene el campo completo.
+     */
+    public VistaCampo getVista() {
+        return vista;
+    }
+}
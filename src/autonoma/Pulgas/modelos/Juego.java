@@ -1,5 +1,9 @@
 package autonoma.Pulgas.modelos;
 
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Clase que controla la lógica del juego.,
  */
@@ -7,26 +11,67 @@ public class Juego {
     private Campo campo;
     private Pulguipium pistola;
     private Pulgoson misil;
-    private int puntaje;
-    private int maxPuntaje;
-    private boolean juegoActivo;
+    private final FuenteAleatoria aleatorio;
+    // Se escriben en el hilo de simulación y se leen desde la interfaz
+    private volatile int puntaje;
+    private volatile int maxPuntaje;
+    private volatile boolean juegoActivo;
     private PersistenciaScore persistencia;
     private GeneradorPulgas generador;
+    private final CopyOnWriteArrayList<OyenteJuego> oyentes = new CopyOnWriteArrayList<>();
+    // Datos de la partida en curso, para guardarla al terminar
+    private volatile long inicioPartida;
+    private final AtomicInteger pulgasNormales = new AtomicInteger();
+    private final AtomicInteger pulgasMutantes = new AtomicInteger();
+    // Si es false, las pulgas solo llegan por acciones (por ejemplo, al reproducir una sesión)
+    private volatile boolean generacionAutomatica = true;
     
-    // Dimensiones del campo
+    // Dimensiones por defecto del campo
     private static final int ANCHO_CAMPO = 800;
     private static final int ALTO_CAMPO = 600;
+    // Lado mínimo del campo, para que quepa la pulga más grande con margen
+    private static final int LADO_MINIMO_CAMPO = 100;
     
     /**
      * Constructor para crear un nuevo juego.
      */
     public Juego() {
-        campo = new Campo(ANCHO_CAMPO, ALTO_CAMPO); // Dimensiones del campo..
+        this(new PersistenciaScore("puntajes.dat"));
+    }
+    
+    /**
+     * Constructor para crear un nuevo juego con otra persistencia de puntajes.
+     * 
+     * @param persistencia Persistencia de las partidas, o null para no guardarlas.
+     */
+    public Juego(PersistenciaScore persistencia) {
+        this(persistencia, ANCHO_CAMPO, ALTO_CAMPO);
+    }
+    
+    /**
+     * Constructor para crear un nuevo juego con un campo de otro tamaño. El campo puede
+     * ser mucho más grande que la pantalla: la interfaz muestra solo una parte de él.
+     * 
+     * @param persistencia Persistencia de las partidas, o null para no guardarlas.
+     * @param anchoCampo   Ancho del campo en píxeles.
+     * @param altoCampo    Alto del campo en píxeles.
+     */
+    public Juego(PersistenciaScore persistencia, int anchoCampo, int altoCampo) {
+        if (anchoCampo < LADO_MINIMO_CAMPO || altoCampo < LADO_MINIMO_CAMPO) {
+            throw new IllegalArgumentException("El campo debe medir al menos " + LADO_MINIMO_CAMPO
+                    + " píxeles por lado: " + anchoCampo + "x" + altoCampo);
+        }
+        // El campo y el misil usan fuentes hijas de la del juego, que se siembran juntas
+        aleatorio = new FuenteAleatoria();
+        campo = new Campo(anchoCampo, altoCampo, aleatorio.derivar(1)); // Dimensiones del campo..
         pistola = new Pulguipium();
-        misil = new Pulgoson();
+        misil = new Pulgoson(aleatorio.derivar(2));
         puntaje = 0;
-        persistencia = new PersistenciaScore("max_puntaje.txt");
-        maxPuntaje = persistencia.cargarMaxPuntaje();
+        // El archivo se lee en segundo plano; el máximo se actualiza cuando esté listo
+        this.persistencia = persistencia;
+        if (persistencia != null) {
+            persistencia.getCarga().thenAccept(this::maxPuntajeCargado);
+        }
         juegoActivo = false;
         generador = new GeneradorPulgas(this);
     }
@@ -35,10 +80,15 @@ public class Juego {
      * Inicia el juego.
      */
     public void iniciar() {
+        inicioPartida = System.nanoTime();
+        pulgasNormales.set(0);
+        pulgasMutantes.set(0);
         juegoActivo = true;
         
         // Iniciar el generador de pulgas
-        generador.iniciar();
+        if (generacionAutomatica) {
+            generador.iniciar();
+        }
     }
     
     /**
@@ -56,8 +106,12 @@ public class Juego {
         // Reiniciar puntaje
         puntaje = 0;
         
-        // Recargar el máximo puntaje
-        maxPuntaje = persistencia.cargarMaxPuntaje();
+        // Recargar el máximo puntaje sin esperar al disco: si la tabla aún se está
+        // abriendo, el máximo sube cuando termine (ver maxPuntajeCargado)
+        if (persistencia != null) {
+            subirMaxPuntaje(persistencia.getMaxPuntaje());
+        }
+        notificarPuntaje();
         
         // Volver a iniciar
         iniciar();
@@ -73,10 +127,17 @@ public class Juego {
             generador.detener();
         }
         
-        // Actualizar máximo puntaje si es necesario
-        if (puntaje > maxPuntaje) {
-            maxPuntaje = puntaje;
-            persistencia.guardarMaxPuntaje(maxPuntaje);
+        // Guardar la partida en la tabla de puntajes (en segundo plano)
+        int puntajeFinal = puntaje;
+        if (persistencia != null) {
+            persistencia.registrarPartida(new RegistroPartida(puntajeFinal,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioPartida),
+                    pulgasNormales.get(), pulgasMutantes.get(), System.currentTimeMillis()));
+        }
+        subirMaxPuntaje(puntajeFinal);
+        
+        for (OyenteJuego oyente : oyentes) {
+            oyente.juegoTerminado(puntaje, maxPuntaje);
         }
     }
     
@@ -89,7 +150,7 @@ public class Juego {
     public void dispararPistola(int x, int y) {
         if (!juegoActivo) return;
         
-        int pulgasEliminadas = pistola.atacar(campo.getPulgas(), x, y);
+        int pulgasEliminadas = pistola.atacar(campo, x, y);
         actualizarPuntaje(pulgasEliminadas);
         
         // Verificar si se acabaron las pulgas
@@ -102,7 +163,7 @@ public class Juego {
     public void dispararMisil() {
         if (!juegoActivo) return;
         
-        int pulgasEliminadas = misil.atacar(campo.getPulgas(), 0, 0);
+        int pulgasEliminadas = misil.atacar(campo, 0, 0);
         actualizarPuntaje(pulgasEliminadas);
         
         // Verificar si se acabaron las pulgas
@@ -119,7 +180,11 @@ public class Juego {
             iniciar(); // Iniciar el juego si está inactivo
         }
         
-        return campo.agregarPulgaNormal();
+        boolean agregada = campo.agregarPulgaNormal();
+        if (agregada) {
+            pulgasNormales.incrementAndGet();
+        }
+        return agregada;
     }
     
     /**
@@ -132,7 +197,11 @@ public class Juego {
             iniciar(); // Iniciar el juego si está inactivo
         }
         
-        return campo.agregarPulgaMutante();
+        boolean agregada = campo.agregarPulgaMutante();
+        if (agregada) {
+            pulgasMutantes.incrementAndGet();
+        }
+        return agregada;
     }
     
     /**
@@ -159,7 +228,63 @@ public class Juego {
      * @param puntos Puntos a añadir.
      */
     public void actualizarPuntaje(int puntos) {
+        if (puntos == 0) {
+            return;
+        }
         puntaje += puntos;
+        notificarPuntaje();
+    }
+    
+    /**
+     * Registra un oyente de los cambios del juego.
+     * 
+     * @param oyente Oyente a registrar.
+     */
+    public void agregarOyente(OyenteJuego oyente) {
+        oyentes.add(oyente);
+    }
+    
+    /**
+     * Quita un oyente registrado.
+     * 
+     * @param oyente Oyente a quitar.
+     */
+    public void quitarOyente(OyenteJuego oyente) {
+        oyentes.remove(oyente);
+    }
+    
+    /**
+     * Sube el puntaje máximo si el valor dado es mayor.
+     * 
+     * @param valor Puntaje a comparar.
+     * @return true si el máximo cambió.
+     */
+    private synchronized boolean subirMaxPuntaje(int valor) {
+        if (valor <= maxPuntaje) {
+            return false;
+        }
+        maxPuntaje = valor;
+        return true;
+    }
+    
+    /**
+     * Recibe el máximo leído del archivo, en el hilo de persistencia.
+     * 
+     * @param valor Puntaje máximo guardado.
+     */
+    private void maxPuntajeCargado(int valor) {
+        if (subirMaxPuntaje(valor)) {
+            notificarPuntaje();
+        }
+    }
+    
+    /**
+     * Avisa a los oyentes del puntaje y el puntaje máximo actuales.
+     */
+    private void notificarPuntaje() {
+        for (OyenteJuego oyente : oyentes) {
+            oyente.puntajeCambiado(puntaje, maxPuntaje);
+        }
     }
     
     /**
@@ -189,6 +314,55 @@ public class Juego {
         return juegoActivo;
     }
     
+    /**
+     * Fija las semillas de todo lo aleatorio del juego (posiciones y misil), para que
+     * una misma secuencia de acciones dé siempre el mismo resultado.
+     * 
+     * @param semilla Semilla de la partida.
+     */
+    public void sembrar(long semilla) {
+        aleatorio.sembrar(semilla);
+    }
+    
+    /**
+     * Obtiene la fuente de números aleatorios del juego.
+     * 
+     * @return Fuente raíz del campo y del misil.
+     */
+    public FuenteAleatoria getAleatorio() {
+        return aleatorio;
+    }
+    
+    /**
+     * Activa o desactiva el generador automático de pulgas al iniciar el juego.
+     * 
+     * @param generacionAutomatica false para que las pulgas solo lleguen por acciones.
+     */
+    public void setGeneracionAutomatica(boolean generacionAutomatica) {
+        this.generacionAutomatica = generacionAutomatica;
+        if (!generacionAutomatica) {
+            generador.detener();
+        }
+    }
+    
+    /**
+     * Obtiene la persistencia de las partidas, para consultar la tabla de puntajes.
+     * 
+     * @return Persistencia de puntajes.
+     */
+    public PersistenciaScore getPersistencia() {
+        return persistencia;
+    }
+    
+    /**
+     * Obtiene el generador de pulgas, para ajustar sus intervalos.
+     * 
+     * @return Generador de pulgas.
+     */
+    public GeneradorPulgas getGenerador() {
+        return generador;
+    }
+    
     /**
      * Obtiene el campo de batalla.
      * 
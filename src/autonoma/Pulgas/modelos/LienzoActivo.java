@@ -0,0 +1,202 @@
+package autonoma.Pulgas.modelos;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Área de juego con dibujo activo, alternativa a {@link PanelJuego}.
+ *
+ * En lugar de pedir repintados a Swing, un hilo de dibujo propio dibuja cada cuadro
+ * completo en un {@link BufferStrategy} y lo muestra a un ritmo fijo de cuadros por
+ * segundo, así la latencia de cada cuadro no depende de cómo Swing agrupe los
+ * repintados. Registra el tiempo de cada cuadro en {@link EstadisticasCuadros}.
+ * Solo lee la última instantánea publicada por el hilo de simulación, que ya trae
+ * solo la parte del campo que indica su {@link ControlVista}.
+ */
+public class LienzoActivo extends Canvas implements Runnable {
+    private static final long serialVersionUID = 1L;
+    private static final int CUADROS_POR_SEGUNDO = 60;
+    private static final long NANOS_POR_SEGUNDO = 1_000_000_000L;
+    // Margen antes del plazo en el que se deja de dormir y se espera activamente
+    private static final long MARGEN_ESPERA_ACTIVA = 500_000L;
+    private static final Color COLOR_FONDO = new Color(220, 240, 255); // Color celeste claro
+
+    private final SimulacionJuego simulacion;
+    private final EstadisticasCuadros estadisticas = new EstadisticasCuadros();
+    private final CacheSprites sprites = new CacheSprites();
+    private final MensajeInicio mensajeInicio = new MensajeInicio();
+    private final ControlVista control;
+    private volatile int cuadrosPorSegundo = CUADROS_POR_SEGUNDO;
+    private volatile boolean activo;
+    private Thread hilo;
+
+    /**
+     * Constructor para crear una nueva área de juego con dibujo activo.
+     *
+     * @param simulacion Simulación del juego a mostrar.
+     */
+    public LienzoActivo(SimulacionJuego simulacion) {
+        this.simulacion = simulacion;
+        Campo campo = simulacion.getJuego().getCampo();
+        int ancho = Math.min(800, campo.getAnchoCampo());
+        int alto = Math.min(600, campo.getAltoCampo());
+        setPreferredSize(new Dimension(ancho, alto));
+        setBackground(COLOR_FONDO);
+        // El hilo de dibujo pinta todo; AWT no debe borrar ni repintar por su cuenta
+        setIgnoreRepaint(true);
+        setFocusable(true);
+        // El control envía el cursor a la simulación y maneja el desplazamiento y la escala
+        control = new ControlVista(this, simulacion, ancho, alto);
+    }
+
+    /**
+     * Inicia el hilo de dibujo. El lienzo debe estar ya visible en la ventana.
+     */
+    public synchronized void iniciar() {
+        if (activo) {
+            return;
+        }
+        createBufferStrategy(2);
+        activo = true;
+        hilo = new Thread(this, "dibujo-activo");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Detiene el hilo de dibujo y espera a que termine el cuadro en curso.
+     */
+    public void detener() {
+        Thread actual;
+        synchronized (this) {
+            activo = false;
+            actual = hilo;
+            hilo = null;
+        }
+        if (actual != null && actual != Thread.currentThread()) {
+            LockSupport.unpark(actual);
+            try {
+                actual.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Ciclo del hilo de dibujo: dibuja un cuadro y espera hasta el plazo del siguiente.
+     * Si un cuadro se atrasa más de un periodo no intenta recuperarlo: se resincroniza.
+     */
+    @Override
+    public void run() {
+        long siguienteCuadro = System.nanoTime();
+        long anterior = siguienteCuadro;
+
+        while (activo) {
+            int tasa = cuadrosPorSegundo;
+            long periodo = tasa > 0 ? NANOS_POR_SEGUNDO / tasa : 0;
+            esperarHasta(siguienteCuadro);
+            if (!activo) {
+                break;
+            }
+
+            long inicio = System.nanoTime();
+            boolean atrasado = periodo > 0 && inicio - siguienteCuadro > periodo;
+            dibujarCuadro();
+            long fin = System.nanoTime();
+            estadisticas.registrar(inicio - anterior, fin - inicio, atrasado);
+            MetricasJuego.getGlobal().cuadros.registrar(fin - inicio);
+            anterior = inicio;
+
+            siguienteCuadro += periodo;
+            if (fin - siguienteCuadro > periodo) {
+                siguienteCuadro = fin;
+            }
+        }
+    }
+
+    /**
+     * Dibuja y muestra un cuadro completo, repitiendo si el contenido del búfer se pierde.
+     */
+    private void dibujarCuadro() {
+        BufferStrategy estrategia = getBufferStrategy();
+        if (estrategia == null || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        control.setPantalla(getWidth(), getHeight());
+        InstantaneaCampo instantanea = simulacion.getInstantanea();
+        do {
+            do {
+                Graphics g = estrategia.getDrawGraphics();
+                try {
+                    g.setColor(COLOR_FONDO);
+                    g.fillRect(0, 0, getWidth(), getHeight());
+                    instantanea.dibujar(g, sprites);
+                    if (!instantanea.esJuegoActivo()) {
+                        mensajeInicio.dibujar(g, getWidth(), getHeight());
+                    }
+                } finally {
+                    g.dispose();
+                }
+            } while (estrategia.contentsRestored());
+            estrategia.show();
+        } while (estrategia.contentsLost());
+        // Enviar el cuadro a la pantalla ya, sin esperar a que el sistema de ventanas lo vacíe
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * Duerme hasta poco antes del plazo y espera activamente el resto, porque dormir
+     * tiene una precisión de décimas de milisegundo.
+     */
+    private void esperarHasta(long plazo) {
+        long restante;
+        while (activo && (restante = plazo - System.nanoTime()) > 0) {
+            if (restante > MARGEN_ESPERA_ACTIVA) {
+                LockSupport.parkNanos(restante - MARGEN_ESPERA_ACTIVA);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Cambia los cuadros por segundo objetivo.
+     *
+     * @param cuadrosPorSegundo Cuadros por segundo, o 0 para dibujar sin pausa
+     *                          (el ritmo lo marca entonces la presentación del búfer).
+     */
+    public void setCuadrosPorSegundo(int cuadrosPorSegundo) {
+        if (cuadrosPorSegundo < 0) {
+            throw new IllegalArgumentException("Los cuadros por segundo no pueden ser negativos: " + cuadrosPorSegundo);
+        }
+        this.cuadrosPorSegundo = cuadrosPorSegundo;
+    }
+
+    public int getCuadrosPorSegundo() {
+        return cuadrosPorSegundo;
+    }
+
+    /**
+     * Obtiene las estadísticas de tiempo de los cuadros.
+     *
+     * @return Estadísticas de cuadros.
+     */
+    public EstadisticasCuadros getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Obtiene el control de la vista, para pasar posiciones del área a coordenadas del campo.
+     *
+     * @return Control de la vista del área de juego.
+     */
+    public ControlVista getControlVista() {
+        return control;
+    }
+}
@@ -0,0 +1,67 @@
+package autonoma.Pulgas.modelos;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+
+/**
+ * Mensaje de inicio que se dibuja sobre el campo cuando el juego no está activo.
+ *
+ * Los colores, fuentes y textos se crean una sola vez, y el ancho de cada texto se
+ * mide la primera vez que se dibuja, así dibujar el mensaje no genera basura. Las
+ * medidas dependen del dispositivo (por ejemplo, de su escala), por lo que se vuelven
+ * a tomar si el destino cambia de configuración, igual que en {@link CacheSprites}.
+ *
+ * No es seguro para hilos: cada componente que dibuja tiene el suyo y lo usa solo
+ * desde el hilo que dibuja.
+ */
+class MensajeInicio {
+    private static final Color COLOR_VELO = new Color(0, 0, 0, 150); // Negro semitransparente
+    private static final Font FUENTE_TITULO = new Font("Arial", Font.BOLD, 30);
+    private static final Font FUENTE_INSTRUCCIONES = new Font("Arial", Font.PLAIN, 18);
+    private static final String MENSAJE = "¡Simulador Antipulgas!";
+    private static final String INSTRUCCIONES = "Presiona 'p' para agregar pulgas o 'Reiniciar' para comenzar";
+
+    // Configuración del destino con la que se midieron los textos
+    private GraphicsConfiguration configuracion;
+    private int anchoMensaje = -1;
+    private int anchoInstrucciones = -1;
+
+    /**
+     * Dibuja el mensaje centrado sobre un velo que oscurece el área de juego.
+     *
+     * @param g     Contexto gráfico en el que se dibuja.
+     * @param ancho Ancho del área de juego.
+     * @param alto  Alto del área de juego.
+     */
+    void dibujar(Graphics g, int ancho, int alto) {
+        GraphicsConfiguration actual = g instanceof Graphics2D
+                ? ((Graphics2D) g).getDeviceConfiguration() : null;
+        if (actual != configuracion) {
+            // Otro dispositivo: las medidas anteriores pueden no valer
+            anchoMensaje = -1;
+            anchoInstrucciones = -1;
+            configuracion = actual;
+        }
+
+        g.setColor(COLOR_VELO);
+        g.fillRect(0, 0, ancho, alto);
+
+        g.setColor(Color.WHITE);
+        g.setFont(FUENTE_TITULO);
+        if (anchoMensaje < 0) {
+            anchoMensaje = g.getFontMetrics().stringWidth(MENSAJE);
+        }
+        // Centrar el texto
+        g.drawString(MENSAJE, (ancho - anchoMensaje) / 2, alto / 2 - 20);
+
+        // Añadir instrucciones
+        g.setFont(FUENTE_INSTRUCCIONES);
+        if (anchoInstrucciones < 0) {
+            anchoInstrucciones = g.getFontMetrics().stringWidth(INSTRUCCIONES);
+        }
+        g.drawString(INSTRUCCIONES, (ancho - anchoInstrucciones) / 2, alto / 2 + 20);
+    }
+}
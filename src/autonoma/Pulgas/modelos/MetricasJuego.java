@@ -0,0 +1,176 @@
+package autonoma.Pulgas.modelos;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métricas de los caminos críticos del juego, visibles por JMX: verificaciones de
+ * colisión, intentos de aparición, tiempo de las armas y de los saltos, tiempo de
+ * cada cuadro y retraso del generador de pulgas.
+ *
+ * Hay una sola instancia por proceso ({@link #getGlobal()}), que las clases del juego
+ * actualizan directamente. Se cuenta con contadores repartidos ({@link LongAdder}) y
+ * {@link HistogramaLatencia}: cada hilo suma en su propia celda cuando hay competencia,
+ * así que dejarlas activas no frena los caminos que miden. Con la propiedad del sistema
+ * {@code -Dpulgas.metricas=false} no se registra nada.
+ */
+public class MetricasJuego implements MetricasJuegoMXBean {
+    // Nombre con el que se registra en el servidor de MBeans de la plataforma
+    public static final String NOMBRE = "autonoma.Pulgas:type=MetricasJuego";
+    // Constante para que el compilador JIT elimine el registro si están desactivadas
+    static final boolean ACTIVAS = Boolean.parseBoolean(System.getProperty("pulgas.metricas", "true"));
+
+    private static final MetricasJuego GLOBAL = new MetricasJuego();
+    private static boolean registrada;
+
+    private final LongAdder verificacionesColision = new LongAdder();
+    private final LongAdder operacionesColision = new LongAdder();
+    private final LongAdder intentosAparicion = new LongAdder();
+    private final LongAdder fallosAparicion = new LongAdder();
+    final HistogramaLatencia disparos = new HistogramaLatencia();
+    final HistogramaLatencia misiles = new HistogramaLatencia();
+    final HistogramaLatencia saltos = new HistogramaLatencia();
+    final HistogramaLatencia cuadros = new HistogramaLatencia();
+    final HistogramaLatencia retrasoGenerador = new HistogramaLatencia();
+
+    private MetricasJuego() {
+    }
+
+    /**
+     * Obtiene las métricas del proceso.
+     *
+     * @return Instancia única.
+     */
+    public static MetricasJuego getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * Registra las métricas en el servidor de MBeans de la plataforma, si no lo estaban.
+     *
+     * @throws IllegalStateException Si JMX rechaza el registro.
+     */
+    public static synchronized void registrar() {
+        if (registrada) {
+            return;
+        }
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(NOMBRE);
+            if (!servidor.isRegistered(nombre)) {
+                servidor.registerMBean(GLOBAL, nombre);
+            }
+            registrada = true;
+        } catch (JMException e) {
+            throw new IllegalStateException("No se pudieron registrar las métricas en JMX", e);
+        }
+    }
+
+    /**
+     * Cuenta las verificaciones de colisión de una operación (agregar, mover o hacer
+     * saltar pulgas). Se suman una vez por operación y no en cada verificación, que
+     * es demasiado frecuente para tocar un contador compartido.
+     *
+     * @param verificaciones Verificaciones hechas por la operación.
+     */
+    void contarColisiones(int verificaciones) {
+        if (ACTIVAS) {
+            operacionesColision.increment();
+            verificacionesColision.add(verificaciones);
+        }
+    }
+
+    /**
+     * Cuenta los intentos de agregar una pulga, que es también una operación con
+     * verificaciones de colisión.
+     *
+     * @param intentos       Posiciones probadas.
+     * @param verificaciones Verificaciones de colisión hechas.
+     * @param agregada       true si la pulga se agregó.
+     */
+    void contarAparicion(int intentos, int verificaciones, boolean agregada) {
+        if (ACTIVAS) {
+            intentosAparicion.add(intentos);
+            if (!agregada) {
+                fallosAparicion.increment();
+            }
+            contarColisiones(verificaciones);
+        }
+    }
+
+    @Override
+    public long getVerificacionesColision() {
+        return verificacionesColision.sum();
+    }
+
+    @Override
+    public long getOperacionesColision() {
+        return operacionesColision.sum();
+    }
+
+    @Override
+    public double getVerificacionesPorOperacion() {
+        long operaciones = operacionesColision.sum();
+        return operaciones == 0 ? 0 : (double) verificacionesColision.sum() / operaciones;
+    }
+
+    @Override
+    public long getIntentosAparicion() {
+        return intentosAparicion.sum();
+    }
+
+    @Override
+    public long getFallosAparicion() {
+        return fallosAparicion.sum();
+    }
+
+    @Override
+    public ResumenLatencia getDisparos() {
+        return disparos.resumir();
+    }
+
+    @Override
+    public ResumenLatencia getMisiles() {
+        return misiles.resumir();
+    }
+
+    @Override
+    public ResumenLatencia getSaltos() {
+        return saltos.resumir();
+    }
+
+    @Override
+    public ResumenLatencia getCuadros() {
+        return cuadros.resumir();
+    }
+
+    @Override
+    public ResumenLatencia getRetrasoGenerador() {
+        return retrasoGenerador.resumir();
+    }
+
+    @Override
+    public void reiniciar() {
+        verificacionesColision.reset();
+        operacionesColision.reset();
+        intentosAparicion.reset();
+        fallosAparicion.reset();
+        disparos.reiniciar();
+        misiles.reiniciar();
+        saltos.reiniciar();
+        cuadros.reiniciar();
+        retrasoGenerador.reiniciar();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("colisiones %d (%.1f por operación), aparición %d intentos y %d fallos%n"
+                + "disparos %s%nmisiles %s%nsaltos %s%ncuadros %s%nretraso del generador %s",
+                getVerificacionesColision(), getVerificacionesPorOperacion(), getIntentosAparicion(),
+                getFallosAparicion(), getDisparos(), getMisiles(), getSaltos(), getCuadros(),
+                getRetrasoGenerador());
+    }
+}
@@ -0,0 +1,86 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Interfaz de gestión de {@link MetricasJuego}: lo que se ve por JMX (por ejemplo,
+ * con JConsole o VisualVM) bajo el nombre {@link MetricasJuego#NOMBRE}.
+ */
+public interface MetricasJuegoMXBean {
+
+    /**
+     * Obtiene cuántas veces se verificó si un lugar choca con alguna pulga al agregar,
+     * mover o hacer saltar pulgas.
+     *
+     * @return Verificaciones de colisión.
+     */
+    long getVerificacionesColision();
+
+    /**
+     * Obtiene cuántas operaciones verificaron colisiones (cada pulga agregada o movida,
+     * cada cuadro de evasión, cada franja de un salto y cada colocación masiva).
+     *
+     * @return Operaciones con verificaciones de colisión.
+     */
+    long getOperacionesColision();
+
+    /**
+     * Obtiene las verificaciones de colisión en promedio por operación.
+     *
+     * @return Verificaciones por operación.
+     */
+    double getVerificacionesPorOperacion();
+
+    /**
+     * Obtiene las posiciones probadas al agregar pulgas de a una (cada búsqueda en el
+     * índice de lugares libres cuenta como un intento).
+     *
+     * @return Intentos de aparición.
+     */
+    long getIntentosAparicion();
+
+    /**
+     * Obtiene las pulgas que no se pudieron agregar por falta de lugar.
+     *
+     * @return Apariciones fallidas.
+     */
+    long getFallosAparicion();
+
+    /**
+     * Obtiene el tiempo de resolución de los disparos de la pistola Pulguipium.
+     *
+     * @return Resumen de duraciones.
+     */
+    ResumenLatencia getDisparos();
+
+    /**
+     * Obtiene el tiempo de resolución de los misiles Pulgoson.
+     *
+     * @return Resumen de duraciones.
+     */
+    ResumenLatencia getMisiles();
+
+    /**
+     * Obtiene la duración de cada salto de todas las pulgas.
+     *
+     * @return Resumen de duraciones.
+     */
+    ResumenLatencia getSaltos();
+
+    /**
+     * Obtiene el tiempo de preparar cada cuadro en pantalla.
+     *
+     * @return Resumen de duraciones.
+     */
+    ResumenLatencia getCuadros();
+
+    /**
+     * Obtiene el retraso del generador: cuánto después de su plazo se generó cada pulga.
+     *
+     * @return Resumen de retrasos.
+     */
+    ResumenLatencia getRetrasoGenerador();
+
+    /**
+     * Pone todos los contadores e histogramas en cero.
+     */
+    void reiniciar();
+}
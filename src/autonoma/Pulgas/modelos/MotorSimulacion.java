@@ -0,0 +1,185 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Motor de simulación de paso fijo, independiente de Swing.
+ * Avanza un sistema de simulación a una tasa fija de pasos por segundo o
+ * tan rápido como sea posible, y mide los pasos por segundo alcanzados.
+ */
+public class MotorSimulacion implements Runnable {
+    // Máximo de pasos atrasados que se recuperan de una vez antes de resincronizar
+    private static final int MAX_PASOS_RECUPERACION = 5;
+    private static final long NANOS_POR_SEGUNDO = 1_000_000_000L;
+    
+    private final SistemaSimulacion sistema;
+    private final int pasosPorSegundo;
+    private volatile boolean tiempoReal;
+    private volatile boolean activo;
+    private volatile long pasos;
+    private volatile double pasosPorSegundoMedidos;
+    private Thread hilo;
+    
+    // Ventana de medición de pasos por segundo
+    private long inicioVentana;
+    private long pasosVentana;
+    
+    /**
+     * Constructor para crear un nuevo motor de simulación.
+     * 
+     * @param sistema         Lógica que se avanza en cada paso.
+     * @param pasosPorSegundo Pasos de simulación que equivalen a un segundo simulado.
+     * @param tiempoReal      true para respetar el reloj, false para avanzar lo más rápido posible.
+     */
+    public MotorSimulacion(SistemaSimulacion sistema, int pasosPorSegundo, boolean tiempoReal) {
+        if (pasosPorSegundo <= 0) {
+            throw new IllegalArgumentException("Los pasos por segundo deben ser positivos: " + pasosPorSegundo);
+        }
+        this.sistema = sistema;
+        this.pasosPorSegundo = pasosPorSegundo;
+        this.tiempoReal = tiempoReal;
+    }
+    
+    /**
+     * Inicia el motor en un hilo propio.
+     */
+    public synchronized void iniciar() {
+        if (activo) {
+            return;
+        }
+        activo = true;
+        hilo = new Thread(this, "motor-simulacion");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+    
+    /**
+     * Detiene el motor y espera a que termine el paso en curso.
+     */
+    public void detener() {
+        Thread actual;
+        synchronized (this) {
+            activo = false;
+            actual = hilo;
+            hilo = null;
+        }
+        if (actual != null && actual != Thread.currentThread()) {
+            LockSupport.unpark(actual);
+            try {
+                actual.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Ejecuta un número fijo de pasos en el hilo que llama.
+     * 
+     * @param numeroPasos Pasos a ejecutar.
+     */
+    public void ejecutar(long numeroPasos) {
+        activo = true;
+        ciclo(pasos + numeroPasos);
+        activo = false;
+    }
+    
+    /**
+     * Ciclo principal del hilo del motor.
+     */
+    @Override
+    public void run() {
+        ciclo(Long.MAX_VALUE);
+    }
+    
+    private void ciclo(long pasoFinal) {
+        long periodo = NANOS_POR_SEGUNDO / pasosPorSegundo;
+        long siguientePaso = System.nanoTime();
+        inicioVentana = siguientePaso;
+        pasosVentana = 0;
+        
+        while (activo && pasos < pasoFinal) {
+            if (!tiempoReal) {
+                avanzar();
+                continue;
+            }
+            
+            long ahora = System.nanoTime();
+            if (ahora < siguientePaso) {
+                LockSupport.parkNanos(siguientePaso - ahora);
+                continue;
+            }
+            
+            // Recuperar los pasos atrasados sin entrar en una espiral de retraso
+            int recuperados = 0;
+            while (ahora >= siguientePaso && recuperados < MAX_PASOS_RECUPERACION
+                    && activo && pasos < pasoFinal) {
+                avanzar();
+                siguientePaso += periodo;
+                recuperados++;
+            }
+            if (ahora >= siguientePaso) {
+                siguientePaso = ahora + periodo;
+            }
+        }
+    }
+    
+    private void avanzar() {
+        sistema.actualizar(pasos);
+        pasos++;
+        pasosVentana++;
+        
+        long ahora = System.nanoTime();
+        long transcurrido = ahora - inicioVentana;
+        if (transcurrido >= NANOS_POR_SEGUNDO) {
+            pasosPorSegundoMedidos = pasosVentana * (double) NANOS_POR_SEGUNDO / transcurrido;
+            inicioVentana = ahora;
+            pasosVentana = 0;
+        }
+    }
+    
+    /**
+     * Cambia entre avanzar al ritmo del reloj o lo más rápido posible.
+     * 
+     * @param tiempoReal true para respetar el reloj.
+     */
+    public void setTiempoReal(boolean tiempoReal) {
+        this.tiempoReal = tiempoReal;
+    }
+    
+    /**
+     * Obtiene los pasos por segundo medidos en el último segundo completo.
+     * 
+     * @return Pasos por segundo reales.
+     */
+    public double getPasosPorSegundoMedidos() {
+        return pasosPorSegundoMedidos;
+    }
+    
+    /**
+     * Obtiene la tasa de pasos que equivale a un segundo simulado.
+     * 
+     * @return Pasos por segundo simulado.
+     */
+    public int getPasosPorSegundo() {
+        return pasosPorSegundo;
+    }
+    
+    /**
+     * Obtiene el número de pasos ejecutados.
+     * 
+     * @return Pasos ejecutados.
+     */
+    public long getPasos() {
+        return pasos;
+    }
+    
+    /**
+     * Verifica si el motor está en ejecución.
+     * 
+     * @return true si el motor está activo.
+     */
+    public boolean estaActivo() {
+        return activo;
+    }
+}
@@ -0,0 +1,42 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Interfaz que adapta un campo de batalla para que las armas puedan atacarlo,
+ * sin importar cómo se almacenan las pulgas (objetos o columnas primitivas).
+ * Cada operación es atómica respecto a las demás operaciones del campo.
+ */
+public interface ObjetivoArma {
+    // Resultados de impactar en un punto
+    int SIN_IMPACTO = 0;
+    int PULGA_TRANSFORMADA = 1;
+    int PULGA_MUERTA = 2;
+    
+    /**
+     * Obtiene el número de pulgas restantes en el campo.
+     * 
+     * @return Número de pulgas.
+     */
+    int pulgasRestantes();
+    
+    /**
+     * Impacta la pulga que se dibuja encima en el punto (x,y): una pulga normal
+     * muere y una mutante se convierte en normal en la misma posición.
+     * 
+     * @param x Coordenada X del punto.
+     * @param y Coordenada Y del punto.
+     * @return {@link #SIN_IMPACTO}, {@link #PULGA_TRANSFORMADA} o {@link #PULGA_MUERTA}.
+     */
+    int impactarPulgaEn(int x, int y);
+    
+    /**
+     * Recorre todas las pulgas una sola vez e impacta las que elige el selector:
+     * el selector recibe cada pulga en el orden del recorrido, y quitar una pulga
+     * muerta cuesta O(1). El orden en que quedan las sobrevivientes no está
+     * garantizado (un campo puede llenar cada hueco con la última pulga de su
+     * celda, o compactar todo al final).
+     * 
+     * @param selector Selector que decide qué pulgas son alcanzadas.
+     * @return Número de pulgas que murieron.
+     */
+    int impactarPulgas(SelectorPulgas selector);
+}
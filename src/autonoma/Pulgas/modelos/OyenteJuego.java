@@ -0,0 +1,25 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Interfaz para recibir los cambios de estado del juego.
+ * Los métodos se llaman en el hilo que modificó el juego (normalmente el de
+ * simulación); para actualizar Swing conviene envolverlo en {@link OyenteJuegoAgrupado}.
+ */
+public interface OyenteJuego {
+    
+    /**
+     * Se llama cuando cambia el puntaje o el puntaje máximo.
+     * 
+     * @param puntaje    Puntaje actual.
+     * @param maxPuntaje Puntaje máximo.
+     */
+    void puntajeCambiado(int puntaje, int maxPuntaje);
+    
+    /**
+     * Se llama cuando el juego termina.
+     * 
+     * @param puntaje    Puntaje con el que terminó el juego.
+     * @param maxPuntaje Puntaje máximo después de terminar.
+     */
+    void juegoTerminado(int puntaje, int maxPuntaje);
+}
@@ -0,0 +1,106 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
+
+/**
+ * Oyente que agrupa los cambios del juego y los entrega a otro oyente en el hilo de Swing.
+ *
+ * Guarda solo el último estado y deja como máximo una entrega pendiente en la cola
+ * de eventos: un misil que elimina miles de pulgas, o varios cambios dentro del mismo
+ * cuadro, producen una sola actualización de la interfaz. El fin del juego nunca se
+ * pierde al agrupar: se entrega aunque el juego se haya reiniciado antes de la entrega.
+ */
+public class OyenteJuegoAgrupado implements OyenteJuego {
+    private final OyenteJuego destino;
+    private final Executor ejecutor;
+    private final AtomicBoolean programado = new AtomicBoolean();
+    
+    // Último estado publicado por el juego
+    private volatile int puntaje;
+    private volatile int maxPuntaje;
+    private volatile long finales;
+    private volatile int puntajeFinal;
+    private volatile int maxPuntajeFinal;
+    
+    // Último estado entregado; solo se usan en el hilo de entrega
+    private int puntajeEntregado = -1;
+    private int maxPuntajeEntregado = -1;
+    private long finalesEntregados;
+    
+    /**
+     * Constructor para entregar los cambios en el hilo de Swing.
+     * 
+     * @param destino Oyente que recibe los cambios agrupados.
+     */
+    public OyenteJuegoAgrupado(OyenteJuego destino) {
+        this(destino, SwingUtilities::invokeLater);
+    }
+    
+    /**
+     * Constructor para entregar los cambios con un ejecutor cualquiera.
+     * 
+     * @param destino  Oyente que recibe los cambios agrupados.
+     * @param ejecutor Ejecutor en el que se hacen las entregas.
+     */
+    public OyenteJuegoAgrupado(OyenteJuego destino, Executor ejecutor) {
+        this.destino = destino;
+        this.ejecutor = ejecutor;
+    }
+    
+    @Override
+    public void puntajeCambiado(int puntaje, int maxPuntaje) {
+        this.puntaje = puntaje;
+        this.maxPuntaje = maxPuntaje;
+        programar();
+    }
+    
+    @Override
+    public synchronized void juegoTerminado(int puntaje, int maxPuntaje) {
+        this.puntajeFinal = puntaje;
+        this.maxPuntajeFinal = maxPuntaje;
+        this.puntaje = puntaje;
+        this.maxPuntaje = maxPuntaje;
+        finales++;
+        programar();
+    }
+    
+    /**
+     * Programa una entrega si no hay otra pendiente.
+     */
+    private void programar() {
+        if (programado.compareAndSet(false, true)) {
+            ejecutor.execute(this::entregar);
+        }
+    }
+    
+    /**
+     * Entrega al destino el último estado. Se libera la marca antes de leer el estado,
+     * así un cambio que llegue durante la entrega programa otra.
+     */
+    private void entregar() {
+        programado.set(false);
+        
+        long finalesActuales;
+        int finalPuntaje;
+        int finalMaximo;
+        synchronized (this) {
+            finalesActuales = finales;
+            finalPuntaje = puntajeFinal;
+            finalMaximo = maxPuntajeFinal;
+        }
+        int puntajeActual = puntaje;
+        int maxPuntajeActual = maxPuntaje;
+        
+        if (puntajeActual != puntajeEntregado || maxPuntajeActual != maxPuntajeEntregado) {
+            puntajeEntregado = puntajeActual;
+            maxPuntajeEntregado = maxPuntajeActual;
+            destino.puntajeCambiado(puntajeActual, maxPuntajeActual);
+        }
+        if (finalesActuales != finalesEntregados) {
+            finalesEntregados = finalesActuales;
+            destino.juegoTerminado(finalPuntaje, finalMaximo);
+        }
+    }
+}
@@ -1,107 +1,282 @@
 package autonoma.Pulgas.modelos;
 import javax.swing.JPanel;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Dimension;
 import java.awt.Color;
-import java.awt.Font;
-import java.awt.event.MouseEvent;
-import java.awt.event.MouseMotionListener;
+import java.awt.image.BufferedImage;
 
 /**
  * Panel que muestra el juego.
+ * Solo lee la última instantánea publicada por el hilo de simulación; nunca modifica el juego.
+ * 
+ * Las pulgas se dibujan en un lienzo propio y en cada cuadro solo se redibujan las
+ * zonas que cambiaron en el campo; si las zonas cubren más que el umbral configurado
+ * se redibuja el lienzo completo, que entonces resulta más barato.
+ * 
+ * El campo puede ser más grande que el panel: se muestra la parte que indica su
+ * {@link ControlVista} (rueda para acercar, arrastre con el botón derecho para
+ * desplazar) y las zonas cambiadas fuera de ella se descartan. Muy alejada, la
+ * instantánea trae un mapa de densidad, que se redibuja completo cuando algo cambia.
  */
-public class PanelJuego extends JPanel implements MouseMotionListener {
-    private Juego juego;
-    private Campo campo;
+public class PanelJuego extends JPanel {
+    // Fracción del panel a partir de la cual se redibuja todo en lugar de las zonas cambiadas
+    private static final double UMBRAL_REPINTADO_COMPLETO = 0.5;
+    private static final Color COLOR_FONDO = new Color(220, 240, 255); // Color celeste claro
+    
+    private SimulacionJuego simulacion;
+    private final ControlVista control;
+    // Propio del panel: solo lo usa el hilo que lo dibuja
+    private final MensajeInicio mensajeInicio = new MensajeInicio();
+    // Vista de la última instantánea dibujada; si la nueva trae otra, se redibuja todo
+    private VistaCampo vistaDibujada;
+    private boolean ultimoMapa;
+    private BufferedImage lienzo;
+    // Contexto gráfico del lienzo, reutilizado en todos los cuadros
+    private Graphics2D graficosLienzo;
+    // Lienzo con el mensaje de inicio ya compuesto encima; el velo semitransparente
+    // es caro y genera basura, así que solo se compone cuando el lienzo cambia
+    private BufferedImage lienzoInicio;
+    private Graphics2D graficosInicio;
+    private boolean inicioVigente;
+    private final RegionSucia pendientes = new RegionSucia();
+    private final int[] rectangulos = new int[RegionSucia.MAX_RECTANGULOS * 4];
+    private double umbralRepintadoCompleto = UMBRAL_REPINTADO_COMPLETO;
+    private boolean ultimoJuegoActivo;
+    private long repintadosParciales;
+    private long repintadosCompletos;
     
     /**
      * Constructor para crear un nuevo panel de juego.
      * 
-     * @param juego Juego a mostrar.
-     * @param campo Campo de batalla.
+     * @param simulacion Simulación del juego a mostrar.
      */
-    public PanelJuego(Juego juego, Campo campo) {
-        this.juego = juego;
-        this.campo = campo;
-        setPreferredSize(new Dimension(800, 600));
+    public PanelJuego(SimulacionJuego simulacion) {
+        this.simulacion = simulacion;
+        Campo campo = simulacion.getJuego().getCampo();
+        int ancho = Math.min(800, campo.getAnchoCampo());
+        int alto = Math.min(600, campo.getAltoCampo());
+        setPreferredSize(new Dimension(ancho, alto));
         setBackground(Color.WHITE);
         // Habilitar el focus para recibir eventos de teclado
         setFocusable(true);
-        // Registrar para eventos de movimiento del ratón
-        addMouseMotionListener(this);
+        // El control envía el cursor a la simulación y maneja el desplazamiento y la escala
+        control = new ControlVista(this, simulacion, ancho, alto);
+    }
+    
+    /**
+     * Redibuja en el lienzo las zonas que cambiaron desde el cuadro anterior y pide
+     * a Swing repintar solo esas zonas. Debe llamarse en el hilo de Swing, una vez por cuadro.
+     * Su duración se registra como tiempo de cuadro en {@link MetricasJuego}.
+     */
+    public void actualizar() {
+        long inicio = System.nanoTime();
+        actualizarLienzo();
+        MetricasJuego.getGlobal().cuadros.registrar(System.nanoTime() - inicio);
+    }
+    
+    private void actualizarLienzo() {
+        simulacion.tomarCambios(pendientes);
+        InstantaneaCampo instantanea = simulacion.getInstantanea();
+        boolean cambioEstado = instantanea.esJuegoActivo() != ultimoJuegoActivo;
+        ultimoJuegoActivo = instantanea.esJuegoActivo();
+        // Con otra vista (desplazada, con otra escala o tamaño) todo lo visible cambia
+        boolean cambioVista = instantanea.getVista() != vistaDibujada;
+        vistaDibujada = instantanea.getVista();
+        // El mapa de densidad se dibuja siempre completo, con un costo fijo
+        boolean cambioMapa = instantanea.esMapaDensidad() != ultimoMapa
+                || (instantanea.esMapaDensidad() && !pendientes.estaVacia());
+        ultimoMapa = instantanea.esMapaDensidad();
+        
+        if (prepararLienzo() || cambioVista || cambioMapa || pendientes.esCompleta()) {
+            redibujarTodo(instantanea);
+            return;
+        }
+        if (cambioEstado) {
+            // El mensaje de inicio cubre todo el panel, aunque el lienzo no cambie
+            repaint();
+        }
+        if (pendientes.estaVacia()) {
+            return;
+        }
+        
+        int total = pendientes.copiarRectangulos(rectangulos);
+        pendientes.limpiar();
+        int visibles = aPantalla(instantanea.getVista(), total);
+        long area = 0;
+        for (int i = 0; i < visibles; i++) {
+            area += (long) rectangulos[i * 4 + 2] * rectangulos[i * 4 + 3];
+        }
+        if (area > umbralRepintadoCompleto * getWidth() * getHeight()) {
+            redibujarTodo(instantanea);
+            return;
+        }
+        for (int i = 0; i < visibles; i++) {
+            int x = rectangulos[i * 4];
+            int y = rectangulos[i * 4 + 1];
+            int ancho = rectangulos[i * 4 + 2];
+            int alto = rectangulos[i * 4 + 3];
+            redibujar(instantanea, x, y, ancho, alto);
+            repaint(x, y, ancho, alto);
+        }
+        if (visibles > 0) {
+            repintadosParciales++;
+        }
+    }
+    
+    private void redibujarTodo(InstantaneaCampo instantanea) {
+        redibujar(instantanea, 0, 0, getWidth(), getHeight());
+        pendientes.limpiar();
+        repintadosCompletos++;
+        repaint();
+    }
+    
+    /**
+     * Pasa a pantalla los rectángulos cambiados (que están en coordenadas del campo),
+     * con los bordes redondeados hacia afuera para cubrir las pulgas que tocan, y
+     * descarta los que quedan fuera del panel.
+     * 
+     * @return Número de rectángulos visibles, al inicio del arreglo.
+     */
+    private int aPantalla(VistaCampo vista, int total) {
+        int visibles = 0;
+        for (int i = 0; i < total; i++) {
+            int izquierda = rectangulos[i * 4];
+            int arriba = rectangulos[i * 4 + 1];
+            int derecha = izquierda + rectangulos[i * 4 + 2];
+            int abajo = arriba + rectangulos[i * 4 + 3];
+            if (vista != null) {
+                int x = vista.aPantallaX(izquierda);
+                int y = vista.aPantallaY(arriba);
+                derecha = Math.max(x + 1, vista.finEnPantallaX(derecha));
+                abajo = Math.max(y + 1, vista.finEnPantallaY(abajo));
+                izquierda = x;
+                arriba = y;
+            }
+            izquierda = Math.max(0, izquierda);
+            arriba = Math.max(0, arriba);
+            derecha = Math.min(getWidth(), derecha);
+            abajo = Math.min(getHeight(), abajo);
+            if (derecha > izquierda && abajo > arriba) {
+                rectangulos[visibles * 4] = izquierda;
+                rectangulos[visibles * 4 + 1] = arriba;
+                rectangulos[visibles * 4 + 2] = derecha - izquierda;
+                rectangulos[visibles * 4 + 3] = abajo - arriba;
+                visibles++;
+            }
+        }
+        return visibles;
+    }
+    
+    /**
+     * Crea el lienzo si no existe o si cambió el tamaño del panel.
+     * 
+     * @return true si el lienzo es nuevo y hay que dibujarlo completo.
+     */
+    private boolean prepararLienzo() {
+        int ancho = Math.max(1, getWidth());
+        int alto = Math.max(1, getHeight());
+        if (lienzo != null && lienzo.getWidth() == ancho && lienzo.getHeight() == alto) {
+            return false;
+        }
+        GraphicsConfiguration configuracion = getGraphicsConfiguration();
+        lienzo = configuracion != null
+                ? configuracion.createCompatibleImage(ancho, alto)
+                : new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        if (graficosLienzo != null) {
+            graficosLienzo.dispose();
+        }
+        graficosLienzo = lienzo.createGraphics();
+        lienzoInicio = configuracion != null
+                ? configuracion.createCompatibleImage(ancho, alto)
+                : new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        if (graficosInicio != null) {
+            graficosInicio.dispose();
+        }
+        graficosInicio = lienzoInicio.createGraphics();
+        control.setPantalla(ancho, alto);
+        return true;
+    }
+    
+    /**
+     * Redibuja el fondo y las pulgas de un rectángulo del lienzo.
+     * No limita el área de dibujo (cambiar el clip genera basura): una pulga que
+     * sobresale del rectángulo se dibuja completa, lo que es correcto porque las
+     * pulgas no se superponen (tampoco con escala, ver {@link InstantaneaCampo})
+     * y el lienzo fuera del rectángulo ya está al día.
+     */
+    private void redibujar(InstantaneaCampo instantanea, int x, int y, int ancho, int alto) {
+        inicioVigente = false;
+        graficosLienzo.setColor(COLOR_FONDO);
+        graficosLienzo.fillRect(x, y, ancho, alto);
+        instantanea.dibujar(graficosLienzo, CacheSprites.getCompartida(), x, y, ancho, alto);
     }
     
     /**
-     * Dibuja el contenido del panel.
+     * Dibuja el contenido del panel copiando el lienzo; solo se copia el área que Swing pide repintar.
      * 
      * @param g Contexto gráfico en el que se dibuja.
      */
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        
-        // Dibujar fondo
-        g.setColor(new Color(220, 240, 255)); // Color celeste claro
-        g.fillRect(0, 0, getWidth(), getHeight());
-        
-        // Actualizar las pulgas para que reaccionen al cursor si el juego está activo
-        if (juego.esJuegoActivo()) {
-            campo.actualizarPulgas();
+        dibujarCuadro(g);
+    }
+    
+    /**
+     * Dibuja el cuadro actual: el lienzo y, si el juego no está activo, el mensaje de inicio.
+     * En estado estable no crea objetos.
+     * 
+     * @param g Contexto gráfico en el que se dibuja.
+     */
+    public void dibujarCuadro(Graphics g) {
+        if (lienzo == null || lienzo.getWidth() != getWidth() || lienzo.getHeight() != getHeight()) {
+            actualizar();
+        }
+        if (ultimoJuegoActivo) {
+            g.drawImage(lienzo, 0, 0, null);
+            return;
         }
         
-        // Dibujar las pulgas en el campo
-        campo.dibujar(g);
-        
-        // Si el juego no está activo, mostrar mensaje
-        if (!juego.esJuegoActivo()) {
-            g.setColor(new Color(0, 0, 0, 150)); // Negro semitransparente
-            g.fillRect(0, 0, getWidth(), getHeight());
-            
-            g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.BOLD, 30));
-            String mensaje = "¡Simulador Antipulgas!";
-            
-            // Calcular posición para centrar el texto
-            int stringWidth = g.getFontMetrics().stringWidth(mensaje);
-            int x = (getWidth() - stringWidth) / 2;
-            int y = getHeight() / 2 - 20;
-            
-            g.drawString(mensaje, x, y);
-            
-            // Añadir instrucciones
-            g.setFont(new Font("Arial", Font.PLAIN, 18));
-            String instrucciones = "Presiona 'p' para agregar pulgas o 'Reiniciar' para comenzar";
-            
-            stringWidth = g.getFontMetrics().stringWidth(instrucciones);
-            x = (getWidth() - stringWidth) / 2;
-            y = getHeight() / 2 + 20;
-            
-            g.drawString(instrucciones, x, y);
+        // Si el juego no está activo, mostrar el lienzo con el mensaje encima
+        if (!inicioVigente) {
+            graficosInicio.drawImage(lienzo, 0, 0, null);
+            mensajeInicio.dibujar(graficosInicio, lienzoInicio.getWidth(), lienzoInicio.getHeight());
+            inicioVigente = true;
         }
+        g.drawImage(lienzoInicio, 0, 0, null);
     }
     
     /**
-     * Maneja el evento de movimiento del ratón.
-     * Actualiza la posición del ratón en el campo.
+     * Cambia la fracción del panel a partir de la cual se redibuja todo.
      * 
-     * @param e Evento de movimiento del ratón.
+     * @param umbral Fracción entre 0 y 1 (0 redibuja siempre todo).
      */
-    @Override
-    public void mouseMoved(MouseEvent e) {
-        if (juego.esJuegoActivo()) {
-            campo.actualizarPosicionMouse(e.getX(), e.getY());
-            repaint(); // Solicitar repintado para actualizar las posiciones
+    public void setUmbralRepintadoCompleto(double umbral) {
+        if (umbral < 0 || umbral > 1) {
+            throw new IllegalArgumentException("El umbral debe estar entre 0 y 1: " + umbral);
         }
+        this.umbralRepintadoCompleto = umbral;
     }
-
+    
+    public double getUmbralRepintadoCompleto() {
+        return umbralRepintadoCompleto;
+    }
+    
+    public long getRepintadosParciales() {
+        return repintadosParciales;
+    }
+    
+    public long getRepintadosCompletos() {
+        return repintadosCompletos;
+    }
+    
     /**
-     * Maneja el evento de arrastre del ratón...
+     * Obtiene el control de la vista, para pasar posiciones del panel a coordenadas del campo.
      * 
-     * @param e Evento de arrastre del ratón...
+     * @return Control de la vista del panel.
      */
-    @Override
-    public void mouseDragged(MouseEvent e) {
-        // Tratar igual que mouseMoved
-        mouseMoved(e);
+    public ControlVista getControlVista() {
+        return control;
     }
 }
\ No newline at end of file
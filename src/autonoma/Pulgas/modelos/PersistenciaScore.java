@@ -1,65 +1,303 @@
 package autonoma.Pulgas.modelos;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Clase que maneja la persistencia del puntaje máximo en un archivo de texto.
+ * Clase que maneja la persistencia de los resultados de las partidas en la {@link TablaPuntajes}.
+ *
+ * Nada ocurre en el hilo que lo pide: la tabla se abre en segundo plano al crear el
+ * objeto y cada partida se guarda después, en un hilo escritor compartido. Si se
+ * registran varias partidas antes de que el escritor llegue, se agregan todas y se
+ * fuerzan al disco una sola vez. Al cerrar la aplicación se escriben las pendientes.
+ * La primera vez que se abre una tabla vacía se importan los puntajes de los antiguos
+ * archivos de texto ({@code max_puntaje.txt} y {@code puntaje.txt}), que no se modifican.
  */
 public class PersistenciaScore {
-    private String nombreArchivo;
-    
+    private static final double NANOS_POR_MILISEGUNDO = 1_000_000.0;
+    private static final String[] ARCHIVOS_ANTERIORES = {"max_puntaje.txt", "puntaje.txt"};
+
+    // Escritor compartido por todos los juegos; su hilo es demonio y termina si no hay trabajo
+    private static final ExecutorService ESCRITOR = crearEscritor();
+    // Instancias con partidas aún sin escribir, para vaciarlas al cerrar
+    private static final Set<PersistenciaScore> PENDIENTES = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PersistenciaScore::vaciarTodas, "persistencia-cierre"));
+    }
+
+    private final String nombreArchivo;
+    private final CompletableFuture<TablaPuntajes> tabla;
+    private final CompletableFuture<Integer> carga;
+    private final ConcurrentLinkedQueue<RegistroPartida> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean programado = new AtomicBoolean();
+    // Mayor puntaje registrado en esta ejecución, escrito o no
+    private final AtomicInteger maxRegistrado = new AtomicInteger();
+
+    // Métricas: tiempo de quien registra y tiempo del escritor en disco
+    private final AtomicLong solicitudes = new AtomicLong();
+    private final AtomicLong escrituras = new AtomicLong();
+    private final AtomicLong nanosLlamadaMaximo = new AtomicLong();
+    private final AtomicLong nanosEscrituraTotal = new AtomicLong();
+    private final AtomicLong nanosEscrituraMaximo = new AtomicLong();
+
     /**
      * Constructor para crear un nuevo manejador de persistencia.
-     * 
-     * @param nombreArchivo Nombre del archivo donde se guarda el puntaje....
+     * Empieza a abrir la tabla en segundo plano y vuelve enseguida.
+     *
+     * @param nombreArchivo Nombre del archivo de la tabla de puntajes.
      */
     public PersistenciaScore(String nombreArchivo) {
         this.nombreArchivo = nombreArchivo;
-        // Crear el archivo si no existe
-        File archivo = new File(nombreArchivo);
-        if (!archivo.exists()) {
+        this.tabla = CompletableFuture.supplyAsync(this::abrir, ESCRITOR);
+        this.carga = tabla.thenApply(PersistenciaScore::maximo);
+    }
+
+    /**
+     * Registra el resultado de una partida. No espera al disco: la partida se agrega
+     * a la tabla en el hilo escritor.
+     *
+     * @param registro Resultado de la partida.
+     */
+    public void registrarPartida(RegistroPartida registro) {
+        long inicio = System.nanoTime();
+        pendientes.add(registro);
+        maxRegistrado.accumulateAndGet(registro.getPuntaje(), Math::max);
+        PENDIENTES.add(this);
+        if (programado.compareAndSet(false, true)) {
+            ESCRITOR.execute(this::escribirProgramado);
+        }
+        solicitudes.incrementAndGet();
+        nanosLlamadaMaximo.accumulateAndGet(System.nanoTime() - inicio, Math::max);
+    }
+
+    /**
+     * Obtiene el puntaje máximo: el mayor entre el de la tabla al abrirla y los
+     * registrados después. Solo espera si la tabla aún no terminó de abrirse.
+     *
+     * @return Puntaje máximo guardado o 0 si no hay partidas o hay error.
+     */
+    public int cargarMaxPuntaje() {
+        return Math.max(carga.join(), maxRegistrado.get());
+    }
+
+    /**
+     * Obtiene el puntaje máximo conocido hasta ahora, sin esperar: si la tabla aún no
+     * terminó de abrirse, solo cuentan las partidas registradas desde entonces.
+     *
+     * @return Puntaje máximo conocido o 0 si no hay ninguno.
+     */
+    public int getMaxPuntaje() {
+        return Math.max(carga.getNow(0), maxRegistrado.get());
+    }
+
+    /**
+     * Obtiene el puntaje máximo de la tabla al abrirla, para usarlo cuando esté listo
+     * sin bloquear al hilo que lo pide.
+     *
+     * @return Puntaje máximo guardado, cuando termine de abrirse la tabla.
+     */
+    public CompletableFuture<Integer> getCarga() {
+        return carga;
+    }
+
+    /**
+     * Obtiene la tabla de puntajes para consultarla, esperando a que se abra.
+     *
+     * @return Tabla de puntajes, o null si no se pudo abrir.
+     */
+    public TablaPuntajes getTabla() {
+        return tabla.join();
+    }
+
+    /**
+     * Escribe ya las partidas pendientes, si las hay, en el hilo que llama.
+     */
+    public void vaciar() {
+        escribirPendientes();
+    }
+
+    /**
+     * Obtiene el número de partidas registradas.
+     *
+     * @return Número de solicitudes.
+     */
+    public long getSolicitudes() {
+        return solicitudes.get();
+    }
+
+    /**
+     * Obtiene el número de veces que se escribió y forzó la tabla al disco.
+     * Es menor que las solicitudes cuando se agruparon partidas.
+     *
+     * @return Número de escrituras.
+     */
+    public long getEscrituras() {
+        return escrituras.get();
+    }
+
+    /**
+     * Obtiene el mayor tiempo que tardó una llamada a {@link #registrarPartida(RegistroPartida)}.
+     * Es lo que espera el hilo que registra, por ejemplo el de la interfaz.
+     *
+     * @return Tiempo en milisegundos.
+     */
+    public double getLlamadaMaximaMs() {
+        return nanosLlamadaMaximo.get() / NANOS_POR_MILISEGUNDO;
+    }
+
+    /**
+     * Obtiene el tiempo promedio de una escritura en disco.
+     *
+     * @return Tiempo en milisegundos, o 0 si aún no se escribió.
+     */
+    public double getEscrituraPromedioMs() {
+        long total = escrituras.get();
+        return total > 0 ? nanosEscrituraTotal.get() / NANOS_POR_MILISEGUNDO / total : 0;
+    }
+
+    /**
+     * Obtiene el mayor tiempo de una escritura en disco.
+     *
+     * @return Tiempo en milisegundos.
+     */
+    public double getEscrituraMaximaMs() {
+        return nanosEscrituraMaximo.get() / NANOS_POR_MILISEGUNDO;
+    }
+
+    /**
+     * Tarea del escritor. Se libera la marca antes de escribir, así una partida
+     * que llegue durante la escritura programa otra.
+     */
+    private void escribirProgramado() {
+        programado.set(false);
+        escribirPendientes();
+    }
+
+    /**
+     * Agrega a la tabla las partidas pendientes y las fuerza al disco. Sincronizado
+     * para que el escritor y el cierre de la aplicación no escriban a la vez.
+     */
+    private synchronized void escribirPendientes() {
+        TablaPuntajes destino = tabla.join();
+        if (destino == null) {
+            pendientes.clear();
+            PENDIENTES.remove(this);
+            return;
+        }
+        RegistroPartida registro = pendientes.poll();
+        if (registro != null) {
+            long inicio = System.nanoTime();
             try {
-                archivo.createNewFile();
-                // Inicializar con puntaje 0
-                guardarMaxPuntaje(0);
+                while (registro != null) {
+                    destino.agregar(registro);
+                    registro = pendientes.poll();
+                }
+                destino.forzar();
             } catch (IOException e) {
-                System.err.println("Error al crear el archivo de puntaje: " + e.getMessage());
+                System.err.println("Error al guardar la partida: " + e.getMessage());
             }
+            long nanos = System.nanoTime() - inicio;
+            escrituras.incrementAndGet();
+            nanosEscrituraTotal.addAndGet(nanos);
+            nanosEscrituraMaximo.accumulateAndGet(nanos, Math::max);
+        }
+        PENDIENTES.remove(this);
+        // Una partida pudo llegar justo después de vaciar la cola
+        if (!pendientes.isEmpty()) {
+            PENDIENTES.add(this);
         }
     }
-    
+
     /**
-     * Guarda el puntaje máximo en el archivo.
-     * 
-     * @param puntaje Puntaje máximo a guardar.
+     * Abre la tabla e importa los archivos de texto anteriores si está vacía. La tabla
+     * verifica que esté vacía y los agrega con el cerrojo del archivo tomado, así que
+     * varias partidas o procesos que la abren a la vez no los importan dos veces.
      */
-    public void guardarMaxPuntaje(int puntaje) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(nombreArchivo))) {
-            writer.write(String.valueOf(puntaje));
+    private TablaPuntajes abrir() {
+        try {
+            TablaPuntajes abierta = TablaPuntajes.abrir(nombreArchivo);
+            if (abierta.getCantidad() == 0) {
+                List<RegistroPartida> anteriores = leerAnteriores(abierta.getRuta().getParent());
+                if (!anteriores.isEmpty()) {
+                    abierta.agregarSiVacia(anteriores);
+                }
+            }
+            return abierta;
         } catch (IOException e) {
-            System.err.println("Error al guardar el puntaje maximo: " + e.getMessage());
+            System.err.println("Error al abrir la tabla de puntajes: " + e.getMessage());
+            return null;
         }
     }
-    
+
     /**
-     * Carga el puntaje máximo desde el archivo.
-     * 
-     * @return Puntaje máximo guardado o 0 si hay error.
+     * Lee, como partidas sin duración ni pulgas, los puntajes de los archivos de texto
+     * que se usaban antes.
+     *
+     * @param directorio Directorio del archivo de la tabla, donde estaban los archivos de texto.
      */
-    public int cargarMaxPuntaje() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(nombreArchivo))) {
-            String linea = reader.readLine();
-            if (linea != null && !linea.isEmpty()) {
-                return Integer.parseInt(linea.trim());
+    private static List<RegistroPartida> leerAnteriores(Path directorio) {
+        List<RegistroPartida> anteriores = new ArrayList<>(ARCHIVOS_ANTERIORES.length);
+        for (String nombre : ARCHIVOS_ANTERIORES) {
+            Path anterior = directorio.resolve(nombre);
+            try {
+                String contenido = new String(Files.readAllBytes(anterior), StandardCharsets.UTF_8).trim();
+                int puntaje = Integer.parseInt(contenido);
+                if (puntaje > 0) {
+                    anteriores.add(new RegistroPartida(puntaje, 0, 0, 0,
+                            Files.getLastModifiedTime(anterior).toMillis()));
+                }
+            } catch (NoSuchFileException e) {
+                // No hay nada que importar
+            } catch (IOException | NumberFormatException e) {
+                System.err.println("No se pudo importar el puntaje de " + nombre + ": " + e.getMessage());
             }
-        } catch (IOException | NumberFormatException e) {
+        }
+        return anteriores;
+    }
+
+    private static int maximo(TablaPuntajes tabla) {
+        try {
+            return tabla != null ? tabla.getMaximo() : 0;
+        } catch (IOException e) {
             System.err.println("Error al cargar el puntaje maximo: " + e.getMessage());
+            return 0; // Valor por defecto en caso de error
         }
-        return 0; // Valor por defecto en caso de error
     }
-}
\ No newline at end of file
+
+    /**
+     * Escribe las partidas pendientes de todas las instancias. Se ejecuta al cerrar la aplicación.
+     */
+    private static void vaciarTodas() {
+        for (PersistenciaScore persistencia : PENDIENTES) {
+            persistencia.escribirPendientes();
+        }
+    }
+
+    private static ExecutorService crearEscritor() {
+        ThreadPoolExecutor escritor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), tarea -> {
+                    Thread hilo = new Thread(tarea, "persistencia-puntaje");
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        escritor.allowCoreThreadTimeOut(true);
+        return escritor;
+    }
+}
@@ -1,19 +1,22 @@
 package autonoma.Pulgas.modelos;
 import java.awt.Graphics;
-import java.awt.Image;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Clase abstracta que representa una pulga en el juego.
  * Define el comportamiento básico de todas las pulgas.
  */
 public abstract class Pulga {
+    // Tipos de pulga
+    public static final byte TIPO_NORMAL = 0;
+    public static final byte TIPO_MUTANTE = 1;
+    
     protected int x;
     protected int y;
     protected int ancho;
     protected int alto;
-    protected Image imagen;
-    protected static final Random random = new Random();
+    // Orden de llegada al campo (desempata qué pulga está encima), -1 si no está en un campo
+    long orden = -1;
     
     // Distancia a la que la pulga reacciona al cursor
     protected static final int DISTANCIA_REACCION = 100;
@@ -27,23 +30,29 @@ public abstract class Pulga {
      * @param y      Posición en el eje Y.
      * @param ancho  Ancho de la pulga.
      * @param alto   Alto de la pulga.
-     * @param imagen Imagen que representa la pulga.
      */
-    public Pulga(int x, int y, int ancho, int alto, Image imagen) {
+    public Pulga(int x, int y, int ancho, int alto) {
         this.x = x;
         this.y = y;
         this.ancho = ancho;
         this.alto = alto;
-        this.imagen = imagen;
     }
     
     /**
-     * Dibuja la pulga en el componente gráfico.
+     * Obtiene el tipo de la pulga.
+     * 
+     * @return {@link #TIPO_NORMAL} o {@link #TIPO_MUTANTE}.
+     */
+    public abstract byte getTipo();
+    
+    /**
+     * Dibuja la pulga en el componente gráfico con la imagen ya escalada de la caché.
+     * Debe llamarse desde el hilo que dibuja.
      * 
      * @param g Contexto gráfico en el que se dibuja.
      */
     public void dibujar(Graphics g) {
-        g.drawImage(imagen, x, y, ancho, alto, null);
+        CacheSprites.getCompartida().dibujar(g, getTipo(), x, y, ancho, alto);
     }
     
     /**
@@ -62,8 +71,9 @@ public abstract class Pulga {
      * 
      * @param maxX Límite en el eje X.
      * @param maxY Límite en el eje Y.
+     * @param random Generador aleatorio del hilo que hace saltar a la pulga.
      */
-    public void saltar(int maxX, int maxY) {
+    public void saltar(int maxX, int maxY, RandomGenerator random) {
         x = random.nextInt(maxX - ancho);
         y = random.nextInt(maxY - alto);
     }
@@ -83,18 +93,19 @@ public abstract class Pulga {
         int centroX = x + ancho / 2;
         int centroY = y + alto / 2;
         
-        // Calcular la distancia al cursor
-        double distancia = Math.sqrt(Math.pow(mouseX - centroX, 2) + Math.pow(mouseY - centroY, 2));
+        // Calcular vector dirección y comparar distancias al cuadrado (sin raíz)
+        int dirXEntero = centroX - mouseX;
+        int dirYEntero = centroY - mouseY;
+        int distanciaCuadrada = dirXEntero * dirXEntero + dirYEntero * dirYEntero;
         
         // Si el cursor está cerca, moverse en dirección opuesta
-        if (distancia < DISTANCIA_REACCION) {
-            // Calcular vector dirección
-            double dirX = centroX - mouseX;
-            double dirY = centroY - mouseY;
+        if (distanciaCuadrada < DISTANCIA_REACCION * DISTANCIA_REACCION) {
+            double dirX = dirXEntero;
+            double dirY = dirYEntero;
             
             // Normalizar el vector
-            double longitud = Math.sqrt(dirX * dirX + dirY * dirY);
-            if (longitud > 0) {
+            if (distanciaCuadrada > 0) {
+                double longitud = Math.sqrt(distanciaCuadrada);
                 dirX = dirX / longitud * VELOCIDAD_EVASION;
                 dirY = dirY / longitud * VELOCIDAD_EVASION;
             }
@@ -10,16 +10,19 @@ import javax.swing.ImageIcon;
 public class PulgaMutante extends Pulga {
     private static final int ANCHO_PULGA = 50;
     private static final int ALTO_PULGA = 50;
-    private static Image imagenPulga;
-
-    // Inicialización estática de la imagen
-    static {
-        try {
-            imagenPulga = new ImageIcon(PulgaMutante.class.getResource("/recursos/pulgaMutante.png")).getImage();
-        } catch (Exception e) {
-            System.err.println("Error al cargar la imagen de la pulga mutante: " + e.getMessage());
-            // Crear una imagen por defecto en caso de error
-            imagenPulga = new ImageIcon().getImage();
+
+    // Carga diferida de la imagen: la clase interna se inicializa al dibujar por primera vez
+    private static class Imagen {
+        private static final Image PULGA = cargar();
+
+        private static Image cargar() {
+            try {
+                return new ImageIcon(PulgaMutante.class.getResource("/recursos/pulgaMutante.png")).getImage();
+            } catch (Exception e) {
+                System.err.println("Error al cargar la imagen de la pulga mutante: " + e.getMessage());
+                // Crear una imagen por defecto en caso de error
+                return new ImageIcon().getImage();
+            }
         }
     }
 
@@ -30,7 +33,26 @@ public class PulgaMutante extends Pulga {
      * @param y Posición en el eje Y.
      */
     public PulgaMutante(int x, int y) {
-        super(x, y, ANCHO_PULGA, ALTO_PULGA, imagenPulga);
+        super(x, y, ANCHO_PULGA, ALTO_PULGA);
+    }
+
+    /**
+     * Obtiene la imagen compartida por todas las pulgas mutantes.
+     * 
+     * @return Imagen de la pulga.
+     */
+    static Image getImagenPulga() {
+        return Imagen.PULGA;
+    }
+
+    /**
+     * Obtiene el tipo de la pulga.
+     * 
+     * @return {@link Pulga#TIPO_MUTANTE}.
+     */
+    @Override
+    public byte getTipo() {
+        return TIPO_MUTANTE;
     }
 
     /**
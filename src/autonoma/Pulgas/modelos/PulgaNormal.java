@@ -11,16 +11,19 @@ import javax.swing.ImageIcon;
 public class PulgaNormal extends Pulga {
     private static final int ANCHO_PULGA = 40;
     private static final int ALTO_PULGA = 40;
-    private static Image imagenPulga;
-
-    // Inicialización estática de la imagen
-    static {
-        try {
-            imagenPulga = new ImageIcon(PulgaNormal.class.getResource("/recursos/pulga.png")).getImage();
-        } catch (Exception e) {
-            System.err.println("Error al cargar la imagen de la pulga normal: " + e.getMessage());
-            // Crear una imagen por defecto en caso de error
-            imagenPulga = new ImageIcon().getImage();
+
+    // Carga diferida de la imagen: la clase interna se inicializa al dibujar por primera vez
+    private static class Imagen {
+        private static final Image PULGA = cargar();
+
+        private static Image cargar() {
+            try {
+                return new ImageIcon(PulgaNormal.class.getResource("/recursos/pulga.png")).getImage();
+            } catch (Exception e) {
+                System.err.println("Error al cargar la imagen de la pulga normal: " + e.getMessage());
+                // Crear una imagen por defecto en caso de error
+                return new ImageIcon().getImage();
+            }
         }
     }
 
@@ -31,7 +34,26 @@ public class PulgaNormal extends Pulga {
      * @param y Posición en el eje Y.
      */
     public PulgaNormal(int x, int y) {
-        super(x, y, ANCHO_PULGA, ALTO_PULGA, imagenPulga);
+        super(x, y, ANCHO_PULGA, ALTO_PULGA);
+    }
+
+    /**
+     * Obtiene la imagen compartida por todas las pulgas normales.
+     * 
+     * @return Imagen de la pulga.
+     */
+    static Image getImagenPulga() {
+        return Imagen.PULGA;
+    }
+
+    /**
+     * Obtiene el tipo de la pulga.
+     * 
+     * @return {@link Pulga#TIPO_NORMAL}.
+     */
+    @Override
+    public byte getTipo() {
+        return TIPO_NORMAL;
     }
 
     /**
@@ -1,57 +1,65 @@
 package autonoma.Pulgas.modelos;
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Clase que representa el misil Pulgoson en el juego.
  * Este arma elimina el 50% de las pulgas que se encuentren en el campo.....
  */
 public class Pulgoson extends Arma {
-    private Random random = new Random();
+    private final FuenteAleatoria aleatorio;
+    
+    /**
+     * Constructor para crear un nuevo misil.
+     */
+    public Pulgoson() {
+        this(new FuenteAleatoria());
+    }
+    
+    /**
+     * Constructor para crear un nuevo misil con una fuente aleatoria dada.
+     * 
+     * @param aleatorio Fuente con la que se eligen las pulgas impactadas.
+     */
+    public Pulgoson(FuenteAleatoria aleatorio) {
+        this.aleatorio = aleatorio;
+    }
     
     /**
      * Ataca aleatoriamente al 50% de las pulgas en el campo.
      * Las coordenadas x e y no se utilizan para este tipo de arma.
      * 
-     * @param pulgas Lista de pulgas en el campo..
+     * @param campo  Campo donde se encuentran las pulgas..
      * @param x      No utilizado para esta arma..
      * @param y      No utilizado para esta arma..
      * @return Número de pulgas eliminadas..
      */
     @Override
-    public int atacar(ArrayList<Pulga> pulgas, int x, int y) {
-        if (pulgas.isEmpty()) {
-            return 0;
-        }
-        
-        int numeroAtaques = Math.max(1, pulgas.size() / 2);
-        int pulgasEliminadas = 0;
-        
-        // Crear una copia de la lista para evitar problemas con la modificación durante la iteración.
-        ArrayList<Pulga> pulgasCopia = new ArrayList<>(pulgas);
-        
-        // Mezclar la lista para seleccionar aleatoriamente
-        java.util.Collections.shuffle(pulgasCopia, random);
-        
-        // Atacar al 50% de las pulgas
-        for (int i = 0; i < numeroAtaques && i < pulgasCopia.size(); i++) {
-            Pulga pulga = pulgasCopia.get(i);
-            int indiceOriginal = pulgas.indexOf(pulga);
+    public int atacar(ObjetivoArma campo, int x, int y) {
+        // Muestreo por selección: cada pulga se elige con probabilidad
+        // (ataques pendientes / pulgas por revisar), lo que da exactamente
+        // max(1, n/2) pulgas, todos los subconjuntos igual de probables
+        RandomGenerator random = aleatorio.actual();
+        long inicio = System.nanoTime();
+        int muertas = campo.impactarPulgas(new SelectorPulgas() {
+            private int totalPulgas;
+            private int pendientes;
+            
+            @Override
+            public void comenzar(int total) {
+                totalPulgas = total;
+                pendientes = total == 0 ? 0 : Math.max(1, total / 2);
+            }
             
-            if (indiceOriginal != -1) {  // Asegurarse de que la pulga todavía existe
-                Pulga resultado = pulga.impactar();
-                
-                if (resultado == null) {
-                    // La pulga murió
-                    pulgas.remove(indiceOriginal);
-                    pulgasEliminadas++;
-                } else {
-                    // La pulga mutante se convirtió en normal
-                    pulgas.set(indiceOriginal, resultado);
+            @Override
+            public boolean seleccionar(int indice) {
+                if (pendientes > 0 && random.nextInt(totalPulgas - indice) < pendientes) {
+                    pendientes--;
+                    return true;
                 }
+                return false;
             }
-        }
-        
-        return pulgasEliminadas;
+        });
+        MetricasJuego.getGlobal().misiles.registrar(System.nanoTime() - inicio);
+        return muertas;
     }
 }
\ No newline at end of file
@@ -5,25 +5,33 @@ import java.awt.Component;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Image;
-import java.io.*;
 
 public class Puntaje {
     private int actual;
     private int maximo;
-    private final String archivo = "puntaje.txt";
     private Image imagenPulgaNormal;
+    private static final Font FUENTE = new Font("Arial", Font.BOLD, 16);
+    // Textos ya formateados; solo se vuelven a crear cuando cambia el valor
+    private String textoActual;
+    private int valorTextoActual = -1;
+    private String textoMaximo;
+    private int valorTextoMaximo = -1;
 
     public Puntaje(Image imagenPulgaNormal) {
+        this(imagenPulgaNormal, 0);
+    }
+
+    // El máximo viene de la tabla de puntajes; este marcador ya no guarda archivos
+    public Puntaje(Image imagenPulgaNormal, int maximo) {
         this.imagenPulgaNormal = imagenPulgaNormal;
         this.actual = 0;
-        this.maximo = leerPuntaje();
+        this.maximo = maximo;
     }
 
     public void aumentar() {
         actual++;
         if (actual > maximo) {
             maximo = actual;
-            guardarPuntaje();
         }
     }
 
@@ -39,26 +47,18 @@ public class Puntaje {
         return imagenPulgaNormal;
     }
 
-    private int leerPuntaje() {
-        try (BufferedReader br = new BufferedReader(new FileReader(archivo))) {
-            return Integer.parseInt(br.readLine());
-        } catch (IOException | NumberFormatException e) {
-            return 0;
+    public void dibujar(Graphics g, Component c) {
+        if (valorTextoActual != actual) {
+            valorTextoActual = actual;
+            textoActual = "Puntaje: " + actual;
         }
-    }
-
-    private void guardarPuntaje() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(archivo))) {
-            bw.write(String.valueOf(maximo));
-        } catch (IOException e) {
-            System.err.println("No se pudo guardar el puntaje.");
+        if (valorTextoMaximo != maximo) {
+            valorTextoMaximo = maximo;
+            textoMaximo = "Máximo: " + maximo;
         }
-    }
-
-    public void dibujar(Graphics g, Component c) {
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 16));
-        g.drawString("Puntaje: " + actual, 10, 20);
-        g.drawString("Máximo: " + maximo, 10, 40);
+        g.setFont(FUENTE);
+        g.drawString(textoActual, 10, 20);
+        g.drawString(textoMaximo, 10, 40);
     }
 }
\ No newline at end of file
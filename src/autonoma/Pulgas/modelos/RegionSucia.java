@@ -0,0 +1,144 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Conjunto de rectángulos del campo que cambiaron y deben volver a dibujarse.
+ *
+ * Los rectángulos que se tocan o se superponen se unen en uno solo. Si se acumulan
+ * más de {@link #MAX_RECTANGULOS}, la región pasa a cubrir el campo completo, que
+ * entonces es más barato de redibujar de una vez. Es segura para hilos.
+ */
+public class RegionSucia {
+    // Límite de rectángulos separados antes de marcar el campo completo
+    public static final int MAX_RECTANGULOS = 64;
+
+    // Rectángulos como x, y, ancho, alto consecutivos
+    private final int[] rectangulos = new int[MAX_RECTANGULOS * 4];
+    private int cantidad;
+    private boolean completa;
+
+    /**
+     * Agrega un rectángulo cambiado, uniéndolo con los que toca.
+     *
+     * @param x     Coordenada X del rectángulo.
+     * @param y     Coordenada Y del rectángulo.
+     * @param ancho Ancho del rectángulo.
+     * @param alto  Alto del rectángulo.
+     */
+    public synchronized void agregar(int x, int y, int ancho, int alto) {
+        if (completa || ancho <= 0 || alto <= 0) {
+            return;
+        }
+        // Unir con los rectángulos que toca; la unión puede tocar a otros, así que se repite
+        int i = 0;
+        while (i < cantidad) {
+            int rx = rectangulos[i * 4];
+            int ry = rectangulos[i * 4 + 1];
+            int rAncho = rectangulos[i * 4 + 2];
+            int rAlto = rectangulos[i * 4 + 3];
+            if (x <= rx + rAncho && rx <= x + ancho && y <= ry + rAlto && ry <= y + alto) {
+                int minX = Math.min(x, rx);
+                int minY = Math.min(y, ry);
+                ancho = Math.max(x + ancho, rx + rAncho) - minX;
+                alto = Math.max(y + alto, ry + rAlto) - minY;
+                x = minX;
+                y = minY;
+                quitar(i);
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+        if (cantidad == MAX_RECTANGULOS) {
+            marcarCompleta();
+            return;
+        }
+        rectangulos[cantidad * 4] = x;
+        rectangulos[cantidad * 4 + 1] = y;
+        rectangulos[cantidad * 4 + 2] = ancho;
+        rectangulos[cantidad * 4 + 3] = alto;
+        cantidad++;
+    }
+
+    /**
+     * Marca que todo el campo cambió.
+     */
+    public synchronized void marcarCompleta() {
+        completa = true;
+        cantidad = 0;
+    }
+
+    /**
+     * Pasa todos los rectángulos de esta región a otra y deja esta vacía.
+     * Toma el cerrojo de esta región y luego el del destino: los cambios deben
+     * fluir siempre en el mismo sentido entre dos regiones (campo, simulación, dibujo).
+     *
+     * @param destino Región que recibe los cambios.
+     */
+    public synchronized void transferirA(RegionSucia destino) {
+        if (completa) {
+            destino.marcarCompleta();
+        } else {
+            for (int i = 0; i < cantidad; i++) {
+                destino.agregar(rectangulos[i * 4], rectangulos[i * 4 + 1],
+                        rectangulos[i * 4 + 2], rectangulos[i * 4 + 3]);
+            }
+        }
+        cantidad = 0;
+        completa = false;
+    }
+
+    /**
+     * Vacía la región.
+     */
+    public synchronized void limpiar() {
+        cantidad = 0;
+        completa = false;
+    }
+
+    /**
+     * Verifica si no hay cambios pendientes.
+     *
+     * @return true si la región está vacía.
+     */
+    public synchronized boolean estaVacia() {
+        return cantidad == 0 && !completa;
+    }
+
+    /**
+     * Verifica si la región cubre todo el campo.
+     *
+     * @return true si hay que redibujar el campo completo.
+     */
+    public synchronized boolean esCompleta() {
+        return completa;
+    }
+
+    /**
+     * Suma las áreas de los rectángulos. Como están separados, es el área cubierta.
+     *
+     * @return Área en píxeles cuadrados.
+     */
+    public synchronized long getArea() {
+        long area = 0;
+        for (int i = 0; i < cantidad; i++) {
+            area += (long) rectangulos[i * 4 + 2] * rectangulos[i * 4 + 3];
+        }
+        return area;
+    }
+
+    /**
+     * Copia los rectángulos en un arreglo (x, y, ancho, alto consecutivos).
+     *
+     * @param destino Arreglo con espacio para {@link #MAX_RECTANGULOS} rectángulos.
+     * @return Número de rectángulos copiados.
+     */
+    public synchronized int copiarRectangulos(int[] destino) {
+        System.arraycopy(rectangulos, 0, destino, 0, cantidad * 4);
+        return cantidad;
+    }
+
+    private void quitar(int indice) {
+        cantidad--;
+        System.arraycopy(rectangulos, cantidad * 4, rectangulos, indice * 4, 4);
+    }
+}
@@ -0,0 +1,55 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Resultado de una partida terminada, tal como se guarda en la {@link TablaPuntajes}.
+ */
+public class RegistroPartida {
+    private final int puntaje;
+    private final long duracionMs;
+    private final int pulgasNormales;
+    private final int pulgasMutantes;
+    private final long marcaTiempo;
+
+    /**
+     * Constructor para crear un nuevo registro de partida.
+     *
+     * @param puntaje        Pulgas eliminadas en la partida.
+     * @param duracionMs     Duración de la partida en milisegundos.
+     * @param pulgasNormales Pulgas normales que aparecieron en la partida.
+     * @param pulgasMutantes Pulgas mutantes que aparecieron en la partida.
+     * @param marcaTiempo    Momento en que terminó, en milisegundos desde 1970 (UTC).
+     */
+    public RegistroPartida(int puntaje, long duracionMs, int pulgasNormales, int pulgasMutantes, long marcaTiempo) {
+        this.puntaje = puntaje;
+        this.duracionMs = duracionMs;
+        this.pulgasNormales = pulgasNormales;
+        this.pulgasMutantes = pulgasMutantes;
+        this.marcaTiempo = marcaTiempo;
+    }
+
+    public int getPuntaje() {
+        return puntaje;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public int getPulgasNormales() {
+        return pulgasNormales;
+    }
+
+    public int getPulgasMutantes() {
+        return pulgasMutantes;
+    }
+
+    public long getMarcaTiempo() {
+        return marcaTiempo;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d pulgas en %.1f s (%d normales, %d mutantes)",
+                puntaje, duracionMs / 1000.0, pulgasNormales, pulgasMutantes);
+    }
+}
@@ -0,0 +1,517 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice espacial de rejilla uniforme para las pulgas del campo.
+ * Cada pulga se guarda en la celda que contiene su esquina superior izquierda,
+ * de modo que una consulta solo revisa las celdas vecinas al área buscada.
+ *
+ * Es además el registro concurrente de pulgas del campo: las celdas se agrupan en
+ * regiones de 4x4 y cada región está protegida por uno de 64 cerrojos (por franjas),
+ * así que las operaciones sobre zonas distintas del campo no se bloquean entre sí.
+ * Los métodos de consulta y modificación no toman cerrojos: el llamador debe
+ * tener tomados los cerrojos del área (ver {@link #cerrojosDeArea}).
+ *
+ * Lleva además el conteo de pulgas por celda y por zonas más grandes
+ * ({@link DensidadCampo}), actualizado en cada inserción y eliminación, y avisa al
+ * índice de lugares libres ({@link EspacioLibre}), si existe, qué celdas cambiaron.
+ */
+public class RejillaEspacial {
+    // Tamaño de cada celda en píxeles (mayor que la pulga más grande)
+    public static final int TAMANO_CELDA = 64;
+    // Tamaño máximo de una pulga, usado para ampliar las consultas
+    public static final int TAMANO_MAXIMO_PULGA = 50;
+    // Celdas por lado de cada región protegida por un mismo cerrojo
+    private static final int CELDAS_POR_REGION = 4;
+    // Número de cerrojos: el conjunto tomado cabe en un long (un bit por cerrojo)
+    private static final int NUMERO_CERROJOS = 64;
+
+    private final int columnas;
+    private final int filas;
+    private final ArrayList<Pulga>[] celdas;
+    private final int columnasRegion;
+    private final int filasRegion;
+    private final ReentrantLock[] cerrojos;
+    private final DensidadCampo densidad;
+    // Índice de lugares libres del campo, si ya se creó
+    private volatile EspacioLibre espacioLibre;
+
+    /**
+     * Constructor para crear una nueva rejilla espacial.
+     *
+     * @param ancho Ancho del área cubierta.
+     * @param alto  Alto del área cubierta.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RejillaEspacial(int ancho, int alto) {
+        this.columnas = Math.max(1, (ancho + TAMANO_CELDA - 1) / TAMANO_CELDA);
+        this.filas = Math.max(1, (alto + TAMANO_CELDA - 1) / TAMANO_CELDA);
+        this.celdas = new ArrayList[columnas * filas];
+        this.columnasRegion = (columnas + CELDAS_POR_REGION - 1) / CELDAS_POR_REGION;
+        this.filasRegion = (filas + CELDAS_POR_REGION - 1) / CELDAS_POR_REGION;
+        this.cerrojos = new ReentrantLock[NUMERO_CERROJOS];
+        for (int i = 0; i < NUMERO_CERROJOS; i++) {
+            cerrojos[i] = new ReentrantLock();
+        }
+        this.densidad = new DensidadCampo(columnas, filas);
+    }
+
+    /**
+     * Calcula los cerrojos que protegen a todas las pulgas que pueden tocar el
+     * rectángulo dado (incluido su borde), y a las celdas donde caería una pulga
+     * con la esquina superior izquierda dentro de él.
+     *
+     * @param x     Coordenada X del rectángulo.
+     * @param y     Coordenada Y del rectángulo.
+     * @param ancho Ancho del rectángulo.
+     * @param alto  Alto del rectángulo.
+     * @return Máscara con un bit por cerrojo.
+     */
+    public long cerrojosDeArea(int x, int y, int ancho, int alto) {
+        int regionColInicio = columna(x - TAMANO_MAXIMO_PULGA) / CELDAS_POR_REGION;
+        int regionColFin = columna(x + ancho) / CELDAS_POR_REGION;
+        int regionFilaInicio = fila(y - TAMANO_MAXIMO_PULGA) / CELDAS_POR_REGION;
+        int regionFilaFin = fila(y + alto) / CELDAS_POR_REGION;
+
+        long mascara = 0;
+        for (int rf = regionFilaInicio; rf <= regionFilaFin; rf++) {
+            for (int rc = regionColInicio; rc <= regionColFin; rc++) {
+                mascara |= 1L << cerrojoDeRegion(rf, rc);
+            }
+        }
+        return mascara;
+    }
+
+    /**
+     * Toma los cerrojos de la máscara en orden creciente, para no provocar bloqueos mutuos.
+     *
+     * @param mascara Máscara de cerrojos a tomar.
+     * @return La misma máscara, para liberarla con {@link #desbloquear}.
+     */
+    public long bloquear(long mascara) {
+        for (long pendientes = mascara; pendientes != 0; pendientes &= pendientes - 1) {
+            cerrojos[Long.numberOfTrailingZeros(pendientes)].lock();
+        }
+        return mascara;
+    }
+
+    /**
+     * Toma todos los cerrojos, para operaciones sobre el campo completo.
+     *
+     * @return Máscara de todos los cerrojos.
+     */
+    public long bloquearTodo() {
+        return bloquear(-1L);
+    }
+
+    /**
+     * Libera los cerrojos de la máscara.
+     *
+     * @param mascara Máscara de cerrojos tomados.
+     */
+    public void desbloquear(long mascara) {
+        for (long pendientes = mascara; pendientes != 0; pendientes &= pendientes - 1) {
+            cerrojos[Long.numberOfTrailingZeros(pendientes)].unlock();
+        }
+    }
+
+    /**
+     * Registra una pulga en la celda correspondiente a su posición.
+     *
+     * @param pulga Pulga a registrar.
+     */
+    public void insertar(Pulga pulga) {
+        int columna = columna(pulga.getX());
+        int fila = fila(pulga.getY());
+        int indice = fila * columnas + columna;
+        ArrayList<Pulga> celda = celdas[indice];
+        if (celda == null) {
+            celda = new ArrayList<>(4);
+            celdas[indice] = celda;
+        }
+        celda.add(pulga);
+        densidad.sumar(columna, fila, 1);
+        marcarLibres(columna, fila);
+    }
+
+    /**
+     * Quita una pulga de la rejilla. Debe llamarse antes de cambiar su posición.
+     *
+     * @param pulga Pulga a quitar.
+     * @return true si la pulga estaba registrada.
+     */
+    public boolean eliminar(Pulga pulga) {
+        ArrayList<Pulga> celda = celdas[indiceCelda(pulga.getX(), pulga.getY())];
+        if (celda == null) {
+            return false;
+        }
+        for (int i = 0; i < celda.size(); i++) {
+            if (celda.get(i) == pulga) {
+                // El orden dentro de la celda no importa: se cambia por la última
+                int ultima = celda.size() - 1;
+                celda.set(i, celda.get(ultima));
+                celda.remove(ultima);
+                densidad.sumar(columna(pulga.getX()), fila(pulga.getY()), -1);
+                marcarLibres(columna(pulga.getX()), fila(pulga.getY()));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Descuenta pulgas quitadas directamente de la lista de una celda
+     * (ver {@link #getCelda}), para mantener los conteos de densidad y el índice
+     * de lugares libres.
+     *
+     * @param indice   Índice de la celda.
+     * @param cantidad Pulgas quitadas.
+     */
+    void descontar(int indice, int cantidad) {
+        if (cantidad != 0) {
+            densidad.sumar(indice % columnas, indice / columnas, -cantidad);
+            marcarLibres(indice % columnas, indice / columnas);
+        }
+    }
+
+    /**
+     * Avisa que una pulga de la lista de una celda (ver {@link #getCelda}) se cambió
+     * directamente por otra de distinto tamaño, para que el índice de lugares libres
+     * vuelva a calcular la celda. Los conteos de densidad no cambian.
+     *
+     * @param indice Índice de la celda.
+     */
+    void reemplazada(int indice) {
+        marcarLibres(indice % columnas, indice / columnas);
+    }
+
+    /**
+     * Avisa al índice de lugares libres, si existe, que cambiaron las pulgas de una celda.
+     */
+    private void marcarLibres(int columna, int fila) {
+        EspacioLibre espacio = espacioLibre;
+        if (espacio != null) {
+            espacio.marcar(columna, fila);
+        }
+    }
+
+    /**
+     * Registra el índice de lugares libres que se mantiene al insertar y quitar pulgas.
+     * El llamador debe tener todos los cerrojos.
+     *
+     * @param espacioLibre Índice de lugares libres.
+     */
+    void setEspacioLibre(EspacioLibre espacioLibre) {
+        this.espacioLibre = espacioLibre;
+    }
+
+    /**
+     * Verifica si alguna pulga registrada colisiona con la pulga dada.
+     *
+     * @param pulga   Pulga a verificar (no necesita estar registrada).
+     * @param ignorar Pulga que se excluye de la verificación, o null.
+     * @return true si hay colisión, false en caso contrario.
+     */
+    public boolean hayColision(Pulga pulga, Pulga ignorar) {
+        return hayColision(pulga.getX(), pulga.getY(), pulga.getAncho(), pulga.getAlto(),
+                ignorar == null ? pulga : ignorar);
+    }
+
+    /**
+     * Verifica si alguna pulga registrada se superpone con el rectángulo dado.
+     *
+     * @param x       Coordenada X del rectángulo.
+     * @param y       Coordenada Y del rectángulo.
+     * @param ancho   Ancho del rectángulo.
+     * @param alto    Alto del rectángulo.
+     * @param ignorar Pulga que se excluye de la verificación, o null.
+     * @return true si hay colisión, false en caso contrario.
+     */
+    public boolean hayColision(int x, int y, int ancho, int alto, Pulga ignorar) {
+        int colInicio = columna(x - TAMANO_MAXIMO_PULGA);
+        int colFin = columna(x + ancho);
+        int filaInicio = fila(y - TAMANO_MAXIMO_PULGA);
+        int filaFin = fila(y + alto);
+
+        for (int f = filaInicio; f <= filaFin; f++) {
+            for (int c = colInicio; c <= colFin; c++) {
+                ArrayList<Pulga> celda = celdas[f * columnas + c];
+                if (celda == null) {
+                    continue;
+                }
+                for (int i = 0; i < celda.size(); i++) {
+                    Pulga otra = celda.get(i);
+                    if (otra != ignorar && x < otra.x + otra.ancho && x + ancho > otra.x
+                            && y < otra.y + otra.alto && y + alto > otra.y) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Busca hasta dónde llegan a la derecha las pulgas que se superponen con el
+     * rectángulo dado, para saltar de una vez a la primera posición donde podría caber.
+     *
+     * @param x     Coordenada X del rectángulo.
+     * @param y     Coordenada Y del rectángulo.
+     * @param ancho Ancho del rectángulo.
+     * @param alto  Alto del rectángulo.
+     * @return Mayor borde derecho de las pulgas superpuestas, o -1 si no hay ninguna.
+     */
+    int bordeDerechoColision(int x, int y, int ancho, int alto) {
+        int colInicio = columna(x - TAMANO_MAXIMO_PULGA);
+        int colFin = columna(x + ancho);
+        int filaInicio = fila(y - TAMANO_MAXIMO_PULGA);
+        int filaFin = fila(y + alto);
+
+        int borde = -1;
+        for (int f = filaInicio; f <= filaFin; f++) {
+            for (int c = colInicio; c <= colFin; c++) {
+                ArrayList<Pulga> celda = celdas[f * columnas + c];
+                if (celda == null) {
+                    continue;
+                }
+                for (int i = 0; i < celda.size(); i++) {
+                    Pulga otra = celda.get(i);
+                    if (x < otra.x + otra.ancho && x + ancho > otra.x
+                            && y < otra.y + otra.alto && y + alto > otra.y) {
+                        borde = Math.max(borde, otra.x + otra.ancho);
+                    }
+                }
+            }
+        }
+        return borde;
+    }
+
+    /**
+     * Agrega al resultado las pulgas cuyo centro está a menos de la distancia dada
+     * del punto. Compara distancias al cuadrado, sin calcular raíces.
+     *
+     * @param x         Coordenada X del centro de búsqueda.
+     * @param y         Coordenada Y del centro de búsqueda.
+     * @param radio     Distancia máxima (exclusiva) al centro de la pulga.
+     * @param resultado Lista donde se agregan las pulgas encontradas.
+     */
+    public void buscarEnRadio(int x, int y, int radio, ArrayList<Pulga> resultado) {
+        int colInicio = columna(x - radio - TAMANO_MAXIMO_PULGA);
+        int colFin = columna(x + radio);
+        int filaInicio = fila(y - radio - TAMANO_MAXIMO_PULGA);
+        int filaFin = fila(y + radio);
+        int radioCuadrado = radio * radio;
+
+        for (int f = filaInicio; f <= filaFin; f++) {
+            for (int c = colInicio; c <= colFin; c++) {
+                ArrayList<Pulga> celda = celdas[f * columnas + c];
+                if (celda == null) {
+                    continue;
+                }
+                for (int i = 0; i < celda.size(); i++) {
+                    Pulga pulga = celda.get(i);
+                    int dx = pulga.getX() + pulga.getAncho() / 2 - x;
+                    int dy = pulga.getY() + pulga.getAlto() / 2 - y;
+                    if (dx * dx + dy * dy < radioCuadrado) {
+                        resultado.add(pulga);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca la pulga que contiene el punto dado. Si varias lo contienen (solo
+     * ocurre en un borde compartido), retorna la agregada más recientemente.
+     *
+     * @param x Coordenada X del punto.
+     * @param y Coordenada Y del punto.
+     * @return La pulga encontrada o null si no hay ninguna.
+     */
+    public Pulga buscarEnPunto(int x, int y) {
+        int colInicio = columna(x - TAMANO_MAXIMO_PULGA);
+        int colFin = columna(x);
+        int filaInicio = fila(y - TAMANO_MAXIMO_PULGA);
+        int filaFin = fila(y);
+        Pulga encontrada = null;
+
+        for (int f = filaInicio; f <= filaFin; f++) {
+            for (int c = colInicio; c <= colFin; c++) {
+                ArrayList<Pulga> celda = celdas[f * columnas + c];
+                if (celda == null) {
+                    continue;
+                }
+                for (int i = 0; i < celda.size(); i++) {
+                    Pulga pulga = celda.get(i);
+                    if (pulga.contienePunto(x, y)
+                            && (encontrada == null || pulga.orden > encontrada.orden)) {
+                        encontrada = pulga;
+                    }
+                }
+            }
+        }
+        return encontrada;
+    }
+
+    /**
+     * Recorre todas las pulgas región por región, tomando el cerrojo de cada
+     * región mientras la visita. El recorrido es consistente dentro de cada
+     * región, pero no congela el campo completo.
+     *
+     * @param visitante Acción que se aplica a cada pulga (no debe modificar la rejilla).
+     */
+    public void recorrer(VisitantePulgas visitante) {
+        for (int rf = 0; rf < filasRegion; rf++) {
+            for (int rc = 0; rc < columnasRegion; rc++) {
+                ReentrantLock cerrojo = cerrojos[cerrojoDeRegion(rf, rc)];
+                cerrojo.lock();
+                try {
+                    recorrerRegion(rf, rc, visitante);
+                } finally {
+                    cerrojo.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Recorre solo las pulgas que tocan el rectángulo dado, tomando el cerrojo de
+     * cada región mientras la visita, como {@link #recorrer}. Solo revisa las celdas
+     * que cubren el rectángulo, así el costo depende del área y no del campo completo.
+     *
+     * @param x         Coordenada X del rectángulo.
+     * @param y         Coordenada Y del rectángulo.
+     * @param ancho     Ancho del rectángulo.
+     * @param alto      Alto del rectángulo.
+     * @param visitante Acción que se aplica a cada pulga (no debe modificar la rejilla).
+     */
+    public void recorrerArea(int x, int y, int ancho, int alto, VisitantePulgas visitante) {
+        int colInicio = columna(x - TAMANO_MAXIMO_PULGA);
+        int colFin = columna(x + ancho);
+        int filaInicio = fila(y - TAMANO_MAXIMO_PULGA);
+        int filaFin = fila(y + alto);
+
+        for (int rf = filaInicio / CELDAS_POR_REGION; rf <= filaFin / CELDAS_POR_REGION; rf++) {
+            for (int rc = colInicio / CELDAS_POR_REGION; rc <= colFin / CELDAS_POR_REGION; rc++) {
+                ReentrantLock cerrojo = cerrojos[cerrojoDeRegion(rf, rc)];
+                cerrojo.lock();
+                try {
+                    int filaHasta = Math.min(filaFin, (rf + 1) * CELDAS_POR_REGION - 1);
+                    int colHasta = Math.min(colFin, (rc + 1) * CELDAS_POR_REGION - 1);
+                    for (int f = Math.max(filaInicio, rf * CELDAS_POR_REGION); f <= filaHasta; f++) {
+                        for (int c = Math.max(colInicio, rc * CELDAS_POR_REGION); c <= colHasta; c++) {
+                            ArrayList<Pulga> celda = celdas[f * columnas + c];
+                            if (celda == null) {
+                                continue;
+                            }
+                            for (int i = 0; i < celda.size(); i++) {
+                                Pulga pulga = celda.get(i);
+                                if (pulga.x < x + ancho && pulga.x + pulga.ancho > x
+                                        && pulga.y < y + alto && pulga.y + pulga.alto > y) {
+                                    visitante.visitar(pulga);
+                                }
+                            }
+                        }
+                    }
+                } finally {
+                    cerrojo.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene los conteos de pulgas por zona.
+     *
+     * @return Conteos de densidad de la rejilla.
+     */
+    public DensidadCampo getDensidad() {
+        return densidad;
+    }
+
+    /**
+     * Obtiene la lista de pulgas de una celda, para modificarla durante un
+     * recorrido completo. El llamador debe tener todos los cerrojos; si quita
+     * pulgas de la lista, debe descontarlas con {@link #descontar}, y si cambia una
+     * por otra de distinto tamaño, avisarlo con {@link #reemplazada}.
+     *
+     * @param indice Índice de la celda.
+     * @return Lista de pulgas de la celda o null si nunca tuvo pulgas.
+     */
+    ArrayList<Pulga> getCelda(int indice) {
+        return celdas[indice];
+    }
+
+    /**
+     * Obtiene el número total de celdas de la rejilla.
+     *
+     * @return Número de celdas.
+     */
+    int getNumeroCeldas() {
+        return celdas.length;
+    }
+
+    /**
+     * Obtiene el número de columnas de celdas.
+     *
+     * @return Columnas de la rejilla.
+     */
+    int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Obtiene el número de filas de celdas.
+     *
+     * @return Filas de la rejilla.
+     */
+    int getFilas() {
+        return filas;
+    }
+
+    /**
+     * Vacía la rejilla. El llamador debe tener todos los cerrojos.
+     */
+    public void limpiar() {
+        java.util.Arrays.fill(celdas, null);
+        densidad.limpiar();
+        EspacioLibre espacio = espacioLibre;
+        if (espacio != null) {
+            espacio.marcarTodo();
+        }
+    }
+
+    private void recorrerRegion(int rf, int rc, VisitantePulgas visitante) {
+        int filaFin = Math.min(filas, (rf + 1) * CELDAS_POR_REGION);
+        int colFin = Math.min(columnas, (rc + 1) * CELDAS_POR_REGION);
+        for (int f = rf * CELDAS_POR_REGION; f < filaFin; f++) {
+            for (int c = rc * CELDAS_POR_REGION; c < colFin; c++) {
+                ArrayList<Pulga> celda = celdas[f * columnas + c];
+                if (celda == null) {
+                    continue;
+                }
+                for (int i = 0; i < celda.size(); i++) {
+                    visitante.visitar(celda.get(i));
+                }
+            }
+        }
+    }
+
+    private int cerrojoDeRegion(int regionFila, int regionColumna) {
+        return (regionFila * columnasRegion + regionColumna) % NUMERO_CERROJOS;
+    }
+
+    int columna(int x) {
+        return Math.max(0, Math.min(columnas - 1, Math.floorDiv(x, TAMANO_CELDA)));
+    }
+
+    int fila(int y) {
+        return Math.max(0, Math.min(filas - 1, Math.floorDiv(y, TAMANO_CELDA)));
+    }
+
+    private int indiceCelda(int x, int y) {
+        return fila(y) * columnas + columna(x);
+    }
+}
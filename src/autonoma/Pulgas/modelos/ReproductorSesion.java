@@ -0,0 +1,247 @@
+package autonoma.Pulgas.modelos;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reproduce una sesión grabada por {@link GrabadorSesion}, sin interfaz y tan rápido
+ * como se pueda.
+ *
+ * Crea un juego nuevo con la semilla y el tamaño de campo de la grabación, sin
+ * generador automático ni persistencia, y avanza su {@link SimulacionJuego} paso a
+ * paso en el hilo que llama, entregando cada acción y cada posición del cursor en el mismo paso en que se
+ * grabaron. En cada control compara la huella del campo y el puntaje con los
+ * grabados; el primer paso en que no coinciden queda en {@link #getPasoDivergente()}.
+ */
+public class ReproductorSesion {
+    private final DataInputStream entrada;
+    private final long semilla;
+    private final Juego juego;
+    private final SimulacionJuego simulacion;
+
+    private int mouseX;
+    private int mouseY;
+    private long pasos;
+    private long eventos;
+    private long controles;
+    private long pasoDivergente = -1;
+    private boolean completa;
+    private long huellaFinal;
+    private int puntajeFinal;
+    private long nanos;
+
+    /**
+     * Constructor para crear un nuevo reproductor. Lee la cabecera y prepara el juego.
+     *
+     * @param entrada Flujo con la sesión grabada; se cierra al terminar de reproducir.
+     * @throws IOException Si no se pudo leer o no es una sesión grabada.
+     */
+    public ReproductorSesion(InputStream entrada) throws IOException {
+        this.entrada = new DataInputStream(new BufferedInputStream(entrada));
+        if (this.entrada.readInt() != GrabadorSesion.MAGICO) {
+            throw new IOException("No es una sesión grabada");
+        }
+        int version = this.entrada.readUnsignedByte();
+        if (version != GrabadorSesion.VERSION) {
+            throw new IOException("Versión de sesión no soportada: " + version);
+        }
+        this.semilla = this.entrada.readLong();
+        int ancho = (int) leerVariable();
+        int alto = (int) leerVariable();
+
+        try {
+            this.juego = new Juego(null, ancho, alto);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Tamaño de campo inválido en la sesión: " + ancho + "x" + alto, e);
+        }
+        juego.setGeneracionAutomatica(false);
+        juego.sembrar(semilla);
+        this.simulacion = new SimulacionJuego(juego);
+    }
+
+    /**
+     * Reproduce la sesión completa. Se detiene en el primer control que no coincide.
+     *
+     * @return true si la sesión se reprodujo entera y todos los controles coincidieron.
+     * @throws IOException Si no se pudo leer la grabación.
+     */
+    public boolean reproducir() throws IOException {
+        long inicio = System.nanoTime();
+        long paso = 0;
+        long pasoEvento = 0;
+        try {
+            while (true) {
+                byte tipo;
+                try {
+                    // Los pasos se cuentan desde el evento anterior
+                    pasoEvento += leerVariable();
+                    tipo = entrada.readByte();
+                } catch (EOFException e) {
+                    // Grabación sin final (por ejemplo, la aplicación se cerró de golpe)
+                    break;
+                }
+                // Avanzar hasta el paso del evento
+                while (paso < pasoEvento) {
+                    simulacion.actualizar(paso++);
+                }
+                eventos++;
+                switch (tipo) {
+                    case GrabadorSesion.MOUSE:
+                        mouseX += zagzig(leerVariable());
+                        mouseY += zagzig(leerVariable());
+                        simulacion.actualizarPosicionMouse(mouseX, mouseY);
+                        break;
+                    case GrabadorSesion.SIN_MOUSE:
+                        simulacion.quitarMouse();
+                        break;
+                    case AccionJuego.DISPARO:
+                        int x = mouseX + zagzig(leerVariable());
+                        int y = mouseY + zagzig(leerVariable());
+                        simulacion.enviarAccion(tipo, x, y);
+                        break;
+                    case GrabadorSesion.CONTROL:
+                    case GrabadorSesion.FIN:
+                        // El control se grabó al final de su paso: se ejecuta ese paso, si falta
+                        // (el final puede ir en el mismo paso que un control), y se compara
+                        long huella = entrada.readLong();
+                        int puntaje = (int) leerVariable();
+                        while (paso <= pasoEvento) {
+                            simulacion.actualizar(paso++);
+                        }
+                        huellaFinal = juego.getCampo().calcularHuella();
+                        puntajeFinal = juego.getPuntaje();
+                        controles++;
+                        if (huella != huellaFinal || puntaje != puntajeFinal) {
+                            pasoDivergente = pasoEvento;
+                            return false;
+                        }
+                        if (tipo == GrabadorSesion.FIN) {
+                            completa = true;
+                            return true;
+                        }
+                        break;
+                    default:
+                        // Acción del juego, se aplica al inicio del paso como al grabar
+                        simulacion.enviarAccion(tipo);
+                        break;
+                }
+            }
+            return false;
+        } finally {
+            pasos = paso;
+            nanos = System.nanoTime() - inicio;
+            juego.getGenerador().detener();
+            entrada.close();
+        }
+    }
+
+    /**
+     * Obtiene la semilla de la partida grabada.
+     *
+     * @return Semilla.
+     */
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Obtiene el juego que se reproduce, para consultar su estado al terminar.
+     *
+     * @return Juego reproducido.
+     */
+    public Juego getJuego() {
+        return juego;
+    }
+
+    /**
+     * Obtiene el número de pasos de simulación reproducidos.
+     *
+     * @return Pasos.
+     */
+    public long getPasos() {
+        return pasos;
+    }
+
+    /**
+     * Obtiene el número de eventos leídos de la grabación.
+     *
+     * @return Eventos.
+     */
+    public long getEventos() {
+        return eventos;
+    }
+
+    /**
+     * Obtiene el número de controles comparados, incluido el final.
+     *
+     * @return Controles.
+     */
+    public long getControles() {
+        return controles;
+    }
+
+    /**
+     * Obtiene el primer paso cuyo estado no coincidió con el grabado.
+     *
+     * @return Paso divergente, o -1 si todos coincidieron.
+     */
+    public long getPasoDivergente() {
+        return pasoDivergente;
+    }
+
+    /**
+     * Indica si se llegó al final grabado de la sesión.
+     *
+     * @return true si la grabación estaba completa.
+     */
+    public boolean estaCompleta() {
+        return completa;
+    }
+
+    /**
+     * Obtiene la huella del campo en el último control comparado.
+     *
+     * @return Huella del campo.
+     */
+    public long getHuellaFinal() {
+        return huellaFinal;
+    }
+
+    /**
+     * Obtiene el puntaje en el último control comparado.
+     *
+     * @return Puntaje.
+     */
+    public int getPuntajeFinal() {
+        return puntajeFinal;
+    }
+
+    /**
+     * Obtiene la velocidad de la reproducción.
+     *
+     * @return Pasos de simulación por segundo.
+     */
+    public double getPasosPorSegundo() {
+        return nanos > 0 ? pasos * 1_000_000_000.0 / nanos : 0;
+    }
+
+    private long leerVariable() throws IOException {
+        long valor = 0;
+        int desplazamiento = 0;
+        int b;
+        do {
+            b = entrada.readUnsignedByte();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while ((b & 0x80) != 0 && desplazamiento < 64);
+        return valor;
+    }
+
+    private static int zagzig(long valor) {
+        int sinSigno = (int) valor;
+        return (sinSigno >>> 1) ^ -(sinSigno & 1);
+    }
+}
@@ -0,0 +1,59 @@
+package autonoma.Pulgas.modelos;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Resumen inmutable de un {@link HistogramaLatencia}. JMX lo muestra como un dato
+ * compuesto con un campo por cada getter.
+ */
+public final class ResumenLatencia {
+    private final long cantidad;
+    private final double promedioMs;
+    private final double p50Ms;
+    private final double p99Ms;
+    private final double maximoMs;
+
+    /**
+     * Constructor para crear un nuevo resumen.
+     *
+     * @param cantidad   Número de duraciones registradas.
+     * @param promedioMs Duración promedio en milisegundos.
+     * @param p50Ms      Mediana estimada en milisegundos.
+     * @param p99Ms      Percentil 99 estimado en milisegundos.
+     * @param maximoMs   Duración máxima en milisegundos.
+     */
+    @ConstructorProperties({"cantidad", "promedioMs", "p50Ms", "p99Ms", "maximoMs"})
+    public ResumenLatencia(long cantidad, double promedioMs, double p50Ms, double p99Ms, double maximoMs) {
+        this.cantidad = cantidad;
+        this.promedioMs = promedioMs;
+        this.p50Ms = p50Ms;
+        this.p99Ms = p99Ms;
+        this.maximoMs = maximoMs;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public double getPromedioMs() {
+        return promedioMs;
+    }
+
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    public double getMaximoMs() {
+        return maximoMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d, promedio %.3f ms (p50 %.3f, p99 %.3f, máx %.3f)",
+                cantidad, promedioMs, p50Ms, p99Ms, maximoMs);
+    }
+}
@@ -0,0 +1,375 @@
+package autonoma.Pulgas.modelos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * Resuelve el salto de todas las pulgas del campo repartiendo el trabajo entre varios
+ * hilos con fork-join (ver {@link Campo#hacerSaltarPulgas()}).
+ *
+ * El campo se divide en franjas horizontales de {@link #FILAS_POR_FRANJA} filas de
+ * celdas, más altas que la pulga más grande. Cada pulga elige un destino al azar en
+ * todo el campo y queda asignada a la franja donde cae su esquina superior izquierda;
+ * si el destino está ocupado, reintenta dentro de la misma franja. Una pulga colocada
+ * en una franja solo puede invadir la franja siguiente, así que primero se colocan en
+ * paralelo las franjas pares y después las impares: dos franjas que se colocan a la vez
+ * nunca se tocan y los conflictos en los bordes siempre se resuelven igual.
+ *
+ * Ninguna pulga puede caer sobre el lugar que ocupaba otra al empezar el salto. Así, la
+ * pulga que no encuentra lugar en sus intentos se queda donde estaba sin chocar con
+ * nadie. El resultado depende solo de la fuente aleatoria y del estado del campo, no del
+ * número de hilos: los destinos salen de flujos por bloque de pulgas y los reintentos de
+ * un flujo por franja, y cada franja coloca sus pulgas siempre en el mismo orden.
+ *
+ * No es seguro para hilos: el llamador debe tener todos los cerrojos de la rejilla.
+ */
+final class SaltoParalelo {
+    // Filas de celdas por franja (4 x 64 px, más que la pulga más grande)
+    static final int FILAS_POR_FRANJA = 4;
+    private static final int MAXIMO_INTENTOS = 50;
+    // Pulgas por bloque de destinos; cada bloque usa su propio flujo aleatorio
+    private static final int PULGAS_POR_BLOQUE = 4096;
+    // Con menos pulgas que esto todo se hace en el hilo que llama (el resultado es el mismo)
+    private static final int MINIMO_PARALELO = 8192;
+    // Los flujos de las franjas van después de los de los bloques
+    private static final long FLUJO_FRANJAS = 1L << 40;
+    private static final int SIN_PULGA = -1;
+    private static final MetricasJuego METRICAS = MetricasJuego.getGlobal();
+
+    private final RejillaEspacial rejilla;
+    private final int ancho;
+    private final int alto;
+    private final int columnas;
+    private final int filas;
+    private final int franjas;
+    private final int alturaFranja;
+    private volatile ForkJoinPool ejecutor = ForkJoinPool.commonPool();
+
+    // Arreglos reutilizados entre saltos; crecen con el número de pulgas
+    private Pulga[] pulgas = new Pulga[0];
+    // Destino elegido de cada pulga y, al final, su nueva posición
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+    private boolean[] movidas = new boolean[0];
+    // Pulgas agrupadas por franja de destino, en el orden en que se colocan
+    private int[] porDestino = new int[0];
+    // Rejilla temporal de las nuevas posiciones: primera pulga de cada celda y la siguiente de cada pulga
+    private final int[] cabeza;
+    private int[] siguiente = new int[0];
+    private final int[] inicioOrigen;
+    private final int[] inicioDestino;
+    private final int[] movidasPorFranja;
+
+    /**
+     * Constructor para crear un nuevo resolutor de saltos.
+     *
+     * @param rejilla Rejilla de las pulgas del campo.
+     * @param ancho   Ancho del campo.
+     * @param alto    Alto del campo.
+     */
+    SaltoParalelo(RejillaEspacial rejilla, int ancho, int alto) {
+        this.rejilla = rejilla;
+        this.ancho = ancho;
+        this.alto = alto;
+        this.columnas = rejilla.getColumnas();
+        this.filas = rejilla.getFilas();
+        this.franjas = (filas + FILAS_POR_FRANJA - 1) / FILAS_POR_FRANJA;
+        this.alturaFranja = FILAS_POR_FRANJA * RejillaEspacial.TAMANO_CELDA;
+        this.cabeza = new int[columnas * filas];
+        this.inicioOrigen = new int[franjas + 1];
+        this.inicioDestino = new int[franjas + 1];
+        this.movidasPorFranja = new int[franjas];
+    }
+
+    /**
+     * Cambia el grupo de hilos que resuelve los saltos (por defecto, el común).
+     *
+     * @param ejecutor Grupo de hilos fork-join.
+     */
+    void setEjecutor(ForkJoinPool ejecutor) {
+        this.ejecutor = ejecutor;
+    }
+
+    /**
+     * Hace saltar a todas las pulgas de la rejilla.
+     *
+     * @param fuente Fuente aleatoria de este salto.
+     * @param total  Número aproximado de pulgas, para decidir si vale la pena repartir el trabajo.
+     * @return Número de pulgas que cambiaron de lugar.
+     */
+    int resolver(FuenteAleatoria fuente, int total) {
+        if (total == 0) {
+            return 0;
+        }
+        inicioOrigen[0] = 0;
+        boolean paralelo = total >= MINIMO_PARALELO;
+
+        // Recoger las pulgas por franja de origen y vaciar la rejilla temporal
+        porFranjas(paralelo, 0, 1, this::contarOrigen);
+        for (int f = 0; f < franjas; f++) {
+            inicioOrigen[f + 1] += inicioOrigen[f];
+        }
+        int n = inicioOrigen[franjas];
+        preparar(n);
+        porFranjas(paralelo, 0, 1, this::recogerOrigen);
+
+        // Elegir los destinos, por bloques de pulgas
+        int bloques = (n + PULGAS_POR_BLOQUE - 1) / PULGAS_POR_BLOQUE;
+        porIndices(paralelo, bloques, bloque -> elegirDestinos(fuente, bloque, n));
+        agruparPorDestino(n);
+
+        // Colocar: franjas pares y luego impares
+        porFranjas(paralelo, 0, 2, franja -> colocarFranja(fuente, franja));
+        porFranjas(paralelo, 1, 2, franja -> colocarFranja(fuente, franja));
+
+        // Aplicar a la rejilla: quitar de las celdas de origen y luego insertar en las de destino
+        porFranjas(paralelo, 0, 1, this::quitarMovidas);
+        porFranjas(paralelo, 0, 1, this::insertarMovidas);
+
+        int movidasTotal = 0;
+        for (int f = 0; f < franjas; f++) {
+            movidasTotal += movidasPorFranja[f];
+        }
+        return movidasTotal;
+    }
+
+    private void preparar(int n) {
+        if (pulgas.length < n) {
+            int capacidad = Math.max(n, pulgas.length + pulgas.length / 2);
+            pulgas = new Pulga[capacidad];
+            xs = new int[capacidad];
+            ys = new int[capacidad];
+            movidas = new boolean[capacidad];
+            porDestino = new int[capacidad];
+            siguiente = new int[capacidad];
+        }
+    }
+
+    /**
+     * Cuenta las pulgas registradas en las celdas de una franja.
+     */
+    private void contarOrigen(int franja) {
+        int cuenta = 0;
+        for (int c = primeraCelda(franja); c < primeraCelda(franja + 1); c++) {
+            ArrayList<Pulga> celda = rejilla.getCelda(c);
+            if (celda != null) {
+                cuenta += celda.size();
+            }
+        }
+        inicioOrigen[franja + 1] = cuenta;
+    }
+
+    /**
+     * Copia las pulgas de una franja en el orden de sus celdas y vacía su parte de la rejilla temporal.
+     */
+    private void recogerOrigen(int franja) {
+        int i = inicioOrigen[franja];
+        int desde = primeraCelda(franja);
+        int hasta = primeraCelda(franja + 1);
+        for (int c = desde; c < hasta; c++) {
+            ArrayList<Pulga> celda = rejilla.getCelda(c);
+            if (celda != null) {
+                for (int j = 0; j < celda.size(); j++) {
+                    pulgas[i++] = celda.get(j);
+                }
+            }
+        }
+        Arrays.fill(cabeza, desde, hasta, SIN_PULGA);
+    }
+
+    /**
+     * Elige al azar el destino de cada pulga de un bloque, en todo el campo.
+     */
+    private void elegirDestinos(FuenteAleatoria fuente, int bloque, int n) {
+        RandomGenerator random = fuente.flujo(bloque);
+        int hasta = Math.min(n, (bloque + 1) * PULGAS_POR_BLOQUE);
+        for (int i = bloque * PULGAS_POR_BLOQUE; i < hasta; i++) {
+            Pulga pulga = pulgas[i];
+            xs[i] = random.nextInt(ancho - pulga.ancho);
+            ys[i] = random.nextInt(alto - pulga.alto);
+            movidas[i] = false;
+        }
+    }
+
+    /**
+     * Ordena las pulgas por franja de destino (conteo estable: dentro de cada franja
+     * se conserva el orden de recogida).
+     */
+    private void agruparPorDestino(int n) {
+        Arrays.fill(inicioDestino, 0);
+        for (int i = 0; i < n; i++) {
+            inicioDestino[ys[i] / alturaFranja + 1]++;
+        }
+        for (int f = 0; f < franjas; f++) {
+            inicioDestino[f + 1] += inicioDestino[f];
+        }
+        // Se usa movidasPorFranja como posición de escritura de cada franja
+        System.arraycopy(inicioDestino, 0, movidasPorFranja, 0, franjas);
+        for (int i = 0; i < n; i++) {
+            porDestino[movidasPorFranja[ys[i] / alturaFranja]++] = i;
+        }
+    }
+
+    /**
+     * Coloca las pulgas cuyo destino está en la franja. Las franjas vecinas no se
+     * modifican mientras tanto (se colocan en la otra mitad de la pasada).
+     */
+    private void colocarFranja(FuenteAleatoria fuente, int franja) {
+        RandomGenerator reintentos = fuente.flujo(FLUJO_FRANJAS + franja);
+        int yMinimo = franja * alturaFranja;
+        int colocadas = 0;
+        int verificaciones = 0;
+        for (int k = inicioDestino[franja]; k < inicioDestino[franja + 1]; k++) {
+            int intentos = colocar(porDestino[k], yMinimo, reintentos);
+            if (intentos > 0) {
+                colocadas++;
+            }
+            verificaciones += Math.abs(intentos);
+        }
+        movidasPorFranja[franja] = colocadas;
+        METRICAS.contarColisiones(verificaciones);
+    }
+
+    /**
+     * Busca lugar para una pulga: su destino y, si está ocupado, reintentos en la franja.
+     *
+     * @return Intentos usados, en negativo si no encontró lugar.
+     */
+    private int colocar(int i, int yMinimo, RandomGenerator reintentos) {
+        Pulga pulga = pulgas[i];
+        int anchoPulga = pulga.ancho;
+        int altoPulga = pulga.alto;
+        int x = xs[i];
+        int y = ys[i];
+        int rangoY = Math.min(yMinimo + alturaFranja, alto - altoPulga) - yMinimo;
+        for (int intento = 0; intento < MAXIMO_INTENTOS; intento++) {
+            if (intento > 0) {
+                x = reintentos.nextInt(ancho - anchoPulga);
+                y = yMinimo + reintentos.nextInt(rangoY);
+            }
+            // Ni sobre las posiciones iniciales (la rejilla aún no cambió) ni sobre las nuevas
+            if (!rejilla.hayColision(x, y, anchoPulga, altoPulga, pulga)
+                    && !chocaConNuevas(x, y, anchoPulga, altoPulga)) {
+                xs[i] = x;
+                ys[i] = y;
+                movidas[i] = true;
+                int celda = rejilla.fila(y) * columnas + rejilla.columna(x);
+                siguiente[i] = cabeza[celda];
+                cabeza[celda] = i;
+                return intento + 1;
+            }
+        }
+        return -MAXIMO_INTENTOS;
+    }
+
+    private boolean chocaConNuevas(int x, int y, int anchoPulga, int altoPulga) {
+        int colInicio = rejilla.columna(x - RejillaEspacial.TAMANO_MAXIMO_PULGA);
+        int colFin = rejilla.columna(x + anchoPulga);
+        int filaInicio = rejilla.fila(y - RejillaEspacial.TAMANO_MAXIMO_PULGA);
+        int filaFin = rejilla.fila(y + altoPulga);
+        for (int f = filaInicio; f <= filaFin; f++) {
+            for (int c = colInicio; c <= colFin; c++) {
+                for (int j = cabeza[f * columnas + c]; j != SIN_PULGA; j = siguiente[j]) {
+                    Pulga otra = pulgas[j];
+                    if (x < xs[j] + otra.ancho && x + anchoPulga > xs[j]
+                            && y < ys[j] + otra.alto && y + altoPulga > ys[j]) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Quita de las celdas de la franja las pulgas que se movieron. Las celdas se
+     * recorren en el mismo orden que al recogerlas, así cada pulga conserva su índice.
+     */
+    private void quitarMovidas(int franja) {
+        int i = inicioOrigen[franja];
+        for (int c = primeraCelda(franja); c < primeraCelda(franja + 1); c++) {
+            ArrayList<Pulga> celda = rejilla.getCelda(c);
+            if (celda == null) {
+                continue;
+            }
+            int quedan = 0;
+            for (int j = 0; j < celda.size(); j++) {
+                Pulga pulga = celda.get(j);
+                if (!movidas[i++]) {
+                    celda.set(quedan++, pulga);
+                }
+            }
+            rejilla.descontar(c, celda.size() - quedan);
+            for (int ultima = celda.size() - 1; ultima >= quedan; ultima--) {
+                celda.remove(ultima);
+            }
+        }
+    }
+
+    /**
+     * Inserta en la franja las pulgas que se movieron a ella, con su nueva posición.
+     */
+    private void insertarMovidas(int franja) {
+        for (int k = inicioDestino[franja]; k < inicioDestino[franja + 1]; k++) {
+            int i = porDestino[k];
+            Pulga pulga = pulgas[i];
+            pulgas[i] = null; // No retener pulgas que luego mueran
+            if (movidas[i]) {
+                pulga.setPosicion(xs[i], ys[i]);
+                rejilla.insertar(pulga);
+            }
+        }
+    }
+
+    private int primeraCelda(int franja) {
+        return Math.min(filas, franja * FILAS_POR_FRANJA) * columnas;
+    }
+
+    /**
+     * Ejecuta el trabajo para las franjas primera, primera + paso, ..., en paralelo o en el hilo que llama.
+     */
+    private void porFranjas(boolean paralelo, int primera, int paso, IntConsumer trabajo) {
+        int cantidad = (franjas - primera + paso - 1) / paso;
+        porIndices(paralelo, cantidad, k -> trabajo.accept(primera + k * paso));
+    }
+
+    private void porIndices(boolean paralelo, int cantidad, IntConsumer trabajo) {
+        if (!paralelo || cantidad <= 1) {
+            for (int k = 0; k < cantidad; k++) {
+                trabajo.accept(k);
+            }
+        } else {
+            ejecutor.invoke(new Tarea(0, cantidad, trabajo));
+        }
+    }
+
+    /**
+     * Divide un rango de índices en mitades hasta llegar a uno por tarea.
+     */
+    private static final class Tarea extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int desde;
+        private final int hasta;
+        private final IntConsumer trabajo;
+
+        Tarea(int desde, int hasta, IntConsumer trabajo) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.trabajo = trabajo;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde == 1) {
+                trabajo.accept(desde);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new Tarea(desde, medio, trabajo), new Tarea(medio, hasta, trabajo));
+        }
+    }
+}
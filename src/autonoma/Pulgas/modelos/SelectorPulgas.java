@@ -0,0 +1,24 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Interfaz que decide, en un único recorrido del campo, qué pulgas son
+ * alcanzadas por un ataque masivo.
+ */
+public interface SelectorPulgas {
+    
+    /**
+     * Se llama una vez al empezar el recorrido, con el campo ya bloqueado.
+     * 
+     * @param totalPulgas Número de pulgas que se van a recorrer.
+     */
+    void comenzar(int totalPulgas);
+    
+    /**
+     * Indica si la pulga con el índice dado es alcanzada.
+     * Se llama una vez por pulga, con índices de 0 a totalPulgas - 1 en orden.
+     * 
+     * @param indice Posición de la pulga en el recorrido.
+     * @return true si la pulga debe ser impactada.
+     */
+    boolean seleccionar(int indice);
+}
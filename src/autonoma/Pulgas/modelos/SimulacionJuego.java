@@ -0,0 +1,347 @@
+package autonoma.Pulgas.modelos;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Ejecuta la lógica del juego en un hilo de simulación propio, fuera del hilo de Swing.
+ * Las acciones del jugador llegan como comandos que se aplican al inicio de cada paso,
+ * y al final de cada paso se publica una instantánea del campo para dibujarla.
+ * 
+ * Las acciones enviadas con {@link #enviarAccion(byte)} (las del jugador y las pulgas
+ * del generador) y los cambios del cursor pueden grabarse con {@link #grabar(OutputStream, long)}
+ * para reproducir la sesión después con {@link ReproductorSesion}.
+ * 
+ * Si el área de dibujo indica su {@link VistaCampo}, cada instantánea copia solo las
+ * pulgas visibles, así el costo de cada paso no crece con el tamaño del campo; si la
+ * vista está tan alejada que hay más pulgas por píxel que el umbral de densidad,
+ * copia en su lugar el mapa de densidad de la zona.
+ */
+public class SimulacionJuego implements SistemaSimulacion {
+    // Pasos de simulación por segundo
+    private static final int PASOS_POR_SEGUNDO = 60;
+    // Pulgas por píxel de pantalla a partir de las que se muestra el mapa de densidad
+    private static final double UMBRAL_DENSIDAD = 0.02;
+    // Valor que indica que el cursor está fuera del campo
+    private static final long SIN_MOUSE = Long.MIN_VALUE;
+    
+    private final Juego juego;
+    private final ConcurrentLinkedQueue<Runnable> comandos;
+    private final BufferInstantaneas instantaneas;
+    private final MotorSimulacion motor;
+    // Cambios del campo incluidos en la instantánea que se está llenando (solo hilo de simulación)
+    private final RegionSucia cambiosPaso;
+    // Cambios ya incluidos en alguna instantánea publicada, pendientes de dibujar
+    private final RegionSucia cambiosPublicados;
+    // Última posición del cursor empaquetada (x en los 32 bits altos, y en los bajos)
+    private volatile long mouse = SIN_MOUSE;
+    // Parte del campo que se muestra; null para copiar el campo completo
+    private volatile VistaCampo vista;
+    private volatile double umbralDensidad = UMBRAL_DENSIDAD;
+    
+    // Grabación en curso; solo el hilo de simulación la cambia
+    private volatile GrabadorSesion grabador;
+    private long pasoActual;
+    private long pasoBase;
+    private long mouseGrabado;
+    private boolean mouseConocido;
+    private volatile boolean terminarGrabacion;
+    
+    /**
+     * Constructor para crear una nueva simulación del juego.
+     * 
+     * @param juego Juego que se simula.
+     */
+    public SimulacionJuego(Juego juego) {
+        this.juego = juego;
+        this.comandos = new ConcurrentLinkedQueue<>();
+        this.instantaneas = new BufferInstantaneas();
+        this.motor = new MotorSimulacion(this, PASOS_POR_SEGUNDO, true);
+        this.cambiosPaso = new RegionSucia();
+        this.cambiosPublicados = new RegionSucia();
+        // Las pulgas del generador pasan por la cola, así se aplican en este hilo y se graban
+        juego.getGenerador().setEntrega(accion -> enviarAccion((byte) accion));
+    }
+    
+    /**
+     * Inicia el hilo de simulación.
+     */
+    public void iniciar() {
+        motor.iniciar();
+    }
+    
+    /**
+     * Detiene el hilo de simulación y termina la grabación, si hay una en curso.
+     */
+    public void detener() {
+        motor.detener();
+        if (grabador != null) {
+            terminarGrabacion();
+        }
+    }
+    
+    /**
+     * Envía un comando para que se ejecute en el hilo de simulación al inicio del siguiente paso.
+     * 
+     * @param comando Acción sobre el juego.
+     */
+    public void enviar(Runnable comando) {
+        comandos.add(comando);
+    }
+    
+    /**
+     * Envía una acción de {@link AccionJuego} para aplicarla al inicio del siguiente paso.
+     * A diferencia de {@link #enviar(Runnable)}, la acción se graba si hay una grabación en curso.
+     * 
+     * @param accion Código de la acción.
+     */
+    public void enviarAccion(byte accion) {
+        enviarAccion(accion, 0, 0);
+    }
+    
+    /**
+     * Envía una acción de {@link AccionJuego} con un punto (el disparo de la pistola).
+     * 
+     * @param accion Código de la acción.
+     * @param x      Coordenada X.
+     * @param y      Coordenada Y.
+     */
+    public void enviarAccion(byte accion, int x, int y) {
+        comandos.add(() -> aplicarAccion(accion, x, y));
+    }
+    
+    /**
+     * Empieza a grabar la sesión al inicio del siguiente paso: fija la semilla del juego,
+     * lo reinicia y desde ahí graba cada acción y cada cambio del cursor.
+     * 
+     * @param salida  Flujo donde se graba; se cierra al terminar la grabación.
+     * @param semilla Semilla de la partida grabada.
+     */
+    public void grabar(OutputStream salida, long semilla) {
+        comandos.add(() -> {
+            try {
+                juego.sembrar(semilla);
+                Campo campo = juego.getCampo();
+                grabador = new GrabadorSesion(salida, semilla, campo.getAnchoCampo(), campo.getAltoCampo());
+                pasoBase = pasoActual;
+                mouseConocido = false;
+                terminarGrabacion = false;
+            } catch (IOException e) {
+                System.err.println("No se pudo empezar a grabar la sesión: " + e.getMessage());
+                return;
+            }
+            aplicarAccion(AccionJuego.REINICIAR, 0, 0);
+        });
+    }
+    
+    /**
+     * Termina la grabación al final del paso en curso (o enseguida si la simulación
+     * está detenida), guardando el estado final para comprobarlo al reproducir.
+     */
+    public void terminarGrabacion() {
+        if (motor.estaActivo()) {
+            terminarGrabacion = true;
+        } else if (grabador != null) {
+            cerrarGrabacion();
+        }
+    }
+    
+    /**
+     * Registra la posición del cursor. Solo se aplica la última posición de cada paso.
+     * 
+     * @param x Posición X del cursor.
+     * @param y Posición Y del cursor.
+     */
+    public void actualizarPosicionMouse(int x, int y) {
+        mouse = ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Indica que el cursor salió del campo.
+     */
+    public void quitarMouse() {
+        mouse = SIN_MOUSE;
+    }
+    
+    /**
+     * Indica qué parte del campo se muestra; desde el siguiente paso las instantáneas
+     * solo copian las pulgas de esa parte y la llevan para dibujarlas a su escala.
+     * 
+     * @param vista Vista del área de dibujo, o null para copiar el campo completo.
+     */
+    public void setVista(VistaCampo vista) {
+        this.vista = vista;
+    }
+    
+    public VistaCampo getVista() {
+        return vista;
+    }
+    
+    /**
+     * Cambia las pulgas por píxel de pantalla a partir de las que se dibuja el mapa de
+     * densidad en lugar de cada pulga.
+     * 
+     * @param umbral Pulgas por píxel, o {@link Double#POSITIVE_INFINITY} para no usar nunca el mapa.
+     */
+    public void setUmbralDensidad(double umbral) {
+        if (!(umbral >= 0)) {
+            throw new IllegalArgumentException("El umbral de densidad no puede ser negativo: " + umbral);
+        }
+        this.umbralDensidad = umbral;
+    }
+    
+    public double getUmbralDensidad() {
+        return umbralDensidad;
+    }
+    
+    /**
+     * Obtiene la última instantánea publicada del campo.
+     * Debe llamarse siempre desde el mismo hilo (el de dibujo).
+     * 
+     * @return Última instantánea completa.
+     */
+    public InstantaneaCampo getInstantanea() {
+        return instantaneas.leerUltima();
+    }
+    
+    /**
+     * Pasa al hilo de dibujo las zonas que cambiaron en las instantáneas ya publicadas.
+     * La última instantánea siempre incluye esos cambios.
+     * 
+     * @param destino Región que recibe los cambios.
+     */
+    public void tomarCambios(RegionSucia destino) {
+        cambiosPublicados.transferirA(destino);
+    }
+    
+    /**
+     * Avanza un paso: aplica los comandos pendientes y la posición del cursor,
+     * mueve las pulgas que esquivan el cursor y publica la instantánea.
+     * 
+     * @param paso Número del paso actual.
+     */
+    @Override
+    public void actualizar(long paso) {
+        pasoActual = paso;
+        if (grabador != null) {
+            grabador.setPaso(paso - pasoBase);
+        }
+        Runnable comando;
+        while ((comando = comandos.poll()) != null) {
+            try {
+                comando.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error al ejecutar una acción del juego: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        
+        Campo campo = juego.getCampo();
+        long posicion = mouse;
+        if (posicion == SIN_MOUSE) {
+            campo.quitarMouse();
+        } else {
+            campo.actualizarPosicionMouse((int) (posicion >> 32), (int) posicion);
+        }
+        if (grabador != null && (!mouseConocido || posicion != mouseGrabado)) {
+            grabarMouse(posicion);
+        }
+        
+        // Actualizar las pulgas para que reaccionen al cursor si el juego está activo
+        if (juego.esJuegoActivo()) {
+            campo.actualizarPulgas();
+        }
+        if (grabador != null) {
+            if (terminarGrabacion) {
+                cerrarGrabacion();
+            } else if ((paso - pasoBase) % GrabadorSesion.PASOS_POR_CONTROL == 0) {
+                try {
+                    grabador.grabarControl(campo.calcularHuella(), juego.getPuntaje());
+                } catch (IOException e) {
+                    fallaGrabacion(e);
+                }
+            }
+        }
+        
+        // Los cambios se toman antes de copiar, así la copia los incluye todos; los que
+        // lleguen durante la copia quedan para el paso siguiente
+        campo.tomarCambios(cambiosPaso);
+        InstantaneaCampo instantanea = instantaneas.getEscritura();
+        VistaCampo visible = vista;
+        instantanea.comenzar(paso, juego.esJuegoActivo(), visible);
+        if (visible == null) {
+            campo.copiarEn(instantanea);
+        } else {
+            campo.copiarVisibleEn(instantanea, visible, umbralDensidad);
+        }
+        instantaneas.publicar();
+        cambiosPaso.transferirA(cambiosPublicados);
+    }
+    
+    /**
+     * Aplica una acción en el hilo de simulación, grabándola antes si corresponde.
+     */
+    private void aplicarAccion(byte accion, int x, int y) {
+        if (grabador != null) {
+            try {
+                grabador.grabarAccion(accion, x, y);
+            } catch (IOException e) {
+                fallaGrabacion(e);
+            }
+        }
+        AccionJuego.aplicar(juego, accion, x, y);
+    }
+    
+    private void grabarMouse(long posicion) {
+        try {
+            if (posicion == SIN_MOUSE) {
+                grabador.grabarSinMouse();
+            } else {
+                grabador.grabarMouse((int) (posicion >> 32), (int) posicion);
+            }
+            mouseGrabado = posicion;
+            mouseConocido = true;
+        } catch (IOException e) {
+            fallaGrabacion(e);
+        }
+    }
+    
+    private void cerrarGrabacion() {
+        GrabadorSesion terminado = grabador;
+        grabador = null;
+        terminarGrabacion = false;
+        try {
+            terminado.terminar(juego.getCampo().calcularHuella(), juego.getPuntaje());
+        } catch (IOException e) {
+            System.err.println("Error al terminar la grabación: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Deja de grabar tras un error de escritura; el juego sigue normalmente.
+     */
+    private void fallaGrabacion(IOException e) {
+        System.err.println("Error al grabar la sesión, se deja de grabar: " + e.getMessage());
+        GrabadorSesion fallido = grabador;
+        grabador = null;
+        try {
+            fallido.close();
+        } catch (IOException ignorada) {
+            // Ya se informó el error de escritura
+        }
+    }
+    
+    /**
+     * Indica si hay una grabación en curso.
+     * 
+     * @return true si se está grabando.
+     */
+    public boolean estaGrabando() {
+        return grabador != null;
+    }
+    
+    public Juego getJuego() {
+        return juego;
+    }
+}
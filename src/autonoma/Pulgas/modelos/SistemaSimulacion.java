@@ -0,0 +1,15 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Interfaz de la lógica que avanza un paso fijo de simulación.
+ * El motor la llama siempre desde el mismo hilo.
+ */
+public interface SistemaSimulacion {
+    
+    /**
+     * Avanza la simulación un paso.
+     * 
+     * @param paso Número del paso actual, empezando en 0.
+     */
+    void actualizar(long paso);
+}
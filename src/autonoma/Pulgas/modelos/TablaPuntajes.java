@@ -0,0 +1,438 @@
+package autonoma.Pulgas.modelos;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Tabla de puntajes en un archivo binario proyectado en memoria.
+ *
+ * Guarda el resultado de cada partida en un registro de tamaño fijo. Agregar un registro
+ * no recorre ni reordena nada: reserva la siguiente posición con una operación atómica
+ * sobre el contador de la cabecera, escribe los campos y al final marca el registro como
+ * confirmado. Los lectores ignoran los registros sin confirmar, así que una caída a mitad
+ * de una escritura nunca deja un registro a medias visible. Como el contador vive en la
+ * memoria compartida del archivo, varias partidas de la misma aplicación, y también de
+ * varios procesos, pueden agregar a la vez.
+ *
+ * Para las consultas (mejores puntajes y percentiles) se mantiene en memoria un índice
+ * ordenado por puntaje, que se pone al día solo con los registros nuevos.
+ *
+ * Formato: cabecera de {@value #TAMANO_CABECERA} bytes (mágico, versión, tamaño de
+ * registro y número de posiciones reservadas) seguida de los registros, de
+ * {@value #TAMANO_REGISTRO} bytes cada uno, en orden little-endian.
+ */
+public class TablaPuntajes {
+    private static final int MAGICO = 0x50554C47; // "PULG"
+    private static final int VERSION = 1;
+    static final int TAMANO_CABECERA = 64;
+    static final int TAMANO_REGISTRO = 32;
+    // El archivo se proyecta por segmentos de 1 MB, así crecer no invalida lo ya proyectado
+    private static final int REGISTROS_POR_SEGMENTO = 32768;
+    private static final long TAMANO_SEGMENTO = (long) REGISTROS_POR_SEGMENTO * TAMANO_REGISTRO;
+
+    // Campos de la cabecera
+    private static final int POS_MAGICO = 0;
+    private static final int POS_VERSION = 4;
+    private static final int POS_TAMANO_REGISTRO = 8;
+    private static final int POS_RESERVADOS = 16;
+
+    // Campos de cada registro; el estado se escribe al final
+    private static final int POS_ESTADO = 0;
+    private static final int POS_PUNTAJE = 4;
+    private static final int POS_MARCA_TIEMPO = 8;
+    private static final int POS_DURACION = 16;
+    private static final int POS_NORMALES = 24;
+    private static final int POS_MUTANTES = 28;
+    private static final int CONFIRMADO = 1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle ENTEROS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // Una sola instancia por archivo en cada proceso: comparten segmentos e índice
+    private static final HashMap<Path, TablaPuntajes> ABIERTAS = new HashMap<>();
+
+    private final Path ruta;
+    private final FileChannel canal;
+    private final MappedByteBuffer cabecera;
+    private volatile MappedByteBuffer[] segmentos = new MappedByteBuffer[0];
+    // Cerrojo propio para proyectar segmentos, así agregar no espera a las consultas
+    private final Object cerrojoSegmentos = new Object();
+
+    // Índice ordenado: claves (puntaje, posición) ascendentes; solo se usa con el cerrojo del objeto
+    private long[] claves = new long[0];
+    private int cantidad;
+    // Posiciones ya revisadas y las que estaban reservadas pero aún sin confirmar
+    private long revisadas;
+    private long[] sinConfirmar = new long[0];
+    private int cantidadSinConfirmar;
+
+    /**
+     * Abre la tabla de un archivo, creándolo si no existe. Dentro de un mismo proceso
+     * todas las llamadas con el mismo archivo devuelven la misma tabla.
+     *
+     * @param nombreArchivo Nombre del archivo de la tabla.
+     * @return Tabla de puntajes.
+     * @throws IOException Si el archivo no se puede abrir o no es una tabla de puntajes.
+     */
+    public static synchronized TablaPuntajes abrir(String nombreArchivo) throws IOException {
+        Path ruta = Paths.get(nombreArchivo).toAbsolutePath().normalize();
+        TablaPuntajes tabla = ABIERTAS.get(ruta);
+        if (tabla == null) {
+            tabla = new TablaPuntajes(ruta);
+            ABIERTAS.put(ruta, tabla);
+        }
+        return tabla;
+    }
+
+    private TablaPuntajes(Path ruta) throws IOException {
+        this.ruta = ruta;
+        this.canal = FileChannel.open(ruta, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock bloqueo = canal.lock(0, TAMANO_CABECERA, false);
+            try {
+                boolean nueva = canal.size() < TAMANO_CABECERA;
+                cabecera = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMANO_CABECERA);
+                cabecera.order(ByteOrder.LITTLE_ENDIAN);
+                if (nueva) {
+                    cabecera.putInt(POS_MAGICO, MAGICO);
+                    cabecera.putInt(POS_VERSION, VERSION);
+                    cabecera.putInt(POS_TAMANO_REGISTRO, TAMANO_REGISTRO);
+                    cabecera.putLong(POS_RESERVADOS, 0);
+                    cabecera.force();
+                } else if (cabecera.getInt(POS_MAGICO) != MAGICO
+                        || cabecera.getInt(POS_VERSION) != VERSION
+                        || cabecera.getInt(POS_TAMANO_REGISTRO) != TAMANO_REGISTRO) {
+                    throw new IOException("El archivo no es una tabla de puntajes: " + ruta);
+                }
+            } finally {
+                bloqueo.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Agrega el resultado de una partida. Es segura para varios hilos y procesos a la vez.
+     *
+     * @param registro Resultado de la partida.
+     * @return Posición del registro en el archivo.
+     * @throws IOException Si no se pudo agrandar el archivo.
+     */
+    public long agregar(RegistroPartida registro) throws IOException {
+        long posicion = (long) LONGS.getAndAdd(cabecera, POS_RESERVADOS, 1L);
+        MappedByteBuffer segmento = segmento(posicion);
+        int base = desplazamiento(posicion);
+        segmento.putInt(base + POS_PUNTAJE, registro.getPuntaje());
+        segmento.putLong(base + POS_MARCA_TIEMPO, registro.getMarcaTiempo());
+        segmento.putLong(base + POS_DURACION, registro.getDuracionMs());
+        segmento.putInt(base + POS_NORMALES, registro.getPulgasNormales());
+        segmento.putInt(base + POS_MUTANTES, registro.getPulgasMutantes());
+        // Publicar el registro solo después de todos sus campos
+        ENTEROS.setRelease(segmento, base + POS_ESTADO, CONFIRMADO);
+        return posicion;
+    }
+
+    /**
+     * Agrega varias partidas solo si la tabla no tiene ninguna posición reservada. La
+     * verificación y la escritura se hacen con el cerrojo del archivo tomado, así que
+     * entre varios procesos (o partidas) que abren a la vez una tabla vacía, solo uno
+     * las agrega. Sirve para importar datos anteriores una sola vez.
+     *
+     * @param registros Partidas a agregar; a lo sumo las que caben en un segmento.
+     * @return true si la tabla estaba vacía y se agregaron las partidas.
+     * @throws IOException Si no se pudo tomar el cerrojo o escribir el archivo.
+     */
+    public boolean agregarSiVacia(List<RegistroPartida> registros) throws IOException {
+        if (registros.size() > REGISTROS_POR_SEGMENTO) {
+            throw new IllegalArgumentException("Demasiadas partidas para agregar de una vez: " + registros.size());
+        }
+        // Proyectar antes el primer segmento: con el cerrojo tomado no se puede volver a pedir
+        segmento(0);
+        // El cerrojo de segmentos evita que otro hilo de este proceso pida el mismo cerrojo de archivo
+        synchronized (cerrojoSegmentos) {
+            FileLock bloqueo = canal.lock(0, TAMANO_CABECERA, false);
+            try {
+                if (getReservados() != 0) {
+                    return false;
+                }
+                for (RegistroPartida registro : registros) {
+                    agregar(registro);
+                }
+                forzar();
+                return true;
+            } finally {
+                bloqueo.release();
+            }
+        }
+    }
+
+    /**
+     * Lee un registro confirmado.
+     *
+     * @param posicion Posición del registro.
+     * @return Registro, o null si la posición no tiene un registro confirmado.
+     * @throws IOException Si no se pudo proyectar la parte del archivo del registro.
+     */
+    public RegistroPartida leer(long posicion) throws IOException {
+        if (posicion < 0 || posicion >= getReservados() || !estaConfirmado(posicion)) {
+            return null;
+        }
+        MappedByteBuffer segmento = segmento(posicion);
+        int base = desplazamiento(posicion);
+        return new RegistroPartida(segmento.getInt(base + POS_PUNTAJE), segmento.getLong(base + POS_DURACION),
+                segmento.getInt(base + POS_NORMALES), segmento.getInt(base + POS_MUTANTES),
+                segmento.getLong(base + POS_MARCA_TIEMPO));
+    }
+
+    /**
+     * Obtiene el número de partidas guardadas y confirmadas.
+     *
+     * @return Número de partidas.
+     * @throws IOException Si no se pudo leer el archivo.
+     */
+    public synchronized int getCantidad() throws IOException {
+        actualizarIndice();
+        return cantidad;
+    }
+
+    /**
+     * Obtiene el mayor puntaje guardado.
+     *
+     * @return Puntaje máximo, o 0 si no hay partidas.
+     * @throws IOException Si no se pudo leer el archivo.
+     */
+    public synchronized int getMaximo() throws IOException {
+        actualizarIndice();
+        return cantidad > 0 ? puntaje(claves[cantidad - 1]) : 0;
+    }
+
+    /**
+     * Obtiene las mejores partidas, de mayor a menor puntaje. En un empate va primero
+     * la partida que se guardó antes.
+     *
+     * @param n Número máximo de partidas.
+     * @return Mejores partidas.
+     * @throws IOException Si no se pudo leer el archivo.
+     */
+    public synchronized List<RegistroPartida> getMejores(int n) throws IOException {
+        actualizarIndice();
+        int total = Math.min(n, cantidad);
+        List<RegistroPartida> mejores = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            mejores.add(leer(posicion(claves[cantidad - 1 - i])));
+        }
+        return mejores;
+    }
+
+    /**
+     * Obtiene el puntaje de un percentil (por rango más cercano): el menor puntaje
+     * que es mayor o igual al de ese porcentaje de las partidas.
+     *
+     * @param percentil Percentil entre 0 y 100.
+     * @return Puntaje del percentil, o 0 si no hay partidas.
+     * @throws IOException Si no se pudo leer el archivo.
+     */
+    public synchronized int getPercentil(double percentil) throws IOException {
+        actualizarIndice();
+        if (cantidad == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil / 100.0 * cantidad) - 1;
+        return puntaje(claves[Math.max(0, Math.min(cantidad - 1, indice))]);
+    }
+
+    /**
+     * Obtiene el porcentaje de partidas con un puntaje menor al dado.
+     *
+     * @param puntaje Puntaje a comparar.
+     * @return Porcentaje entre 0 y 100, o 0 si no hay partidas.
+     * @throws IOException Si no se pudo leer el archivo.
+     */
+    public synchronized double getPorcentajeSuperado(int puntaje) throws IOException {
+        actualizarIndice();
+        if (cantidad == 0) {
+            return 0;
+        }
+        // La menor clave posible con ese puntaje: todas las anteriores tienen puntaje menor
+        int indice = Arrays.binarySearch(claves, 0, cantidad, (long) puntaje << 32);
+        int menores = indice >= 0 ? indice : -indice - 1;
+        return 100.0 * menores / cantidad;
+    }
+
+    /**
+     * Fuerza al disco los registros escritos.
+     */
+    public void forzar() {
+        MappedByteBuffer[] actuales = segmentos;
+        for (MappedByteBuffer segmento : actuales) {
+            if (segmento != null) {
+                segmento.force();
+            }
+        }
+        cabecera.force();
+    }
+
+    /**
+     * Obtiene la ruta del archivo de la tabla.
+     *
+     * @return Ruta absoluta del archivo.
+     */
+    public Path getRuta() {
+        return ruta;
+    }
+
+    /**
+     * Obtiene las posiciones reservadas, incluidas las que aún se están escribiendo.
+     */
+    private long getReservados() {
+        return (long) LONGS.getAcquire(cabecera, POS_RESERVADOS);
+    }
+
+    private boolean estaConfirmado(long posicion) throws IOException {
+        return (int) ENTEROS.getAcquire(segmento(posicion), desplazamiento(posicion) + POS_ESTADO) == CONFIRMADO;
+    }
+
+    /**
+     * Agrega al índice los registros confirmados desde la última vez. Los nuevos se
+     * ordenan aparte y se mezclan con el índice, sin reordenarlo completo.
+     */
+    private void actualizarIndice() throws IOException {
+        long reservados = getReservados();
+        if (reservados == revisadas && cantidadSinConfirmar == 0) {
+            return;
+        }
+        long[] nuevas = new long[(int) (reservados - revisadas) + cantidadSinConfirmar];
+        int cantidadNuevas = 0;
+        int quedan = 0;
+        for (int i = 0; i < cantidadSinConfirmar; i++) {
+            long posicion = sinConfirmar[i];
+            MappedByteBuffer segmento = segmento(posicion);
+            int base = desplazamiento(posicion);
+            if ((int) ENTEROS.getAcquire(segmento, base + POS_ESTADO) == CONFIRMADO) {
+                nuevas[cantidadNuevas++] = clave(segmento.getInt(base + POS_PUNTAJE), posicion);
+            } else {
+                sinConfirmar[quedan++] = posicion;
+            }
+        }
+        cantidadSinConfirmar = quedan;
+        // Recorrer segmento por segmento, sin buscar el segmento de cada posición
+        long posicion = revisadas;
+        while (posicion < reservados) {
+            MappedByteBuffer segmento = segmento(posicion);
+            long finSegmento = Math.min(reservados, (posicion / REGISTROS_POR_SEGMENTO + 1) * REGISTROS_POR_SEGMENTO);
+            for (; posicion < finSegmento; posicion++) {
+                int base = desplazamiento(posicion);
+                if (segmento.getInt(base + POS_ESTADO) == CONFIRMADO) {
+                    // Leer el puntaje solo después del estado, que se publicó al final
+                    VarHandle.acquireFence();
+                    nuevas[cantidadNuevas++] = clave(segmento.getInt(base + POS_PUNTAJE), posicion);
+                } else {
+                    // Otro hilo o proceso aún lo escribe (o cayó a mitad): se revisa en la próxima consulta
+                    if (cantidadSinConfirmar == sinConfirmar.length) {
+                        sinConfirmar = Arrays.copyOf(sinConfirmar, Math.max(8, cantidadSinConfirmar * 2));
+                    }
+                    sinConfirmar[cantidadSinConfirmar++] = posicion;
+                }
+            }
+        }
+        revisadas = reservados;
+        if (cantidadNuevas == 0) {
+            return;
+        }
+
+        Arrays.sort(nuevas, 0, cantidadNuevas);
+        long[] mezcla = claves;
+        if (cantidad + cantidadNuevas > claves.length) {
+            mezcla = new long[Math.max(cantidad + cantidadNuevas, claves.length + claves.length / 2)];
+        }
+        // Mezclar desde el final, así se puede hacer sobre el mismo arreglo: cada clave
+        // nueva se ubica con búsqueda binaria y el tramo mayor se mueve de una vez
+        int i = cantidad;
+        int k = cantidad + cantidadNuevas;
+        for (int j = cantidadNuevas - 1; j >= 0; j--) {
+            int lugar = -Arrays.binarySearch(claves, 0, i, nuevas[j]) - 1;
+            int mover = i - lugar;
+            k -= mover;
+            System.arraycopy(claves, lugar, mezcla, k, mover);
+            i = lugar;
+            mezcla[--k] = nuevas[j];
+        }
+        // El resto del índice ya está en su lugar, salvo que se haya creado un arreglo nuevo
+        if (mezcla != claves) {
+            System.arraycopy(claves, 0, mezcla, 0, i);
+        }
+        claves = mezcla;
+        cantidad += cantidadNuevas;
+    }
+
+    /**
+     * Clave del índice: puntaje en los 32 bits altos y, en los bajos, la posición
+     * invertida para que en un empate la partida más antigua quede por encima.
+     */
+    private static long clave(int puntaje, long posicion) {
+        return ((long) puntaje << 32) | (0xFFFFFFFFL - posicion);
+    }
+
+    private static int puntaje(long clave) {
+        return (int) (clave >> 32);
+    }
+
+    private static long posicion(long clave) {
+        return 0xFFFFFFFFL - (clave & 0xFFFFFFFFL);
+    }
+
+    private static int desplazamiento(long posicion) {
+        return (int) (posicion % REGISTROS_POR_SEGMENTO) * TAMANO_REGISTRO;
+    }
+
+    /**
+     * Obtiene el segmento proyectado de una posición, proyectándolo si aún no lo está.
+     */
+    private MappedByteBuffer segmento(long posicion) throws IOException {
+        int indice = (int) (posicion / REGISTROS_POR_SEGMENTO);
+        MappedByteBuffer[] actuales = segmentos;
+        if (indice < actuales.length && actuales[indice] != null) {
+            return actuales[indice];
+        }
+        return proyectarSegmento(indice);
+    }
+
+    private MappedByteBuffer proyectarSegmento(int indice) throws IOException {
+        synchronized (cerrojoSegmentos) {
+            MappedByteBuffer[] actuales = segmentos;
+            if (indice < actuales.length && actuales[indice] != null) {
+                return actuales[indice];
+            }
+            MappedByteBuffer segmento;
+            // Proyectar más allá del final agranda el archivo; con el cerrojo del archivo
+            // tomado, dos procesos que crecen a la vez no pueden achicarlo
+            FileLock bloqueo = canal.lock(0, TAMANO_CABECERA, false);
+            try {
+                segmento = canal.map(FileChannel.MapMode.READ_WRITE,
+                        TAMANO_CABECERA + indice * TAMANO_SEGMENTO, TAMANO_SEGMENTO);
+            } finally {
+                bloqueo.release();
+            }
+            segmento.order(ByteOrder.LITTLE_ENDIAN);
+            MappedByteBuffer[] nuevos = Arrays.copyOf(actuales, Math.max(actuales.length, indice + 1));
+            nuevos[indice] = segmento;
+            segmentos = nuevos;
+            return segmento;
+        }
+    }
+}
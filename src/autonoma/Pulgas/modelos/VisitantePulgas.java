@@ -0,0 +1,14 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Interfaz de una acción que se aplica a cada pulga al recorrer el campo.
+ */
+public interface VisitantePulgas {
+    
+    /**
+     * Visita una pulga del campo.
+     * 
+     * @param pulga Pulga visitada.
+     */
+    void visitar(Pulga pulga);
+}
@@ -0,0 +1,228 @@
+package autonoma.Pulgas.modelos;
+
+/**
+ * Parte del campo que se muestra en pantalla: origen, escala y tamaño de la pantalla.
+ *
+ * Es inmutable: desplazar o cambiar la escala crea una vista nueva, así el hilo de
+ * simulación (que copia solo las pulgas visibles) y el de dibujo pueden compartirla sin
+ * cerrojos, y saber si cambió comparando referencias. La vista nunca sale del campo y
+ * no se aleja más de lo necesario para verlo completo.
+ */
+public final class VistaCampo {
+    // Límites de la escala (píxeles de pantalla por píxel del campo)
+    public static final double ESCALA_MINIMA = 1.0 / 256;
+    public static final double ESCALA_MAXIMA = 4;
+
+    private final int anchoCampo;
+    private final int altoCampo;
+    private final int anchoPantalla;
+    private final int altoPantalla;
+    // Esquina superior izquierda visible, en coordenadas del campo
+    private final double x;
+    private final double y;
+    private final double escala;
+
+    /**
+     * Constructor para crear una vista sin escala en la esquina superior izquierda del campo.
+     *
+     * @param anchoCampo    Ancho del campo.
+     * @param altoCampo     Alto del campo.
+     * @param anchoPantalla Ancho del área de dibujo.
+     * @param altoPantalla  Alto del área de dibujo.
+     */
+    public VistaCampo(int anchoCampo, int altoCampo, int anchoPantalla, int altoPantalla) {
+        this(anchoCampo, altoCampo, anchoPantalla, altoPantalla, 0, 0, 1);
+    }
+
+    private VistaCampo(int anchoCampo, int altoCampo, int anchoPantalla, int altoPantalla,
+            double x, double y, double escala) {
+        this.anchoCampo = anchoCampo;
+        this.altoCampo = altoCampo;
+        this.anchoPantalla = Math.max(1, anchoPantalla);
+        this.altoPantalla = Math.max(1, altoPantalla);
+        // Sin alejarse más allá de ver el campo completo
+        double minima = Math.min(ESCALA_MAXIMA, Math.max(ESCALA_MINIMA, Math.max(
+                (double) this.anchoPantalla / anchoCampo, (double) this.altoPantalla / altoCampo)));
+        this.escala = Math.max(minima, Math.min(ESCALA_MAXIMA, escala));
+        this.x = Math.max(0, Math.min(x, anchoCampo - this.anchoPantalla / this.escala));
+        this.y = Math.max(0, Math.min(y, altoCampo - this.altoPantalla / this.escala));
+    }
+
+    /**
+     * Crea la vista para un área de dibujo de otro tamaño, con el mismo origen y escala.
+     *
+     * @param ancho Ancho del área de dibujo.
+     * @param alto  Alto del área de dibujo.
+     * @return Vista ajustada, o esta misma si el tamaño no cambió.
+     */
+    public VistaCampo conPantalla(int ancho, int alto) {
+        if (ancho == anchoPantalla && alto == altoPantalla) {
+            return this;
+        }
+        return new VistaCampo(anchoCampo, altoCampo, ancho, alto, x, y, escala);
+    }
+
+    /**
+     * Crea la vista desplazada una distancia medida en píxeles de pantalla.
+     *
+     * @param dx Desplazamiento en X (positivo hacia la derecha del campo).
+     * @param dy Desplazamiento en Y (positivo hacia abajo).
+     * @return Vista desplazada, o esta misma si ya estaba en el borde.
+     */
+    public VistaCampo desplazada(int dx, int dy) {
+        return crear(x + dx / escala, y + dy / escala, escala);
+    }
+
+    /**
+     * Crea la vista con otra escala, manteniendo fijo el punto del campo que está
+     * bajo la posición de pantalla dada (por ejemplo, el cursor).
+     *
+     * @param escala    Nueva escala; se limita al rango permitido.
+     * @param pantallaX Posición X en pantalla del punto fijo.
+     * @param pantallaY Posición Y en pantalla del punto fijo.
+     * @return Vista con la nueva escala, o esta misma si no cambió.
+     */
+    public VistaCampo conEscala(double escala, int pantallaX, int pantallaY) {
+        double puntoX = x + pantallaX / this.escala;
+        double puntoY = y + pantallaY / this.escala;
+        VistaCampo nueva = crear(x, y, escala);
+        return nueva.crear(puntoX - pantallaX / nueva.escala, puntoY - pantallaY / nueva.escala, nueva.escala);
+    }
+
+    /**
+     * Crea la vista centrada en un punto del campo, con la misma escala.
+     *
+     * @param centroX Coordenada X del campo.
+     * @param centroY Coordenada Y del campo.
+     * @return Vista centrada (limitada a los bordes del campo).
+     */
+    public VistaCampo centradaEn(int centroX, int centroY) {
+        return crear(centroX - anchoPantalla / escala / 2, centroY - altoPantalla / escala / 2, escala);
+    }
+
+    private VistaCampo crear(double nuevaX, double nuevaY, double nuevaEscala) {
+        VistaCampo nueva = new VistaCampo(anchoCampo, altoCampo, anchoPantalla, altoPantalla,
+                nuevaX, nuevaY, nuevaEscala);
+        if (nueva.x == x && nueva.y == y && nueva.escala == escala) {
+            return this;
+        }
+        return nueva;
+    }
+
+    /**
+     * Convierte una posición X de pantalla a coordenadas del campo.
+     *
+     * @param pantallaX Posición en pantalla.
+     * @return Posición en el campo.
+     */
+    public int aCampoX(int pantallaX) {
+        return (int) Math.floor(x + pantallaX / escala);
+    }
+
+    /**
+     * Convierte una posición Y de pantalla a coordenadas del campo.
+     *
+     * @param pantallaY Posición en pantalla.
+     * @return Posición en el campo.
+     */
+    public int aCampoY(int pantallaY) {
+        return (int) Math.floor(y + pantallaY / escala);
+    }
+
+    /**
+     * Convierte una posición X del campo a pantalla (redondea hacia abajo).
+     *
+     * @param campoX Posición X en el campo.
+     * @return Posición en pantalla.
+     */
+    public int aPantallaX(int campoX) {
+        return (int) Math.floor((campoX - x) * escala);
+    }
+
+    /**
+     * Convierte una posición Y del campo a pantalla (redondea hacia abajo).
+     *
+     * @param campoY Posición Y en el campo.
+     * @return Posición en pantalla.
+     */
+    public int aPantallaY(int campoY) {
+        return (int) Math.floor((campoY - y) * escala);
+    }
+
+    /**
+     * Convierte el borde derecho (exclusivo) de algo del campo a pantalla, redondeando
+     * hacia arriba, para obtener todos los píxeles de pantalla que toca.
+     *
+     * @param campoX Posición X del borde en el campo.
+     * @return Posición en pantalla.
+     */
+    public int finEnPantallaX(int campoX) {
+        return (int) Math.ceil((campoX - x) * escala);
+    }
+
+    /**
+     * Convierte el borde inferior (exclusivo) de algo del campo a pantalla, redondeando hacia arriba.
+     *
+     * @param campoY Posición Y del borde en el campo.
+     * @return Posición en pantalla.
+     */
+    public int finEnPantallaY(int campoY) {
+        return (int) Math.ceil((campoY - y) * escala);
+    }
+
+    /**
+     * Obtiene el borde izquierdo del área visible del campo.
+     *
+     * @return Coordenada X en el campo.
+     */
+    public int getX() {
+        return (int) Math.floor(x);
+    }
+
+    /**
+     * Obtiene el borde superior del área visible del campo.
+     *
+     * @return Coordenada Y en el campo.
+     */
+    public int getY() {
+        return (int) Math.floor(y);
+    }
+
+    /**
+     * Obtiene el ancho del área visible del campo, en píxeles del campo.
+     *
+     * @return Ancho visible.
+     */
+    public int getAncho() {
+        return Math.min(anchoCampo, (int) Math.ceil(x + anchoPantalla / escala)) - getX();
+    }
+
+    /**
+     * Obtiene el alto del área visible del campo, en píxeles del campo.
+     *
+     * @return Alto visible.
+     */
+    public int getAlto() {
+        return Math.min(altoCampo, (int) Math.ceil(y + altoPantalla / escala)) - getY();
+    }
+
+    public double getEscala() {
+        return escala;
+    }
+
+    public int getAnchoPantalla() {
+        return anchoPantalla;
+    }
+
+    public int getAltoPantalla() {
+        return altoPantalla;
+    }
+
+    public int getAnchoCampo() {
+        return anchoCampo;
+    }
+
+    public int getAltoCampo() {
+        return altoCampo;
+    }
+}
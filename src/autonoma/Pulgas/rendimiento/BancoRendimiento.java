@@ -0,0 +1,391 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.Campo;
+import autonoma.Pulgas.modelos.CampoCompacto;
+import autonoma.Pulgas.modelos.InstantaneaCampo;
+import autonoma.Pulgas.modelos.Pulga;
+import autonoma.Pulgas.modelos.PulgaMutante;
+import autonoma.Pulgas.modelos.PulgaNormal;
+import autonoma.Pulgas.modelos.Pulgoson;
+import autonoma.Pulgas.modelos.Pulguipium;
+import autonoma.Pulgas.modelos.RejillaEspacial;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Banco de rendimiento de las operaciones principales del campo y las armas.
+ *
+ * Para cada caso, población y densidad ejecuta iteraciones de calentamiento y de
+ * medición, y reporta rendimiento (operaciones por segundo), latencia promedio y
+ * bytes asignados por operación. Los casos colisionLista y colisionRejilla hacen las
+ * mismas consultas de colisión recorriendo toda la lista de pulgas y con la rejilla
+ * espacial, para compararlos. Los casos misil y misilCompacto miden un ataque de
+ * Pulgoson sobre Campo y CampoCompacto; para ver que crece linealmente con las
+ * pulgas, comparar ns/op entre poblaciones, por ejemplo con
+ * {@code casos=misil,misilCompacto poblaciones=25000,100000,200000,400000 densidades=0.2}.
+ * Los parámetros se pasan como clave=valor, por ejemplo:
+ * {@code casos=salto,misil poblaciones=1000,100000 densidades=0.05,0.2 iteraciones=10}
+ */
+public class BancoRendimiento {
+    private static final long SEMILLA = 42;
+    // Destino de los resultados, para que el compilador JIT no elimine el trabajo medido
+    private static volatile long resultado;
+
+    /**
+     * Método principal para ejecutar el banco de rendimiento.
+     *
+     * @param args Parámetros clave=valor: casos, poblaciones, densidades, calentamiento, iteraciones.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "casos", "poblaciones", "densidades",
+                "calentamiento", "iteraciones");
+        List<String> casos = parametros.textos("casos", "colisiona", "colisionLista", "colisionRejilla", "agregar",
+                "salto", "pistola", "misil", "misilCompacto", "dibujar");
+        int[] poblaciones = parametros.enteros("poblaciones", 1000, 10000, 100000);
+        double[] densidades = parametros.decimales("densidades", 0.05, 0.2);
+        int calentamiento = parametros.entero("calentamiento", 3);
+        int iteraciones = parametros.entero("iteraciones", 5);
+
+        System.out.printf("%-15s %10s %9s %14s %14s %12s%n",
+                "Caso", "Poblacion", "Densidad", "ops/s", "ns/op", "bytes/op");
+        for (CasoRendimiento caso : crearCasos()) {
+            if (!casos.contains(caso.getNombre())) {
+                continue;
+            }
+            for (int poblacion : poblaciones) {
+                for (double densidad : densidades) {
+                    medir(caso, poblacion, densidad, calentamiento, iteraciones);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mide un caso con una población y densidad dadas e imprime el resultado.
+     */
+    private static void medir(CasoRendimiento caso, int poblacion, double densidad,
+            int calentamiento, int iteraciones) {
+        long sumidero = 0;
+        for (int i = 0; i < calentamiento; i++) {
+            caso.preparar(poblacion, densidad);
+            int operaciones = caso.operacionesPorIteracion(poblacion);
+            for (int op = 0; op < operaciones; op++) {
+                sumidero += caso.ejecutar();
+            }
+        }
+
+        long nanosTotales = 0;
+        long bytesTotales = 0;
+        boolean bytesMedidos = true;
+        long operacionesTotales = 0;
+        for (int i = 0; i < iteraciones; i++) {
+            caso.preparar(poblacion, densidad);
+            int operaciones = caso.operacionesPorIteracion(poblacion);
+
+            long bytesInicio = bytesAsignados();
+            long inicio = System.nanoTime();
+            for (int op = 0; op < operaciones; op++) {
+                sumidero += caso.ejecutar();
+            }
+            nanosTotales += System.nanoTime() - inicio;
+            long bytesFin = bytesAsignados();
+            // Sin soporte de la JVM ambos valores son negativos y su resta no significa nada
+            if (bytesInicio < 0 || bytesFin < 0) {
+                bytesMedidos = false;
+            } else {
+                bytesTotales += bytesFin - bytesInicio;
+            }
+            operacionesTotales += operaciones;
+        }
+
+        double nanosPorOperacion = (double) nanosTotales / operacionesTotales;
+        double bytesPorOperacion = bytesMedidos ? (double) bytesTotales / operacionesTotales : Double.NaN;
+        resultado = sumidero;
+        System.out.printf("%-15s %10d %9.2f %14.1f %14.1f %12.1f%n",
+                caso.getNombre(), poblacion, densidad, 1e9 / nanosPorOperacion,
+                nanosPorOperacion, bytesPorOperacion);
+    }
+
+    /**
+     * Obtiene los bytes asignados por el hilo actual, o un valor negativo si la JVM no lo
+     * soporta ({@code Long.MIN_VALUE}) o la medición está desactivada (-1).
+     */
+    private static long bytesAsignados() {
+        java.lang.management.ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        if (hilos instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) hilos).getCurrentThreadAllocatedBytes();
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Llena un campo nuevo hasta la población pedida (o hasta que no quepan más pulgas).
+     */
+    private static Campo llenarCampo(int poblacion, double densidad) {
+        int lado = CasoRendimiento.ladoCampo(poblacion, densidad);
+        Campo campo = new Campo(lado, lado);
+        int fallos = 0;
+        while (campo.pulgasRestantes() < poblacion && fallos < 100) {
+            fallos = campo.agregarPulgaNormal() ? 0 : fallos + 1;
+        }
+        return campo;
+    }
+
+    /**
+     * Crea pulgas en posiciones al azar del campo para consultar colisiones. Con la misma
+     * semilla, los casos de lista y de rejilla consultan las mismas posiciones.
+     */
+    private static Pulga[] consultasColision(Campo campo) {
+        Random random = new Random(SEMILLA);
+        int margen = RejillaEspacial.TAMANO_MAXIMO_PULGA;
+        Pulga[] consultas = new Pulga[4096];
+        for (int i = 0; i < consultas.length; i++) {
+            consultas[i] = new PulgaNormal(random.nextInt(campo.getAnchoCampo() - margen),
+                    random.nextInt(campo.getAltoCampo() - margen));
+        }
+        return consultas;
+    }
+
+    /**
+     * Crea los casos de rendimiento de las operaciones principales.
+     */
+    private static List<CasoRendimiento> crearCasos() {
+        List<CasoRendimiento> casos = new ArrayList<>();
+
+        // Pulga.colisiona entre dos pulgas al azar del campo
+        casos.add(new CasoRendimiento("colisiona") {
+            private Pulga[] pulgas;
+            private Random random;
+
+            @Override
+            public void preparar(int poblacion, double densidad) {
+                pulgas = llenarCampo(poblacion, densidad).getPulgas().toArray(new Pulga[0]);
+                random = new Random(SEMILLA);
+            }
+
+            @Override
+            public int operacionesPorIteracion(int poblacion) {
+                return 1_000_000;
+            }
+
+            @Override
+            public long ejecutar() {
+                Pulga a = pulgas[random.nextInt(pulgas.length)];
+                Pulga b = pulgas[random.nextInt(pulgas.length)];
+                return a.colisiona(b) ? 1 : 0;
+            }
+        });
+
+        // Una pulga nueva contra todas las del campo, recorriendo la lista con Pulga.colisiona
+        casos.add(new CasoRendimiento("colisionLista") {
+            private List<Pulga> pulgas;
+            private Pulga[] consultas;
+            private int siguiente;
+
+            @Override
+            public void preparar(int poblacion, double densidad) {
+                Campo campo = llenarCampo(poblacion, densidad);
+                pulgas = new ArrayList<>(campo.getPulgas());
+                consultas = consultasColision(campo);
+                siguiente = 0;
+            }
+
+            @Override
+            public int operacionesPorIteracion(int poblacion) {
+                return Math.max(10, 10_000_000 / poblacion);
+            }
+
+            @Override
+            public long ejecutar() {
+                Pulga consulta = consultas[siguiente++ % consultas.length];
+                for (int i = 0, total = pulgas.size(); i < total; i++) {
+                    if (consulta.colisiona(pulgas.get(i))) {
+                        return 1;
+                    }
+                }
+                return 0;
+            }
+        });
+
+        // Las mismas consultas que colisionLista, con RejillaEspacial.hayColision
+        casos.add(new CasoRendimiento("colisionRejilla") {
+            private RejillaEspacial rejilla;
+            private Pulga[] consultas;
+            private int siguiente;
+
+            @Override
+            public void preparar(int poblacion, double densidad) {
+                Campo campo = llenarCampo(poblacion, densidad);
+                rejilla = new RejillaEspacial(campo.getAnchoCampo(), campo.getAltoCampo());
+                for (Pulga pulga : campo.getPulgas()) {
+                    rejilla.insertar(pulga);
+                }
+                consultas = consultasColision(campo);
+                siguiente = 0;
+            }
+
+            @Override
+            public int operacionesPorIteracion(int poblacion) {
+                return 1_000_000;
+            }
+
+            @Override
+            public long ejecutar() {
+                return rejilla.hayColision(consultas[siguiente++ % consultas.length], null) ? 1 : 0;
+            }
+        });
+
+        // Campo.agregarPulgaNormal sobre un campo con la población dada
+        casos.add(new CasoRendimiento("agregar") {
+            private Campo campo;
+
+            @Override
+            public void preparar(int poblacion, double densidad) {
+                campo = llenarCampo(poblacion, densidad);
+            }
+
+            @Override
+            public int operacionesPorIteracion(int poblacion) {
+                return Math.max(1, poblacion / 100);
+            }
+
+            @Override
+            public long ejecutar() {
+                return campo.agregarPulgaNormal() ? 1 : 0;
+            }
+        });
+
+        // Campo.hacerSaltarPulgas: una pasada completa de salto
+        casos.add(new CasoRendimiento("salto") {
+            private Campo campo;
+
+            @Override
+            public void preparar(int poblacion, double densidad) {
+                campo = llenarCampo(poblacion, densidad);
+            }
+
+            @Override
+            public int operacionesPorIteracion(int poblacion) {
+                return 1;
+            }
+
+            @Override
+            public long ejecutar() {
+                campo.hacerSaltarPulgas();
+                return campo.pulgasRestantes();
+            }
+        });
+
+        // Pulguipium.atacar en puntos aleatorios del campo
+        casos.add(new CasoRendimiento("pistola") {
+            private final Pulguipium pistola = new Pulguipium();
+            private Campo campo;
+            private Random random;
+
+            @Override
+            public void preparar(int poblacion, double densidad) {
+                campo = llenarCampo(poblacion, densidad);
+                random = new Random(SEMILLA);
+            }
+
+            @Override
+            public int operacionesPorIteracion(int poblacion) {
+                return Math.max(1, poblacion / 10);
+            }
+
+            @Override
+            public long ejecutar() {
+                return pistola.atacar(campo, random.nextInt(campo.getAnchoCampo()),
+                        random.nextInt(campo.getAltoCampo()));
+            }
+        });
+
+        // Pulgoson.atacar sobre el campo completo
+        casos.add(new CasoRendimiento("misil") {
+            private final Pulgoson misil = new Pulgoson();
+            private Campo campo;
+
+            @Override
+            public void preparar(int poblacion, double densidad) {
+                campo = llenarCampo(poblacion, densidad);
+            }
+
+            @Override
+            public int operacionesPorIteracion(int poblacion) {
+                return 1;
+            }
+
+            @Override
+            public long ejecutar() {
+                return misil.atacar(campo, 0, 0);
+            }
+        });
+
+        // Pulgoson.atacar sobre un CampoCompacto con la población dada
+        casos.add(new CasoRendimiento("misilCompacto") {
+            private final Pulgoson misil = new Pulgoson();
+            private CampoCompacto campo;
+
+            @Override
+            public void preparar(int poblacion, double densidad) {
+                int lado = CasoRendimiento.ladoCampo(poblacion, densidad);
+                campo = new CampoCompacto(lado, lado, poblacion);
+                int fallos = 0;
+                while (campo.pulgasRestantes() < poblacion && fallos < 100) {
+                    fallos = campo.agregarPulgaNormal() ? 0 : fallos + 1;
+                }
+            }
+
+            @Override
+            public int operacionesPorIteracion(int poblacion) {
+                return 1;
+            }
+
+            @Override
+            public long ejecutar() {
+                return misil.atacar(campo, 0, 0);
+            }
+        });
+
+        // InstantaneaCampo.dibujar: un cuadro completo de 1920x1080 con la población dada
+        casos.add(new CasoRendimiento("dibujar") {
+            private final BufferedImage cuadro = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+            private final InstantaneaCampo instantanea = new InstantaneaCampo();
+
+            @Override
+            public void preparar(int poblacion, double densidad) {
+                // Todas visibles: a esta escala las pulgas se superponen, lo que no cambia el costo de dibujo
+                Random random = new Random(SEMILLA);
+                instantanea.comenzar(0, true);
+                for (int i = 0; i < poblacion; i++) {
+                    int x = random.nextInt(cuadro.getWidth() - 50);
+                    int y = random.nextInt(cuadro.getHeight() - 50);
+                    instantanea.visitar(random.nextInt(3) == 0 ? new PulgaMutante(x, y) : new PulgaNormal(x, y));
+                }
+            }
+
+            @Override
+            public int operacionesPorIteracion(int poblacion) {
+                return 20;
+            }
+
+            @Override
+            public long ejecutar() {
+                Graphics2D g = cuadro.createGraphics();
+                try {
+                    instantanea.dibujar(g);
+                } finally {
+                    g.dispose();
+                }
+                return instantanea.getCantidad();
+            }
+        });
+
+        return casos;
+    }
+}
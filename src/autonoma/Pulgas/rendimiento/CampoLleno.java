@@ -0,0 +1,127 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.Campo;
+import autonoma.Pulgas.modelos.FuenteAleatoria;
+import autonoma.Pulgas.modelos.Pulga;
+import autonoma.Pulgas.modelos.PulgaMutante;
+import autonoma.Pulgas.modelos.PulgaNormal;
+import autonoma.Pulgas.modelos.Pulgoson;
+import java.util.ArrayList;
+
+/**
+ * Mide cuánto cuesta agregar una pulga a medida que el campo se llena.
+ *
+ * Agrega pulgas de a una con {@link Campo#agregarPulgaNormal()} hasta que falla y
+ * reporta el tiempo promedio por pulga en cada décimo del llenado: con el índice de
+ * lugares libres no debe crecer con la ocupación. Luego comprueba que el fallo es
+ * cierto (un recorrido completo de los huecos no encuentra lugar ni para una pulga
+ * normal ni para una mutante) y que sigue siéndolo al volver a llenar después de cada
+ * cambio: un misil (que mata pulgas normales), otro misil (que además convierte en
+ * normales a las mutantes del relleno) y un salto, y también en un campo lleno solo
+ * de mutantes tras un misil, donde casi todo el lugar liberado es el borde que le
+ * sobra a cada mutante convertida en normal. Se verifica antes de saltar porque el
+ * salto vuelve a marcar todas las celdas que cambian. Termina con error si queda
+ * lugar, si hay pulgas superpuestas o si la cantidad no coincide.
+ * Parámetros clave=valor, por ejemplo: {@code lado=3000 semilla=1}
+ */
+public class CampoLleno {
+    private static final int TRAMOS = 10;
+
+    /**
+     * Método principal para ejecutar la medición.
+     *
+     * @param args Parámetros clave=valor: lado, semilla.
+     */
+    public static void main(String[] args) {
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "lado", "semilla");
+        int lado = parametros.entero("lado", 3000);
+        long semilla = parametros.largo("semilla", 1);
+
+        Campo campo = new Campo(lado, lado, new FuenteAleatoria(semilla));
+        ArrayList<Long> tiempos = new ArrayList<>();
+        long inicio = System.nanoTime();
+        while (campo.agregarPulgaNormal()) {
+            long fin = System.nanoTime();
+            tiempos.add(fin - inicio);
+            inicio = fin;
+        }
+        int llenas = campo.pulgasRestantes();
+        StringBuilder tramos = new StringBuilder();
+        for (int t = 0; t < TRAMOS; t++) {
+            int desde = tiempos.size() * t / TRAMOS;
+            int hasta = tiempos.size() * (t + 1) / TRAMOS;
+            long suma = 0;
+            for (int i = desde; i < hasta; i++) {
+                suma += tiempos.get(i);
+            }
+            tramos.append(String.format(" %.1f", suma / 1000.0 / Math.max(1, hasta - desde)));
+        }
+        System.out.printf("campo %dx%d lleno con %d pulgas (ocupación %.2f); µs por pulga en cada décimo:%s%n",
+                lado, lado, llenas, llenas * 40.0 * 40.0 / ((double) lado * lado), tramos);
+        boolean correcto = verificarLleno(campo, lado, "lleno");
+
+        // Liberar lugar y volver a llenar con el índice ya creado, sin saltar entre medio
+        Pulgoson misil = new Pulgoson(new FuenteAleatoria(semilla + 1));
+        for (int i = 1; i <= 2; i++) {
+            String etapa = "misil " + i;
+            misil.atacar(campo, 0, 0);
+            correcto &= rellenar(campo, etapa) > 0 && verificarLleno(campo, lado, "rellenado tras el " + etapa);
+        }
+        campo.hacerSaltarPulgas();
+        correcto &= rellenar(campo, "salto") > 0 && verificarLleno(campo, lado, "rellenado tras el salto");
+
+        // Un campo lleno de mutantes: el misil convierte en normales a la mitad
+        Campo mutantes = new Campo(lado, lado, new FuenteAleatoria(semilla + 2));
+        while (mutantes.agregarPulgaMutante()) {
+            // Llenar hasta que no quepa otra
+        }
+        misil.atacar(mutantes, 0, 0);
+        correcto &= rellenar(mutantes, "misil sobre mutantes") > 0
+                && verificarLleno(mutantes, lado, "rellenado tras el misil sobre mutantes");
+
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    /**
+     * Agrega pulgas normales y mutantes de a una hasta que no quepa ninguna.
+     *
+     * @return Pulgas agregadas.
+     */
+    private static int rellenar(Campo campo, String etapa) {
+        int antes = campo.pulgasRestantes();
+        int agregadas = 0;
+        long inicio = System.nanoTime();
+        while (campo.agregarPulgaNormal() | campo.agregarPulgaMutante()) {
+            agregadas++;
+        }
+        double ms = (System.nanoTime() - inicio) / 1_000_000.0;
+        System.out.printf("%s: %d pulgas; se rellenó hasta %d en %.1f ms%n",
+                etapa, antes, campo.pulgasRestantes(), ms);
+        return agregadas;
+    }
+
+    /**
+     * Verifica que el campo no tenga pulgas superpuestas ni lugar para otra pulga.
+     */
+    private static boolean verificarLleno(Campo campo, int lado, String etapa) {
+        ArrayList<Pulga> pulgas = campo.getPulgas();
+        Campo verificacion = new Campo(lado, lado);
+        int superpuestas = 0;
+        for (Pulga pulga : pulgas) {
+            Pulga copia = pulga.getTipo() == Pulga.TIPO_MUTANTE
+                    ? new PulgaMutante(pulga.getX(), pulga.getY())
+                    : new PulgaNormal(pulga.getX(), pulga.getY());
+            if (!verificacion.agregarPulga(copia)) {
+                superpuestas++;
+            }
+        }
+        int antes = campo.pulgasRestantes();
+        // La colocación masiva termina recorriendo todos los huecos
+        int normales = campo.agregarPulgas(Pulga.TIPO_NORMAL, 1);
+        int mutantes = campo.agregarPulgas(Pulga.TIPO_MUTANTE, 1);
+        boolean correcto = superpuestas == 0 && normales == 0 && mutantes == 0 && pulgas.size() == antes;
+        System.out.printf("%s: %d pulgas, superpuestas %d, lugar para %d normales y %d mutantes más: %s%n",
+                etapa, antes, superpuestas, normales, mutantes, correcto ? "correcto" : "INCORRECTO");
+        return correcto;
+    }
+}
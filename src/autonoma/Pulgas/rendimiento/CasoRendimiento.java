@@ -0,0 +1,58 @@
+package autonoma.Pulgas.rendimiento;
+
+/**
+ * Clase abstracta que representa una operación del juego que se mide en el banco de rendimiento.
+ * Cada caso prepara su estado fuera de la medición y luego ejecuta la operación repetidamente.
+ */
+public abstract class CasoRendimiento {
+    private final String nombre;
+    
+    /**
+     * Constructor para crear un nuevo caso de rendimiento.
+     * 
+     * @param nombre Nombre corto del caso, usado para filtrarlo y en el reporte.
+     */
+    protected CasoRendimiento(String nombre) {
+        this.nombre = nombre;
+    }
+    
+    /**
+     * Prepara el estado antes de cada iteración de medición (no se mide).
+     * 
+     * @param poblacion Número de pulgas en el campo.
+     * @param densidad  Fracción del área del campo ocupada por pulgas.
+     */
+    public abstract void preparar(int poblacion, double densidad);
+    
+    /**
+     * Número de operaciones medidas por iteración. Las operaciones que
+     * modifican mucho el campo (salto, misil) usan una sola operación.
+     * 
+     * @param poblacion Número de pulgas en el campo.
+     * @return Operaciones por iteración.
+     */
+    public abstract int operacionesPorIteracion(int poblacion);
+    
+    /**
+     * Ejecuta la operación una vez.
+     * 
+     * @return Un valor derivado del resultado, para que el compilador no elimine el trabajo.
+     */
+    public abstract long ejecutar();
+    
+    public String getNombre() {
+        return nombre;
+    }
+    
+    /**
+     * Calcula el lado de un campo cuadrado para la población y densidad dadas,
+     * suponiendo pulgas de 40x40.
+     * 
+     * @param poblacion Número de pulgas.
+     * @param densidad  Fracción del área ocupada.
+     * @return Lado del campo en píxeles.
+     */
+    protected static int ladoCampo(int poblacion, double densidad) {
+        return (int) Math.sqrt(poblacion * 40.0 * 40.0 / densidad) + 50;
+    }
+}
@@ -0,0 +1,132 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.CacheSprites;
+import autonoma.Pulgas.modelos.Campo;
+import autonoma.Pulgas.modelos.FuenteAleatoria;
+import autonoma.Pulgas.modelos.InstantaneaCampo;
+import autonoma.Pulgas.modelos.Pulga;
+import autonoma.Pulgas.modelos.VistaCampo;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Mide el costo de un cuadro en campos grandes, con y sin recortar a la vista.
+ *
+ * Para cada población llena un campo con la densidad dada (el campo crece con la
+ * población) y muestra una vista de 800x600 centrada. Cada cuadro mueve el cursor
+ * dentro de la vista (las pulgas cercanas lo esquivan), copia la instantánea y la
+ * dibuja, como el hilo de simulación y el panel: las pulgas visibles o, si hay más
+ * pulgas por píxel que el umbral, el mapa de densidad. Compara con copiar y dibujar
+ * el campo completo. Termina con error si la instantánea recortada no tiene
+ * exactamente las pulgas que tocan la vista.
+ * Parámetros clave=valor, por ejemplo:
+ * {@code poblaciones=10000,100000,1000000 densidad=0.1 cuadros=120 escala=1 umbral=0.02}
+ */
+public class CuadroCampoGrande {
+
+    /**
+     * Método principal para ejecutar la medición.
+     *
+     * @param args Parámetros clave=valor: poblaciones (lista), densidad, cuadros, escala,
+     *             umbral (pulgas por píxel para el mapa de densidad), semilla.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "poblaciones", "densidad", "cuadros",
+                "escala", "umbral", "semilla");
+        int[] poblaciones = parametros.enteros("poblaciones", 10000, 100000, 1000000);
+        double densidad = parametros.decimal("densidad", 0.1);
+        int cuadros = parametros.entero("cuadros", 120);
+        double escala = parametros.decimal("escala", 1);
+        double umbral = parametros.decimal("umbral", 0.02);
+        long semilla = parametros.largo("semilla", 1);
+
+        BufferedImage pantalla = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = pantalla.createGraphics();
+        CacheSprites sprites = new CacheSprites();
+        InstantaneaCampo instantanea = new InstantaneaCampo();
+        boolean correcto = true;
+
+        for (int poblacion : poblaciones) {
+            // Lado del campo para que las pulgas (40x40) ocupen la fracción pedida
+            int lado = Math.max(800, (int) Math.sqrt(poblacion * 40.0 * 40.0 / densidad) + 50);
+            Campo campo = new Campo(lado, lado, new FuenteAleatoria(semilla));
+            for (int i = 0; i < poblacion; i++) {
+                campo.agregarPulgaNormal();
+            }
+            VistaCampo vista = new VistaCampo(lado, lado, pantalla.getWidth(), pantalla.getHeight())
+                    .conEscala(escala, 0, 0)
+                    .centradaEn(lado / 2, lado / 2);
+
+            // Calentamiento y medición de cada forma de copiar; el campo completo es
+            // mucho más lento con poblaciones grandes, así que se miden menos cuadros
+            cuadros(campo, vista, instantanea, g, sprites, umbral, cuadros);
+            double msVista = cuadros(campo, vista, instantanea, g, sprites, umbral, cuadros);
+            String contenido = instantanea.esMapaDensidad()
+                    ? "mapa de " + instantanea.getZonasMapa() + " zonas"
+                    : instantanea.getCantidad() + " pulgas";
+            int cuadrosCompletos = Math.max(3, cuadros / 10);
+            cuadros(campo, vista, instantanea, g, sprites, -1, 1);
+            double msCompleto = cuadros(campo, vista, instantanea, g, sprites, -1, cuadrosCompletos);
+
+            int esperadas = contarVisibles(campo, vista);
+            instantanea.comenzar(0, true, vista);
+            campo.copiarEn(instantanea, vista.getX(), vista.getY(), vista.getAncho(), vista.getAlto());
+            boolean coincide = instantanea.getCantidad() == esperadas;
+            correcto &= coincide;
+            System.out.printf("pulgas=%d campo=%dx%d escala=%.4f (%s): vista %.3f ms/cuadro,"
+                    + " campo completo %.3f ms/cuadro (%.0fx), %s%n",
+                    campo.pulgasRestantes(), lado, lado, vista.getEscala(), contenido, msVista, msCompleto,
+                    msCompleto / msVista, coincide ? "recorte correcto" : "RECORTE INCORRECTO (esperadas " + esperadas + ")");
+        }
+        g.dispose();
+
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    /**
+     * Ejecuta varios cuadros: evasión del cursor, copia de la instantánea y dibujo.
+     * Con un umbral negativo copia y dibuja todas las pulgas del campo.
+     *
+     * @return Milisegundos por cuadro.
+     */
+    private static double cuadros(Campo campo, VistaCampo vista, InstantaneaCampo instantanea,
+            Graphics2D g, CacheSprites sprites, double umbral, int cuadros) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < cuadros; i++) {
+            // El cursor recorre la vista para que las pulgas cercanas se muevan
+            int cursorX = vista.getX() + vista.getAncho() / 2 + (int) (vista.getAncho() / 3 * Math.sin(i / 20.0));
+            int cursorY = vista.getY() + vista.getAlto() / 2 + (int) (vista.getAlto() / 3 * Math.cos(i / 15.0));
+            campo.actualizarPosicionMouse(cursorX, cursorY);
+            campo.actualizarPulgas();
+
+            instantanea.comenzar(i, true, vista);
+            if (umbral >= 0) {
+                campo.copiarVisibleEn(instantanea, vista, umbral);
+            } else {
+                campo.copiarEn(instantanea);
+            }
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, vista.getAnchoPantalla(), vista.getAltoPantalla());
+            instantanea.dibujar(g, sprites);
+        }
+        return (System.nanoTime() - inicio) / 1_000_000.0 / cuadros;
+    }
+
+    /**
+     * Cuenta recorriendo todo el campo las pulgas que tocan la vista.
+     */
+    private static int contarVisibles(Campo campo, VistaCampo vista) {
+        int x = vista.getX();
+        int y = vista.getY();
+        int visibles = 0;
+        for (Pulga pulga : campo.getPulgas()) {
+            if (pulga.getX() < x + vista.getAncho() && pulga.getX() + pulga.getAncho() > x
+                    && pulga.getY() < y + vista.getAlto() && pulga.getY() + pulga.getAlto() > y) {
+                visibles++;
+            }
+        }
+        return visibles;
+    }
+}
@@ -0,0 +1,98 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.Campo;
+import autonoma.Pulgas.modelos.FuenteAleatoria;
+import autonoma.Pulgas.modelos.Pulga;
+import autonoma.Pulgas.modelos.PulgaMutante;
+import autonoma.Pulgas.modelos.PulgaNormal;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Mide cómo escala {@link Campo#hacerSaltarPulgas()} con el número de hilos.
+ *
+ * Para cada número de hilos llena un campo igual (misma semilla) y lo hace saltar
+ * varias veces con un grupo fork-join de ese tamaño. Informa el tiempo por salto, la
+ * aceleración respecto de un hilo y cuántas pulgas se movieron. Termina con error si
+ * alguna pulga se perdió o quedó superpuesta con otra, o si el campo final no es el
+ * mismo con todos los números de hilos.
+ * Parámetros clave=valor, por ejemplo: {@code pulgas=1000000 densidad=0.2 hilos=1,2,4,8 saltos=3}
+ */
+public class EscaladoSaltos {
+
+    /**
+     * Método principal para ejecutar la medición.
+     *
+     * @param args Parámetros clave=valor: pulgas, densidad, hilos (lista), saltos, semilla.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "pulgas", "densidad", "hilos", "saltos",
+                "semilla");
+        int pulgas = parametros.entero("pulgas", 1000000);
+        double densidad = parametros.decimal("densidad", 0.2);
+        int[] hilos = parametros.enteros("hilos", 1, 2, 4, 8);
+        int saltos = parametros.entero("saltos", 3);
+        long semilla = parametros.largo("semilla", 1);
+
+        // Lado del campo para que las pulgas (40x40) ocupen la fracción pedida
+        int lado = (int) Math.sqrt(pulgas * 40.0 * 40.0 / densidad) + 50;
+        System.out.printf("%d pulgas en %dx%d (densidad %.2f), %d procesadores%n",
+                pulgas, lado, lado, densidad, Runtime.getRuntime().availableProcessors());
+
+        boolean correcto = true;
+        double msUnHilo = 0;
+        long huellaReferencia = 0;
+        for (int h = 0; h < hilos.length; h++) {
+            Campo campo = new Campo(lado, lado, new FuenteAleatoria(semilla));
+            for (int i = 0; i < pulgas; i++) {
+                campo.agregarPulgaNormal();
+            }
+            int antes = campo.pulgasRestantes();
+            ForkJoinPool ejecutor = new ForkJoinPool(hilos[h]);
+            campo.setEjecutorSaltos(ejecutor);
+
+            // Un salto de calentamiento, luego los medidos
+            campo.hacerSaltarPulgas();
+            long inicio = System.nanoTime();
+            for (int s = 0; s < saltos; s++) {
+                campo.hacerSaltarPulgas();
+            }
+            double msPorSalto = (System.nanoTime() - inicio) / 1_000_000.0 / saltos;
+            ejecutor.shutdown();
+            if (h == 0) {
+                msUnHilo = msPorSalto;
+            }
+
+            long huella = campo.calcularHuella();
+            int superpuestas = contarSuperpuestas(campo.getPulgas(), lado);
+            boolean igual = h == 0 || huella == huellaReferencia;
+            if (h == 0) {
+                huellaReferencia = huella;
+            }
+            System.out.printf("hilos=%d: %.1f ms/salto, aceleración %.2fx, pulgas %d -> %d, superpuestas %d, %s%n",
+                    hilos[h], msPorSalto, msUnHilo / msPorSalto, antes, campo.pulgasRestantes(),
+                    superpuestas, igual ? "mismo resultado" : "RESULTADO DISTINTO");
+            correcto &= igual && superpuestas == 0 && antes == campo.pulgasRestantes();
+        }
+
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    /**
+     * Cuenta las pulgas que se superponen con otra, insertando copias en un campo vacío.
+     */
+    private static int contarSuperpuestas(ArrayList<Pulga> pulgas, int lado) {
+        Campo verificacion = new Campo(lado, lado);
+        int superpuestas = 0;
+        for (Pulga pulga : pulgas) {
+            Pulga copia = pulga.getTipo() == Pulga.TIPO_MUTANTE
+                    ? new PulgaMutante(pulga.getX(), pulga.getY())
+                    : new PulgaNormal(pulga.getX(), pulga.getY());
+            if (!verificacion.agregarPulga(copia)) {
+                superpuestas++;
+            }
+        }
+        return superpuestas;
+    }
+}
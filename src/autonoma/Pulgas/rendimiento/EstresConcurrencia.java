@@ -0,0 +1,163 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.Campo;
+import autonoma.Pulgas.modelos.DensidadCampo;
+import autonoma.Pulgas.modelos.InstantaneaCampo;
+import autonoma.Pulgas.modelos.Pulga;
+import autonoma.Pulgas.modelos.PulgaMutante;
+import autonoma.Pulgas.modelos.PulgaNormal;
+import autonoma.Pulgas.modelos.Pulgoson;
+import autonoma.Pulgas.modelos.Pulguipium;
+import autonoma.Pulgas.modelos.VistaCampo;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de estrés del campo concurrente.
+ *
+ * Varios hilos generan pulgas, disparan, lanzan misiles, hacen saltar, esquivan
+ * el cursor y copian el campo al mismo tiempo. Al terminar verifica que no se
+ * perdieron actualizaciones (pulgas agregadas - muertas = pulgas restantes = pulgas
+ * recorridas), que ninguna pulga quedó superpuesta con otra y que los conteos de
+ * densidad de cada zona coinciden con las pulgas que hay en ella.
+ * Los parámetros se pasan como clave=valor, por ejemplo:
+ * {@code hilos=8 segundos=10 lado=4000}
+ */
+public class EstresConcurrencia {
+
+    /**
+     * Método principal para ejecutar la prueba de estrés.
+     *
+     * @param args Parámetros clave=valor: hilos, segundos, lado.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "hilos", "segundos", "lado");
+        int hilos = parametros.entero("hilos", 8);
+        int segundos = parametros.entero("segundos", 10);
+        int lado = parametros.entero("lado", 4000);
+
+        Campo campo = new Campo(lado, lado);
+        AtomicLong agregadas = new AtomicLong();
+        AtomicLong muertas = new AtomicLong();
+        AtomicLong operaciones = new AtomicLong();
+        long fin = System.nanoTime() + segundos * 1_000_000_000L;
+        CountDownLatch terminados = new CountDownLatch(hilos);
+        VistaCampo vistaAlejada = new VistaCampo(lado, lado, 400, 300).conEscala(0, 0, 0);
+
+        for (int h = 0; h < hilos; h++) {
+            final int rol = h % 4;
+            final Random random = new Random(h);
+            Thread hilo = new Thread(() -> {
+                Pulguipium pistola = new Pulguipium();
+                Pulgoson misil = new Pulgoson();
+                InstantaneaCampo instantanea = new InstantaneaCampo();
+                try {
+                    while (System.nanoTime() < fin) {
+                        switch (rol) {
+                            case 0:
+                                // Generador
+                                boolean agregada = random.nextInt(3) == 0
+                                        ? campo.agregarPulgaMutante() : campo.agregarPulgaNormal();
+                                if (agregada) {
+                                    agregadas.incrementAndGet();
+                                }
+                                break;
+                            case 1:
+                                // Tirador, con un misil de vez en cuando
+                                int eliminadas = random.nextInt(2000) == 0
+                                        ? misil.atacar(campo, 0, 0)
+                                        : pistola.atacar(campo, random.nextInt(campo.getAnchoCampo()),
+                                                random.nextInt(campo.getAltoCampo()));
+                                muertas.addAndGet(eliminadas);
+                                break;
+                            case 2:
+                                // Cursor que recorre el campo y salto ocasional
+                                campo.actualizarPosicionMouse(random.nextInt(campo.getAnchoCampo()),
+                                        random.nextInt(campo.getAltoCampo()));
+                                campo.actualizarPulgas();
+                                if (random.nextInt(5000) == 0) {
+                                    campo.hacerSaltarPulgas();
+                                }
+                                break;
+                            default:
+                                // Dibujo: copia del campo completo, como el hilo de simulación,
+                                // o del mapa de densidad de una vista alejada
+                                if (random.nextBoolean()) {
+                                    instantanea.comenzar(operaciones.get(), true);
+                                    campo.copiarEn(instantanea);
+                                } else {
+                                    instantanea.comenzar(operaciones.get(), true, vistaAlejada);
+                                    campo.copiarVisibleEn(instantanea, vistaAlejada, 0);
+                                }
+                                break;
+                        }
+                        operaciones.incrementAndGet();
+                    }
+                } finally {
+                    terminados.countDown();
+                }
+            }, "estres-" + h);
+            hilo.start();
+        }
+        terminados.await();
+
+        int restantes = campo.pulgasRestantes();
+        ArrayList<Pulga> pulgas = campo.getPulgas();
+        long esperadas = agregadas.get() - muertas.get();
+        int superpuestas = contarSuperpuestas(pulgas, lado);
+        int zonasDistintas = compararDensidad(campo.getDensidad(), pulgas);
+
+        System.out.printf("hilos=%d segundos=%d operaciones=%d (%.0f ops/s)%n",
+                hilos, segundos, operaciones.get(), operaciones.get() / (double) segundos);
+        System.out.printf("agregadas=%d muertas=%d esperadas=%d restantes=%d recorridas=%d superpuestas=%d"
+                + " zonasDensidadDistintas=%d%n",
+                agregadas.get(), muertas.get(), esperadas, restantes, pulgas.size(), superpuestas, zonasDistintas);
+        boolean correcto = esperadas == restantes && restantes == pulgas.size() && superpuestas == 0
+                && zonasDistintas == 0;
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    /**
+     * Cuenta las pulgas que se superponen con otra, insertando copias en un campo vacío.
+     */
+    private static int contarSuperpuestas(ArrayList<Pulga> pulgas, int lado) {
+        Campo verificacion = new Campo(lado, lado);
+        int superpuestas = 0;
+        for (Pulga pulga : pulgas) {
+            Pulga copia = pulga.getTipo() == Pulga.TIPO_MUTANTE
+                    ? new PulgaMutante(pulga.getX(), pulga.getY())
+                    : new PulgaNormal(pulga.getX(), pulga.getY());
+            if (!verificacion.agregarPulga(copia)) {
+                superpuestas++;
+            }
+        }
+        return superpuestas;
+    }
+
+    /**
+     * Cuenta las zonas, en todos los niveles, cuyo conteo de densidad no coincide
+     * con las pulgas que hay en ellas.
+     */
+    private static int compararDensidad(DensidadCampo densidad, ArrayList<Pulga> pulgas) {
+        int distintas = 0;
+        for (int nivel = 0; nivel < DensidadCampo.NIVELES; nivel++) {
+            int columnas = densidad.getColumnas(nivel);
+            int[] esperados = new int[columnas * densidad.getFilas(nivel)];
+            int tamano = densidad.getTamanoCelda(nivel);
+            for (Pulga pulga : pulgas) {
+                int columna = Math.min(pulga.getX() / tamano, columnas - 1);
+                int fila = Math.min(pulga.getY() / tamano, densidad.getFilas(nivel) - 1);
+                esperados[fila * columnas + columna]++;
+            }
+            for (int i = 0; i < esperados.length; i++) {
+                if (densidad.getConteo(nivel, i % columnas, i / columnas) != esperados[i]) {
+                    distintas++;
+                }
+            }
+        }
+        return distintas;
+    }
+}
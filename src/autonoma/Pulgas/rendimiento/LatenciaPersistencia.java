@@ -0,0 +1,116 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.PersistenciaScore;
+import autonoma.Pulgas.modelos.RegistroPartida;
+import autonoma.Pulgas.modelos.TablaPuntajes;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifica que guardar una partida no bloquee al hilo que lo pide.
+ *
+ * Registra partidas en ráfagas, como haría la interfaz, y mide cuánto tarda cada llamada
+ * frente a lo que tarda cada escritura en disco. Mientras tanto, otro hilo consulta la
+ * tabla sin parar y comprueba que nunca ve un registro a medias (cada partida lleva
+ * campos que dependen de su puntaje). Termina con error si el percentil 99 de las
+ * llamadas supera el límite, si algún registro leído no es coherente o si al final la
+ * tabla no tiene todas las partidas.
+ * Parámetros clave=valor, por ejemplo: {@code rafagas=200 guardados=50 limite=0.5}
+ */
+public class LatenciaPersistencia {
+
+    /**
+     * Método principal para ejecutar la verificación.
+     *
+     * @param args Parámetros clave=valor: rafagas, guardados (por ráfaga), limite (ms del p99).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "rafagas", "guardados", "limite");
+        int rafagas = parametros.entero("rafagas", 200);
+        int guardados = parametros.entero("guardados", 50);
+        double limite = parametros.decimal("limite", 0.5);
+
+        Path directorio = Files.createTempDirectory("puntaje");
+        Path archivo = directorio.resolve("puntajes.dat");
+        PersistenciaScore persistencia = new PersistenciaScore(archivo.toString());
+        TablaPuntajes tabla = persistencia.getTabla();
+
+        // Lector concurrente: nunca debe ver un registro confirmado a medias
+        AtomicBoolean leyendo = new AtomicBoolean(true);
+        AtomicLong lecturas = new AtomicLong();
+        AtomicLong corruptas = new AtomicLong();
+        Thread lector = new Thread(() -> {
+            int cantidadAnterior = 0;
+            while (leyendo.get()) {
+                try {
+                    int cantidad = tabla.getCantidad();
+                    List<RegistroPartida> mejores = tabla.getMejores(3);
+                    if (cantidad < cantidadAnterior) {
+                        corruptas.incrementAndGet();
+                    }
+                    cantidadAnterior = cantidad;
+                    for (RegistroPartida registro : mejores) {
+                        if (!esCoherente(registro)) {
+                            corruptas.incrementAndGet();
+                        }
+                    }
+                    lecturas.incrementAndGet();
+                } catch (IOException e) {
+                    corruptas.incrementAndGet();
+                }
+            }
+        }, "lector-puntaje");
+        lector.start();
+
+        long[] llamadas = new long[rafagas * guardados];
+        int valor = 0;
+        for (int r = 0; r < rafagas; r++) {
+            for (int i = 0; i < guardados; i++) {
+                valor++;
+                RegistroPartida registro = new RegistroPartida(valor, valor * 10L, valor ^ 0x5A5A, valor % 97, valor);
+                long inicio = System.nanoTime();
+                persistencia.registrarPartida(registro);
+                llamadas[r * guardados + i] = System.nanoTime() - inicio;
+            }
+            // Un cuadro de la interfaz entre ráfagas
+            Thread.sleep(16);
+        }
+        // Esperar a que el escritor termine lo pendiente
+        long plazo = System.nanoTime() + 5_000_000_000L;
+        while (tabla.getCantidad() != valor && System.nanoTime() < plazo) {
+            Thread.sleep(1);
+        }
+        leyendo.set(false);
+        lector.join();
+        int guardadas = tabla.getCantidad();
+        int maximoTabla = tabla.getMaximo();
+
+        Arrays.sort(llamadas);
+        double p50 = llamadas[llamadas.length / 2] / 1_000_000.0;
+        double p99 = llamadas[(int) Math.ceil(llamadas.length * 0.99) - 1] / 1_000_000.0;
+        double maximo = llamadas[llamadas.length - 1] / 1_000_000.0;
+        System.out.printf("llamadas: %d, p50 %.4f ms, p99 %.4f ms, máximo %.4f ms%n",
+                llamadas.length, p50, p99, maximo);
+        System.out.printf("escrituras: %d (%.1f llamadas por escritura), promedio %.3f ms, máximo %.3f ms%n",
+                persistencia.getEscrituras(), (double) persistencia.getSolicitudes() / Math.max(1, persistencia.getEscrituras()),
+                persistencia.getEscrituraPromedioMs(), persistencia.getEscrituraMaximaMs());
+        System.out.printf("consultas concurrentes: %d, incoherentes: %d; en la tabla %d partidas (máximo %d) de %d%n",
+                lecturas.get(), corruptas.get(), guardadas, maximoTabla, valor);
+
+        Files.deleteIfExists(archivo);
+        Files.deleteIfExists(directorio);
+        boolean correcto = p99 <= limite && corruptas.get() == 0 && guardadas == valor && maximoTabla == valor;
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    private static boolean esCoherente(RegistroPartida registro) {
+        int puntaje = registro.getPuntaje();
+        return registro.getDuracionMs() == puntaje * 10L && registro.getPulgasNormales() == (puntaje ^ 0x5A5A)
+                && registro.getPulgasMutantes() == puntaje % 97 && registro.getMarcaTiempo() == puntaje;
+    }
+}
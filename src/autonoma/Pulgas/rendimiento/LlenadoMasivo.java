@@ -0,0 +1,103 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.Campo;
+import autonoma.Pulgas.modelos.FuenteAleatoria;
+import autonoma.Pulgas.modelos.Pulga;
+import autonoma.Pulgas.modelos.PulgaMutante;
+import autonoma.Pulgas.modelos.PulgaNormal;
+import java.util.ArrayList;
+
+/**
+ * Compara llenar el campo de a una pulga con la colocación masiva de {@link Campo#agregarPulgas}.
+ *
+ * Para cada lado de campo lo llena hasta que no caben más pulgas normales, primero
+ * con {@link Campo#agregarPulgaNormal()} (hasta muchos fallos seguidos) y luego con
+ * una sola llamada masiva, y reporta tiempo y ocupación. Después pide una cantidad
+ * que sí cabe, y agrega pulgas mutantes masivamente a un campo que ya tiene normales.
+ * Termina con error si alguna pulga queda superpuesta, si la cantidad informada no
+ * coincide con las pulgas del campo o si no se colocaron todas las que cabían.
+ * Parámetros clave=valor, por ejemplo: {@code lados=1000,4000 pulgas=10000 semilla=1}
+ */
+public class LlenadoMasivo {
+    // Fallos seguidos tras los que se considera lleno el campo al agregar de a una
+    private static final int FALLOS_LLENO = 50;
+
+    /**
+     * Método principal para ejecutar la comparación.
+     *
+     * @param args Parámetros clave=valor: lados (lista), pulgas, semilla.
+     */
+    public static void main(String[] args) {
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "lados", "pulgas", "semilla");
+        int[] lados = parametros.enteros("lados", 1000, 4000);
+        int pulgas = parametros.entero("pulgas", 10000);
+        long semilla = parametros.largo("semilla", 1);
+
+        boolean correcto = true;
+        for (int lado : lados) {
+            // De a una, hasta muchos fallos seguidos
+            Campo campo = new Campo(lado, lado, new FuenteAleatoria(semilla));
+            long inicio = System.nanoTime();
+            int fallos = 0;
+            while (fallos < FALLOS_LLENO) {
+                fallos = campo.agregarPulgaNormal() ? 0 : fallos + 1;
+            }
+            double msUna = (System.nanoTime() - inicio) / 1_000_000.0;
+            int unaPorUna = campo.pulgasRestantes();
+
+            // Masiva, pidiendo más de las que caben
+            campo = new Campo(lado, lado, new FuenteAleatoria(semilla));
+            inicio = System.nanoTime();
+            int masivas = campo.agregarPulgas(Pulga.TIPO_NORMAL, Integer.MAX_VALUE);
+            double msMasiva = (System.nanoTime() - inicio) / 1_000_000.0;
+            boolean valido = verificar(campo, masivas, lado);
+            correcto &= valido;
+            System.out.printf("lado=%d: de a una %d pulgas (ocupación %.2f) en %.1f ms;"
+                    + " masiva %d pulgas (ocupación %.2f) en %.1f ms, %s%n",
+                    lado, unaPorUna, ocupacion(unaPorUna, lado), msUna,
+                    masivas, ocupacion(masivas, lado), msMasiva, valido ? "sin superposición" : "INVÁLIDO");
+        }
+
+        // Una cantidad que cabe holgada se coloca completa
+        int lado = (int) Math.sqrt(pulgas * 40.0 * 40.0 / 0.2) + 50;
+        Campo campo = new Campo(lado, lado, new FuenteAleatoria(semilla));
+        long inicio = System.nanoTime();
+        int normales = campo.agregarPulgas(Pulga.TIPO_NORMAL, pulgas);
+        double ms = (System.nanoTime() - inicio) / 1_000_000.0;
+        // Mutantes entre las normales ya colocadas
+        int mutantes = campo.agregarPulgas(Pulga.TIPO_MUTANTE, pulgas);
+        boolean completo = normales == pulgas && mutantes == pulgas;
+        boolean valido = verificar(campo, normales + mutantes, lado);
+        correcto &= completo && valido;
+        System.out.printf("pedidas %d normales y %d mutantes en %dx%d: colocadas %d y %d (normales en %.1f ms), %s%n",
+                pulgas, pulgas, lado, lado, normales, mutantes, ms,
+                completo && valido ? "correcto" : "INCORRECTO");
+
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    private static double ocupacion(int pulgas, int lado) {
+        return pulgas * 40.0 * 40.0 / ((double) lado * lado);
+    }
+
+    /**
+     * Verifica que el campo tenga las pulgas informadas, dentro de sus límites y sin superponerse.
+     */
+    private static boolean verificar(Campo campo, int informadas, int lado) {
+        ArrayList<Pulga> pulgas = campo.getPulgas();
+        if (pulgas.size() != informadas || campo.pulgasRestantes() != informadas) {
+            return false;
+        }
+        Campo verificacion = new Campo(lado, lado);
+        for (Pulga pulga : pulgas) {
+            Pulga copia = pulga.getTipo() == Pulga.TIPO_MUTANTE
+                    ? new PulgaMutante(pulga.getX(), pulga.getY())
+                    : new PulgaNormal(pulga.getX(), pulga.getY());
+            if (pulga.getX() < 0 || pulga.getY() < 0 || pulga.getX() + pulga.getAncho() > lado
+                    || pulga.getY() + pulga.getAlto() > lado || !verificacion.agregarPulga(copia)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.Campo;
+import autonoma.Pulgas.modelos.FuenteAleatoria;
+import autonoma.Pulgas.modelos.MetricasJuego;
+import autonoma.Pulgas.modelos.Pulgoson;
+import autonoma.Pulgas.modelos.Pulguipium;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Ejecuta una carga sobre el campo y lee las métricas por JMX, como lo haría JConsole.
+ *
+ * Cada ronda agrega pulgas de a una, dispara la pistola en puntos al azar, hace saltar
+ * a todas las pulgas y lanza un misil. Reporta el tiempo total y las métricas leídas del
+ * servidor de MBeans, y termina con error si los conteos no coinciden con la carga.
+ * Para medir el costo de las métricas, comparar el tiempo con el de una corrida con
+ * {@code -Dpulgas.metricas=false} (en ese caso no se verifican los conteos).
+ * Parámetros clave=valor, por ejemplo: {@code lado=4000 rondas=20 pulgas=2000 disparos=500 semilla=1}
+ */
+public class MetricasJmx {
+
+    /**
+     * Método principal para ejecutar la carga.
+     *
+     * @param args Parámetros clave=valor: lado, rondas, pulgas (por ronda), disparos (por ronda), semilla.
+     * @throws JMException Si no se pueden leer las métricas.
+     */
+    public static void main(String[] args) throws JMException {
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "lado", "rondas", "pulgas", "disparos",
+                "semilla");
+        int lado = parametros.entero("lado", 4000);
+        int rondas = parametros.entero("rondas", 20);
+        int pulgas = parametros.entero("pulgas", 2000);
+        int disparos = parametros.entero("disparos", 500);
+        long semilla = parametros.largo("semilla", 1);
+
+        MetricasJuego.registrar();
+        boolean activas = Boolean.parseBoolean(System.getProperty("pulgas.metricas", "true"));
+        FuenteAleatoria aleatorio = new FuenteAleatoria(semilla);
+        Campo campo = new Campo(lado, lado, aleatorio.derivar(0));
+        Pulguipium pistola = new Pulguipium();
+        Pulgoson misil = new Pulgoson(aleatorio.derivar(1));
+        Random random = new Random(semilla);
+
+        // Una ronda de calentamiento sin contar, luego las medidas
+        ronda(campo, pistola, misil, random, pulgas, disparos);
+        MetricasJuego.getGlobal().reiniciar();
+        int agregadas = 0;
+        long inicio = System.nanoTime();
+        for (int r = 0; r < rondas; r++) {
+            agregadas += ronda(campo, pistola, misil, random, pulgas, disparos);
+        }
+        double ms = (System.nanoTime() - inicio) / 1_000_000.0;
+        System.out.printf("métricas %s: %d rondas en %.1f ms (%.2f ms/ronda), %d pulgas al final%n",
+                activas ? "activas" : "desactivadas", rondas, ms, ms / rondas, campo.pulgasRestantes());
+
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName nombre = new ObjectName(MetricasJuego.NOMBRE);
+        long verificaciones = (Long) servidor.getAttribute(nombre, "VerificacionesColision");
+        double porOperacion = (Double) servidor.getAttribute(nombre, "VerificacionesPorOperacion");
+        long intentos = (Long) servidor.getAttribute(nombre, "IntentosAparicion");
+        long fallos = (Long) servidor.getAttribute(nombre, "FallosAparicion");
+        CompositeData disparosJmx = (CompositeData) servidor.getAttribute(nombre, "Disparos");
+        CompositeData misilesJmx = (CompositeData) servidor.getAttribute(nombre, "Misiles");
+        CompositeData saltosJmx = (CompositeData) servidor.getAttribute(nombre, "Saltos");
+        System.out.printf("JMX: colisiones %d (%.1f por operación), aparición %d intentos y %d fallos%n",
+                verificaciones, porOperacion, intentos, fallos);
+        System.out.printf("JMX: disparos %s%nJMX: misiles %s%nJMX: saltos %s%n",
+                resumen(disparosJmx), resumen(misilesJmx), resumen(saltosJmx));
+
+        boolean correcto = !activas
+                || ((Long) disparosJmx.get("cantidad") == (long) rondas * disparos
+                && (Long) misilesJmx.get("cantidad") == rondas
+                && (Long) saltosJmx.get("cantidad") == rondas
+                && intentos >= (long) rondas * pulgas
+                && (long) rondas * pulgas - fallos == agregadas
+                && verificaciones >= intentos);
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    /**
+     * Ejecuta una ronda de la carga.
+     *
+     * @return Pulgas agregadas en la ronda.
+     */
+    private static int ronda(Campo campo, Pulguipium pistola, Pulgoson misil, Random random,
+            int pulgas, int disparos) {
+        int agregadas = 0;
+        for (int i = 0; i < pulgas; i++) {
+            if (campo.agregarPulgaNormal()) {
+                agregadas++;
+            }
+        }
+        for (int i = 0; i < disparos; i++) {
+            pistola.atacar(campo, random.nextInt(campo.getAnchoCampo()), random.nextInt(campo.getAltoCampo()));
+        }
+        campo.hacerSaltarPulgas();
+        misil.atacar(campo, 0, 0);
+        return agregadas;
+    }
+
+    private static String resumen(CompositeData datos) {
+        return String.format("%d, promedio %.3f ms (p50 %.3f, p99 %.3f, máx %.3f)",
+                datos.get("cantidad"), datos.get("promedioMs"), datos.get("p50Ms"),
+                datos.get("p99Ms"), datos.get("maximoMs"));
+    }
+}
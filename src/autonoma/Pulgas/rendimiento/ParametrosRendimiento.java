@@ -0,0 +1,135 @@
+package autonoma.Pulgas.rendimiento;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parámetros clave=valor de las pruebas de rendimiento y su veredicto final.
+ *
+ * Cada prueba declara las claves que acepta y lee cada una con su valor por defecto.
+ * Un argumento sin "=" o con una clave que la prueba no acepta es un error. Las
+ * listas se escriben separadas por comas, por ejemplo {@code poblaciones=1000,10000}.
+ */
+class ParametrosRendimiento {
+    private final Map<String, String> valores = new HashMap<>();
+
+    /**
+     * Constructor para leer los argumentos de una prueba.
+     *
+     * @param args   Argumentos clave=valor.
+     * @param claves Claves que acepta la prueba.
+     * @throws IllegalArgumentException Si un argumento no es clave=valor o su clave no se acepta.
+     */
+    ParametrosRendimiento(String[] args, String... claves) {
+        List<String> aceptadas = Arrays.asList(claves);
+        for (String arg : args) {
+            String[] partes = arg.split("=", 2);
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Parámetro inválido (se espera clave=valor): " + arg);
+            }
+            if (!aceptadas.contains(partes[0])) {
+                throw new IllegalArgumentException("Parámetro desconocido: " + partes[0]);
+            }
+            valores.put(partes[0], partes[1]);
+        }
+    }
+
+    /**
+     * Obtiene un parámetro de texto.
+     *
+     * @param clave      Clave del parámetro.
+     * @param porDefecto Valor si no se pasó.
+     * @return Valor del parámetro.
+     */
+    String texto(String clave, String porDefecto) {
+        return valores.getOrDefault(clave, porDefecto);
+    }
+
+    /**
+     * Obtiene un parámetro entero.
+     *
+     * @param clave      Clave del parámetro.
+     * @param porDefecto Valor si no se pasó.
+     * @return Valor del parámetro.
+     */
+    int entero(String clave, int porDefecto) {
+        String valor = valores.get(clave);
+        return valor == null ? porDefecto : Integer.parseInt(valor);
+    }
+
+    /**
+     * Obtiene un parámetro entero largo, como una semilla.
+     *
+     * @param clave      Clave del parámetro.
+     * @param porDefecto Valor si no se pasó.
+     * @return Valor del parámetro.
+     */
+    long largo(String clave, long porDefecto) {
+        String valor = valores.get(clave);
+        return valor == null ? porDefecto : Long.parseLong(valor);
+    }
+
+    /**
+     * Obtiene un parámetro decimal.
+     *
+     * @param clave      Clave del parámetro.
+     * @param porDefecto Valor si no se pasó.
+     * @return Valor del parámetro.
+     */
+    double decimal(String clave, double porDefecto) {
+        String valor = valores.get(clave);
+        return valor == null ? porDefecto : Double.parseDouble(valor);
+    }
+
+    /**
+     * Obtiene una lista de textos.
+     *
+     * @param clave      Clave del parámetro.
+     * @param porDefecto Valores si no se pasó.
+     * @return Valores del parámetro.
+     */
+    List<String> textos(String clave, String... porDefecto) {
+        String valor = valores.get(clave);
+        return Arrays.asList(valor == null ? porDefecto : valor.split(","));
+    }
+
+    /**
+     * Obtiene una lista de enteros.
+     *
+     * @param clave      Clave del parámetro.
+     * @param porDefecto Valores si no se pasó.
+     * @return Valores del parámetro.
+     */
+    int[] enteros(String clave, int... porDefecto) {
+        String valor = valores.get(clave);
+        return valor == null ? porDefecto : Arrays.stream(valor.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * Obtiene una lista de decimales.
+     *
+     * @param clave      Clave del parámetro.
+     * @param porDefecto Valores si no se pasó.
+     * @return Valores del parámetro.
+     */
+    double[] decimales(String clave, double... porDefecto) {
+        String valor = valores.get(clave);
+        return valor == null ? porDefecto
+                : Arrays.stream(valor.split(",")).mapToDouble(Double::parseDouble).toArray();
+    }
+
+    /**
+     * Imprime el veredicto de una prueba ("OK" o "FALLÓ") y, si falló, termina el
+     * proceso con código de salida 1.
+     *
+     * @param correcto true si la prueba pasó.
+     */
+    static void terminar(boolean correcto) {
+        System.out.println(correcto ? "OK" : "FALLÓ");
+        if (!correcto) {
+            System.exit(1);
+        }
+    }
+}
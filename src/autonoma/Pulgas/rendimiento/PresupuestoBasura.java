@@ -0,0 +1,118 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.Juego;
+import autonoma.Pulgas.modelos.PanelJuego;
+import autonoma.Pulgas.modelos.Puntaje;
+import autonoma.Pulgas.modelos.SimulacionJuego;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Verifica que el camino de dibujo de cada cuadro no genere basura en estado estable.
+ *
+ * Con la simulación corriendo y el cursor moviéndose sobre el campo (las pulgas lo
+ * esquivan, así que cada cuadro tiene zonas que redibujar), ejecuta el mismo trabajo
+ * que el hilo de Swing en cada cuadro: actualizar el lienzo del panel, dibujar el
+ * cuadro y el puntaje. Mide los bytes asignados por ese hilo con ThreadMXBean y termina
+ * con error si el promedio por cuadro supera el presupuesto. Se mide con el juego activo
+ * y con el mensaje de inicio en pantalla. Lo que agrega {@code JComponent.paint} (copia
+ * del contexto gráfico que hace Swing) se informa aparte, porque no depende del juego.
+ * El presupuesto por defecto es de 8 bytes por cuadro: el objeto más pequeño ocupa 16,
+ * así que cualquier asignación en todos los cuadros lo excede, pero tolera asignaciones
+ * aisladas del JIT al recompilar. Parámetros clave=valor, por ejemplo:
+ * {@code pulgas=200 cuadros=600 presupuesto=8}
+ */
+public class PresupuestoBasura {
+
+    /**
+     * Método principal para ejecutar la verificación.
+     *
+     * @param args Parámetros clave=valor: pulgas, cuadros, presupuesto (bytes por cuadro).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "pulgas", "cuadros", "presupuesto");
+        int pulgas = parametros.entero("pulgas", 200);
+        int cuadros = parametros.entero("cuadros", 600);
+        long presupuesto = parametros.largo("presupuesto", 8);
+
+        com.sun.management.ThreadMXBean hilos =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // Sin persistencia: la prueba no debe guardar partidas en la tabla del jugador
+        Juego juego = new Juego(null);
+        SimulacionJuego simulacion = new SimulacionJuego(juego);
+        PanelJuego panel = new PanelJuego(simulacion);
+        panel.setSize(800, 600);
+        Puntaje puntaje = new Puntaje(null);
+        BufferedImage pantalla = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = pantalla.createGraphics();
+
+        simulacion.enviar(juego::iniciar);
+        final int total = pulgas;
+        simulacion.enviar(() -> {
+            for (int i = 0; i < total; i++) {
+                juego.agregarPulgaNormal();
+            }
+        });
+        simulacion.iniciar();
+
+        boolean correcto = true;
+        for (int fase = 0; fase < 2; fase++) {
+            if (fase == 1) {
+                // Segunda fase: juego terminado, con el mensaje de inicio sobre el campo
+                simulacion.enviar(juego::finalizar);
+            }
+            // Calentamiento: que las cachés se llenen y el JIT compile el dibujo (hasta
+            // entonces cada imagen dibujada asigna memoria). Redibujar todo en cada cuadro
+            // acelera la compilación.
+            panel.setUmbralRepintadoCompleto(0);
+            for (int i = 0; i < cuadros; i++) {
+                cuadro(simulacion, panel, puntaje, g, i);
+            }
+            panel.setUmbralRepintadoCompleto(0.5);
+            for (int i = 0; i < cuadros / 4; i++) {
+                cuadro(simulacion, panel, puntaje, g, i);
+            }
+            long cambiosAntes = panel.getRepintadosParciales() + panel.getRepintadosCompletos();
+            long inicio = hilos.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < cuadros; i++) {
+                cuadro(simulacion, panel, puntaje, g, i);
+            }
+            long bytes = hilos.getCurrentThreadAllocatedBytes() - inicio;
+            long redibujados = panel.getRepintadosParciales() + panel.getRepintadosCompletos() - cambiosAntes;
+
+            double porCuadro = (double) bytes / cuadros;
+            boolean dentro = porCuadro <= presupuesto;
+            correcto &= dentro;
+            // Informativo: lo que agrega Swing al pintar el componente
+            long inicioSwing = hilos.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 100; i++) {
+                panel.paint(g);
+            }
+            double swingPorCuadro = (hilos.getCurrentThreadAllocatedBytes() - inicioSwing) / 100.0;
+
+            System.out.printf("%s: %d cuadros (%d con cambios), %.1f bytes/cuadro, presupuesto %d: %s"
+                    + " (JComponent.paint: %.1f bytes/cuadro)%n",
+                    fase == 0 ? "juego activo" : "mensaje de inicio", cuadros, redibujados,
+                    porCuadro, presupuesto, dentro ? "OK" : "EXCEDIDO", swingPorCuadro);
+        }
+        simulacion.detener();
+        g.dispose();
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    /**
+     * Ejecuta el trabajo de dibujo de un cuadro y espera el siguiente paso de simulación.
+     */
+    private static void cuadro(SimulacionJuego simulacion, PanelJuego panel, Puntaje puntaje,
+            Graphics2D g, int numero) throws InterruptedException {
+        // El cursor recorre el campo para que las pulgas se muevan en cada cuadro
+        simulacion.actualizarPosicionMouse(400 + (int) (300 * Math.sin(numero / 20.0)),
+                300 + (int) (200 * Math.cos(numero / 15.0)));
+        panel.actualizar();
+        panel.dibujarCuadro(g);
+        puntaje.dibujar(g, panel);
+        Thread.sleep(16);
+    }
+}
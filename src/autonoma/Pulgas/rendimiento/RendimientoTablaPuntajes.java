@@ -0,0 +1,248 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.RegistroPartida;
+import autonoma.Pulgas.modelos.TablaPuntajes;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mide la tabla de puntajes con cientos de miles de partidas y varios escritores a la vez.
+ *
+ * Varios hilos de este proceso y varios procesos aparte agregan partidas al mismo
+ * archivo al mismo tiempo. Luego se comprueba que estén todas (la suma de puntajes de
+ * cada escritor debe coincidir con la de la tabla) y que ninguna esté a medias, y se
+ * mide el tiempo de agregar y de las consultas: construir el índice desde cero, mejores
+ * partidas, percentiles, y ponerlo al día tras agregar unas pocas partidas más.
+ * También comprueba que, si varios hilos y procesos importan a la vez partidas anteriores
+ * en una tabla vacía ({@link TablaPuntajes#agregarSiVacia}), solo uno las agregue.
+ * Termina con error si falta alguna partida, hay registros incoherentes o alguna
+ * importación se repitió.
+ * Parámetros clave=valor, por ejemplo: {@code registros=300000 hilos=4 procesos=2 consultas=1000}
+ */
+public class RendimientoTablaPuntajes {
+    private static final int PUNTAJE_MAXIMO = 5000;
+
+    /**
+     * Método principal para ejecutar la medición.
+     *
+     * @param args Parámetros clave=valor: registros (en total), hilos, procesos, consultas.
+     *             Con {@code escritor=archivo} el proceso solo agrega partidas (lo usan
+     *             los procesos aparte) e imprime la suma de sus puntajes; con
+     *             {@code importador=archivo} solo intenta la importación e imprime 1 si
+     *             la hizo.
+     */
+    public static void main(String[] args) throws Exception {
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "registros", "hilos", "procesos",
+                "consultas", "escritor", "importador", "semilla");
+        int registros = parametros.entero("registros", 300000);
+        int hilos = parametros.entero("hilos", 4);
+        int procesos = parametros.entero("procesos", 2);
+        int consultas = parametros.entero("consultas", 1000);
+        String escritor = parametros.texto("escritor", null);
+        String importador = parametros.texto("importador", null);
+        long semilla = parametros.largo("semilla", 1);
+        if (escritor != null) {
+            System.out.println(escribir(TablaPuntajes.abrir(escritor), registros, semilla));
+            return;
+        }
+        if (importador != null) {
+            System.out.println(importar(TablaPuntajes.abrir(importador)) ? 1 : 0);
+            return;
+        }
+
+        Path directorio = Files.createTempDirectory("tabla");
+        int importaciones = importarALaVez(directorio.resolve("importada.dat"), hilos, procesos);
+        Path archivo = directorio.resolve("puntajes.dat");
+        TablaPuntajes tabla = TablaPuntajes.abrir(archivo.toString());
+        int escritores = hilos + procesos;
+        int porEscritor = registros / escritores;
+
+        // Procesos aparte, con el mismo classpath
+        List<Process> hijos = new ArrayList<>();
+        String java = ProcessHandle.current().info().command().orElse("java");
+        for (int p = 0; p < procesos; p++) {
+            hijos.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    RendimientoTablaPuntajes.class.getName(), "escritor=" + archivo,
+                    "registros=" + porEscritor, "semilla=" + (100 + p))
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start());
+        }
+        // Hilos de este proceso
+        AtomicLong sumaEsperada = new AtomicLong();
+        AtomicLong nanosAgregar = new AtomicLong();
+        List<Thread> trabajadores = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            long semillaHilo = h;
+            Thread hilo = new Thread(() -> {
+                try {
+                    long inicio = System.nanoTime();
+                    sumaEsperada.addAndGet(escribir(tabla, porEscritor, semillaHilo));
+                    nanosAgregar.addAndGet(System.nanoTime() - inicio);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            hilo.start();
+            trabajadores.add(hilo);
+        }
+        for (Thread hilo : trabajadores) {
+            hilo.join();
+        }
+        for (Process hijo : hijos) {
+            try (BufferedReader salida = new BufferedReader(
+                    new InputStreamReader(hijo.getInputStream(), StandardCharsets.UTF_8))) {
+                sumaEsperada.addAndGet(Long.parseLong(salida.readLine().trim()));
+            }
+            if (hijo.waitFor() != 0) {
+                throw new IllegalStateException("Un proceso escritor falló");
+            }
+        }
+
+        // Índice desde cero: la primera consulta revisa todas las partidas
+        long inicio = System.nanoTime();
+        int cantidad = tabla.getCantidad();
+        double msIndice = (System.nanoTime() - inicio) / 1_000_000.0;
+
+        long suma = 0;
+        long incoherentes = 0;
+        for (long posicion = 0; posicion < cantidad; posicion++) {
+            RegistroPartida registro = tabla.leer(posicion);
+            if (registro == null || !esCoherente(registro)) {
+                incoherentes++;
+            } else {
+                suma += registro.getPuntaje();
+            }
+        }
+
+        long resultado = 0;
+        inicio = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            resultado += tabla.getMejores(10).size();
+        }
+        double usMejores = (System.nanoTime() - inicio) / 1000.0 / consultas;
+        inicio = System.nanoTime();
+        for (int i = 0; i < consultas; i++) {
+            resultado += tabla.getPercentil(i % 100) + (long) tabla.getPorcentajeSuperado(i % PUNTAJE_MAXIMO);
+        }
+        double usPercentil = (System.nanoTime() - inicio) / 1000.0 / consultas / 2;
+        // Poner al día el índice con pocas partidas nuevas, como al terminar una partida
+        long nanosIncremental = 0;
+        for (int i = 0; i < 100; i++) {
+            tabla.agregar(registro(i, 7));
+            long antes = System.nanoTime();
+            resultado += tabla.getMejores(10).size();
+            nanosIncremental += System.nanoTime() - antes;
+        }
+
+        int esperadas = porEscritor * escritores;
+        System.out.printf("escritores: %d hilos + %d procesos, %d partidas cada uno%n", hilos, procesos, porEscritor);
+        System.out.printf("agregar: %.0f ns/partida (hilos de este proceso)%n",
+                (double) nanosAgregar.get() / (porEscritor * Math.max(1, hilos)));
+        System.out.printf("en la tabla: %d de %d, incoherentes: %d, suma %d (esperada %d)%n",
+                cantidad, esperadas, incoherentes, suma, sumaEsperada.get());
+        System.out.printf("índice desde cero: %.1f ms; mejores 10: %.2f us; percentil: %.2f us;"
+                + " al día tras 1 partida nueva: %.2f us%n",
+                msIndice, usMejores, usPercentil, nanosIncremental / 1000.0 / 100);
+        System.out.printf("máximo %d, mediana %d, p99 %d, archivo %d KB (%d)%n", tabla.getMaximo(),
+                tabla.getPercentil(50), tabla.getPercentil(99), Files.size(archivo) / 1024, resultado % 10);
+
+        System.out.printf("importación a la vez (%d hilos + %d procesos): hecha %d %s%n", hilos, procesos,
+                importaciones, importaciones == 1 ? "vez" : "veces");
+
+        Files.deleteIfExists(archivo);
+        Files.deleteIfExists(directorio);
+        boolean correcto = cantidad == esperadas && incoherentes == 0 && suma == sumaEsperada.get()
+                && importaciones == 1;
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    /**
+     * Hace que varios hilos y procesos intenten a la vez importar partidas en una tabla
+     * vacía. Devuelve cuántos las importaron, que debe ser uno solo; la tabla debe
+     * quedar con las partidas de una única importación.
+     */
+    private static int importarALaVez(Path archivo, int hilos, int procesos) throws Exception {
+        List<Process> hijos = new ArrayList<>();
+        String java = ProcessHandle.current().info().command().orElse("java");
+        for (int p = 0; p < procesos; p++) {
+            hijos.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    RendimientoTablaPuntajes.class.getName(), "importador=" + archivo)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start());
+        }
+        TablaPuntajes tabla = TablaPuntajes.abrir(archivo.toString());
+        AtomicLong hechas = new AtomicLong();
+        List<Thread> trabajadores = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            Thread hilo = new Thread(() -> {
+                try {
+                    if (importar(tabla)) {
+                        hechas.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            hilo.start();
+            trabajadores.add(hilo);
+        }
+        for (Thread hilo : trabajadores) {
+            hilo.join();
+        }
+        for (Process hijo : hijos) {
+            try (BufferedReader salida = new BufferedReader(
+                    new InputStreamReader(hijo.getInputStream(), StandardCharsets.UTF_8))) {
+                hechas.addAndGet(Long.parseLong(salida.readLine().trim()));
+            }
+            if (hijo.waitFor() != 0) {
+                throw new IllegalStateException("Un proceso importador falló");
+            }
+        }
+        int cantidad = tabla.getCantidad();
+        Files.deleteIfExists(archivo);
+        return cantidad == 2 ? (int) hechas.get() : -cantidad;
+    }
+
+    /**
+     * Intenta importar dos partidas, como las de los archivos de texto anteriores.
+     */
+    private static boolean importar(TablaPuntajes tabla) throws IOException {
+        List<RegistroPartida> anteriores = new ArrayList<>();
+        anteriores.add(registro(120, 0));
+        anteriores.add(registro(80, 0));
+        return tabla.agregarSiVacia(anteriores);
+    }
+
+    /**
+     * Agrega partidas con puntajes aleatorios y devuelve la suma de sus puntajes.
+     */
+    private static long escribir(TablaPuntajes tabla, int cantidad, long semilla) throws IOException {
+        Random aleatorio = new Random(semilla);
+        long suma = 0;
+        for (int i = 0; i < cantidad; i++) {
+            int puntaje = aleatorio.nextInt(PUNTAJE_MAXIMO);
+            tabla.agregar(registro(puntaje, semilla));
+            suma += puntaje;
+        }
+        return suma;
+    }
+
+    /**
+     * Partida cuyos campos dependen del puntaje, para reconocer registros a medias.
+     */
+    private static RegistroPartida registro(int puntaje, long semilla) {
+        return new RegistroPartida(puntaje, puntaje * 1000L + 1, puntaje * 3, puntaje % 11, semilla);
+    }
+
+    private static boolean esCoherente(RegistroPartida registro) {
+        int puntaje = registro.getPuntaje();
+        return registro.getDuracionMs() == puntaje * 1000L + 1 && registro.getPulgasNormales() == puntaje * 3
+                && registro.getPulgasMutantes() == puntaje % 11;
+    }
+}
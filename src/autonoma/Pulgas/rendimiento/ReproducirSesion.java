@@ -0,0 +1,124 @@
+package autonoma.Pulgas.rendimiento;
+
+import autonoma.Pulgas.modelos.AccionJuego;
+import autonoma.Pulgas.modelos.Juego;
+import autonoma.Pulgas.modelos.ReproductorSesion;
+import autonoma.Pulgas.modelos.SimulacionJuego;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Reproduce una sesión grabada a máxima velocidad y comprueba que da el mismo resultado.
+ *
+ * Con {@code archivo=} reproduce una sesión grabada con {@code SimuladorAntipulgas grabar=archivo}.
+ * Sin archivo, primero graba una sesión propia sin interfaz: la simulación corre en
+ * tiempo real en su hilo, el generador agrega pulgas y este hilo mueve el cursor,
+ * dispara, lanza misiles y hace saltar a las pulgas como lo haría un jugador.
+ * Cada repetición reproduce la sesión con un juego nuevo; termina con error si algún
+ * control no coincide con el grabado o si dos repeticiones no terminan igual.
+ * Parámetros clave=valor, por ejemplo: {@code segundos=10 repeticiones=5 semilla=7}
+ */
+public class ReproducirSesion {
+
+    /**
+     * Método principal para ejecutar la reproducción.
+     *
+     * @param args Parámetros clave=valor: archivo, segundos (de la grabación propia),
+     *             repeticiones, semilla.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        ParametrosRendimiento parametros = new ParametrosRendimiento(args, "archivo", "segundos", "repeticiones",
+                "semilla");
+        String archivo = parametros.texto("archivo", null);
+        int segundos = parametros.entero("segundos", 10);
+        int repeticiones = parametros.entero("repeticiones", 5);
+        long semilla = parametros.largo("semilla", 7);
+
+        byte[] sesion;
+        if (archivo != null) {
+            sesion = Files.readAllBytes(Paths.get(archivo));
+        } else {
+            sesion = grabar(segundos, semilla);
+        }
+        System.out.printf("sesión: %d bytes%n", sesion.length);
+
+        boolean correcto = true;
+        long huella = 0;
+        int puntaje = 0;
+        for (int r = 0; r < repeticiones; r++) {
+            ReproductorSesion reproductor = new ReproductorSesion(new ByteArrayInputStream(sesion));
+            boolean coincide = reproductor.reproducir();
+            System.out.printf("repetición %d: %d pasos, %d eventos, %d controles, %.0f pasos/s"
+                    + " (%.0fx tiempo real), puntaje %d, paso divergente %d%n",
+                    r + 1, reproductor.getPasos(), reproductor.getEventos(), reproductor.getControles(),
+                    reproductor.getPasosPorSegundo(), reproductor.getPasosPorSegundo() / 60,
+                    reproductor.getPuntajeFinal(), reproductor.getPasoDivergente());
+            if (!coincide) {
+                correcto = false;
+            }
+            if (r > 0 && (reproductor.getHuellaFinal() != huella || reproductor.getPuntajeFinal() != puntaje)) {
+                System.out.println("la repetición no terminó igual que la anterior");
+                correcto = false;
+            }
+            huella = reproductor.getHuellaFinal();
+            puntaje = reproductor.getPuntajeFinal();
+        }
+
+        ParametrosRendimiento.terminar(correcto);
+    }
+
+    /**
+     * Graba una sesión jugada por este hilo contra la simulación en tiempo real.
+     */
+    private static byte[] grabar(int segundos, long semilla) throws InterruptedException {
+        Juego juego = new Juego(null);
+        juego.getGenerador().setIntervaloPulgaNormal(50);
+        juego.getGenerador().setIntervaloPulgaMutante(120);
+        SimulacionJuego simulacion = new SimulacionJuego(juego);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        simulacion.enviarAccion(AccionJuego.INICIAR);
+        simulacion.grabar(salida, semilla);
+        simulacion.iniciar();
+
+        Random jugador = new Random(semilla);
+        int x = 400;
+        int y = 300;
+        long fin = System.nanoTime() + segundos * 1_000_000_000L;
+        int acciones = 0;
+        while (System.nanoTime() < fin) {
+            x = Math.max(0, Math.min(799, x + jugador.nextInt(41) - 20));
+            y = Math.max(0, Math.min(599, y + jugador.nextInt(41) - 20));
+            if (jugador.nextInt(50) == 0) {
+                simulacion.quitarMouse();
+            } else {
+                simulacion.actualizarPosicionMouse(x, y);
+            }
+            // Como un jugador, no dispara al campo vacío (terminaría la partida)
+            int accion = juego.getCampo().pulgasRestantes() > 5 ? jugador.nextInt(100) : 99;
+            if (accion < 10) {
+                simulacion.enviarAccion(AccionJuego.DISPARO, x, y);
+                acciones++;
+            } else if (accion < 12) {
+                simulacion.enviarAccion(AccionJuego.SALTO);
+                acciones++;
+            } else if (accion == 12) {
+                simulacion.enviarAccion(AccionJuego.MISIL);
+                acciones++;
+            } else if (accion == 13) {
+                simulacion.enviarAccion(AccionJuego.PULGA_MUTANTE);
+                acciones++;
+            }
+            Thread.sleep(5);
+        }
+        simulacion.terminarGrabacion();
+        simulacion.detener();
+        System.out.printf("grabación: %d s en tiempo real, %d acciones del jugador, %d pulgas en el campo%n",
+                segundos, acciones, juego.getCampo().pulgasRestantes());
+        return salida.toByteArray();
+    }
+}